@@ -2,10 +2,14 @@ package com.main.lutemon;
 
 import com.badlogic.gdx.Game;
 import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.Preferences;
 import com.badlogic.gdx.graphics.g2d.SpriteBatch;
 import com.main.lutemon.model.lutemon.Lutemon;
 import com.main.lutemon.screens.*;
 import com.main.lutemon.utils.AssetLoader;
+import com.main.lutemon.utils.AutosaveScheduler;
+import com.main.lutemon.utils.BinaryFileBackend;
+import com.main.lutemon.utils.Constants;
 import com.main.lutemon.utils.ProfileManager;
 import com.main.lutemon.utils.SaveManager;
 import com.main.lutemon.utils.StatisticsManager;
@@ -15,6 +19,7 @@ public class LutemonGame extends Game {
     private AssetLoader assetLoader;
     private SaveManager saveManager;
     private ProfileManager profileManager;
+    private AutosaveScheduler autosave;
     private MainMenuScreen mainMenuScreen;
     private HomeScreen homeScreen;
     private TrainingScreen trainingScreen;
@@ -27,10 +32,12 @@ public class LutemonGame extends Game {
             batch = new SpriteBatch();
             // Load assets first
             assetLoader = AssetLoader.getInstance();
-            saveManager = new SaveManager();
 
-            // Initialize profile manager
+            // Initialize profile manager with the persistence backend set in the preferences
+            useConfiguredBackend();
             profileManager = ProfileManager.getInstance();
+            saveManager = new SaveManager();
+            autosave = new AutosaveScheduler(profileManager);
             Gdx.app.log("LutemonGame", "ProfileManager initialized");
 
             // Initialize screens safely
@@ -50,6 +57,17 @@ public class LutemonGame extends Game {
         }
     }
 
+    private void useConfiguredBackend() {
+        Preferences preferences = Gdx.app.getPreferences(Constants.PREFERENCES_NAME);
+        String backend = preferences.getString(Constants.PERSISTENCE_PREFERENCE, BinaryFileBackend.NAME);
+        try {
+            ProfileManager.useBackend(backend);
+        } catch (IllegalArgumentException e) {
+            Gdx.app.error("LutemonGame", "Unknown persistence backend " + backend + ", using " + BinaryFileBackend.NAME);
+            ProfileManager.useBackend(BinaryFileBackend.NAME);
+        }
+    }
+
     private void initializeScreens() {
         try {
             mainMenuScreen = new MainMenuScreen(this);
@@ -66,15 +84,29 @@ public class LutemonGame extends Game {
     @Override
     public void render() {
         try {
+            if (autosave != null) autosave.update(Gdx.graphics.getDeltaTime());
             super.render();
         } catch (Exception e) {
             Gdx.app.error("LutemonGame", "Error in render: " + e.getMessage());
         }
     }
 
+    @Override
+    public void pause() {
+        super.pause();
+        try {
+            // The process may be killed while paused, so nothing may be left unsaved
+            if (autosave != null) autosave.flush();
+        } catch (Exception e) {
+            Gdx.app.error("LutemonGame", "Error saving on pause: " + e.getMessage());
+        }
+    }
+
     @Override
     public void dispose() {
         try {
+            // Write any change not saved yet before the save thread is stopped with the game
+            if (autosave != null) autosave.flush();
             if (batch != null) batch.dispose();
             if (assetLoader != null) assetLoader.dispose();
             super.dispose();
@@ -95,6 +127,10 @@ public class LutemonGame extends Game {
         return saveManager;
     }
 
+    public AutosaveScheduler getAutosave() {
+        return autosave;
+    }
+
     public void navigateToHome() {
         // Heal all Lutemons when returning to home
         healAllLutemons();
@@ -106,11 +142,8 @@ public class LutemonGame extends Game {
                 Gdx.app.error("LutemonGame", "Error creating new HomeScreen: " + e.getMessage());
                 return;
             }
-        } else {
-            // If homeScreen already exists, make sure to update the lutemon list
-            Gdx.app.log("LutemonGame", "Updating existing HomeScreen");
-            homeScreen.updateLutemonList();
         }
+        // An existing HomeScreen patches its lutemon list from storage events, no rebuild needed
         setScreen(homeScreen);
     }
 
@@ -120,24 +153,9 @@ public class LutemonGame extends Game {
      */
     private void healAllLutemons() {
         try {
-            // First, heal all Lutemons at HOME location
-            com.main.lutemon.model.storage.Storage.getInstance().healAllAtHome();
-
-            // Then, heal all Lutemons that were in battle
-            for (Lutemon lutemon : com.main.lutemon.model.storage.Storage.getInstance().getLutemonsAtLocation(
-                    com.main.lutemon.model.storage.Storage.Location.BATTLE)) {
-                lutemon.heal();
-                Gdx.app.log("LutemonGame", "Healed battle Lutemon: " + lutemon.getName());
-            }
-
-            // Also heal any Lutemons in training
-            for (Lutemon lutemon : com.main.lutemon.model.storage.Storage.getInstance().getLutemonsAtLocation(
-                    com.main.lutemon.model.storage.Storage.Location.TRAINING)) {
-                lutemon.heal();
-                Gdx.app.log("LutemonGame", "Healed training Lutemon: " + lutemon.getName());
-            }
-
-            Gdx.app.log("LutemonGame", "All Lutemons healed successfully");
+            // Heal every Lutemon, whether it is at home, in battle or in training, in one batch
+            int healed = com.main.lutemon.model.storage.Storage.getInstance().healAll();
+            Gdx.app.log("LutemonGame", "All Lutemons healed successfully (" + healed + ")");
         } catch (Exception e) {
             Gdx.app.error("LutemonGame", "Error healing Lutemons: " + e.getMessage());
         }
@@ -196,11 +214,28 @@ public class LutemonGame extends Game {
         }
     }
 
+    /**
+     * Saves the game. A loaded profile is saved in the background, see {@link #saveGame(ProfileManager.SaveCallback)}.
+     *
+     * @return True if the save was started or, without a profile, written successfully
+     */
     public boolean saveGame() {
+        return saveGame(null);
+    }
+
+    /**
+     * Saves the game. A loaded profile is written on a background thread, so this returns before the
+     * file is written; saves requested in quick succession are written once.
+     *
+     * @param callback Notified on the render thread when the profile has been written, may be null
+     * @return True if the save was started or, without a profile, written successfully
+     */
+    public boolean saveGame(ProfileManager.SaveCallback callback) {
         try {
             // Save current profile if one is loaded
             if (profileManager.getCurrentProfile() != null) {
-                return profileManager.saveCurrentProfile();
+                profileManager.saveCurrentProfileAsync(callback);
+                return true;
             } else {
                 // Fall back to old save system if no profile is loaded
                 return saveManager.saveGame();
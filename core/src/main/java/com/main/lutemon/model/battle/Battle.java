@@ -14,6 +14,9 @@ public class Battle {
     private BattleState state;
     private boolean isPlayerTurn;
     private float turnTimer;
+    private long startTime;
+    // Damage the player's Lutemon dealt to the enemy
+    private int playerDamage;
     private static final float TURN_DURATION = 1.0f;
 
     /**
@@ -119,11 +122,16 @@ public class Battle {
         int damage = Math.max(1, attackValue + randomVariation); // Ensure at least 1 damage
 
 
+        int healthBefore = defender.getStats().getCurrentHealth();
         defender.takeDamage(damage);
+        if (attacker == playerLutemon) {
+            playerDamage += healthBefore - defender.getStats().getCurrentHealth();
+        }
 
         if (!defender.isAlive()) {
             state = BattleState.FINISHED;
             System.out.println("Battle: Defender died!");
+            recordResult();
         }
     }
 
@@ -148,11 +156,16 @@ public class Battle {
             int randomVariation = random.nextInt(3) - 1; // -1, 0, or 1
             int damage = Math.max(1, attackValue + 2 + randomVariation); // Special attack bonus + variation
 
+            int healthBefore = defender.getStats().getCurrentHealth();
             defender.takeDamage(damage);
+            if (attacker == playerLutemon) {
+                playerDamage += healthBefore - defender.getStats().getCurrentHealth();
+            }
 
             if (!defender.isAlive()) {
                 state = BattleState.FINISHED;
                 System.out.println("Battle: Defender died from special attack!");
+                recordResult();
             }
         } else {
             System.out.println("Battle: Special attack missed!");
@@ -164,7 +177,15 @@ public class Battle {
      */
     public void start() {
         state = BattleState.IN_PROGRESS;
-        StatisticsManager.getInstance().incrementTotalBattles();
+        startTime = System.currentTimeMillis();
+    }
+
+    /**
+     * Records the finished battle in the statistics history.
+     */
+    private void recordResult() {
+        StatisticsManager.getInstance().recordBattle(playerLutemon.getId(), playerLutemon.isAlive(), playerDamage,
+            startTime == 0 ? 0 : System.currentTimeMillis() - startTime);
     }
 
     // Getters and setters
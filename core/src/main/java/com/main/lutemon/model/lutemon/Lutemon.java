@@ -3,25 +3,28 @@ package com.main.lutemon.model.lutemon;
 import com.badlogic.gdx.math.Vector2;
 import com.main.lutemon.model.lutemon.stats.LutemonStats;
 
+import java.util.function.Consumer;
+
 public abstract class Lutemon {
     private int id;
     private String name;
     private final LutemonType type;
-    private final Vector2 position;
-    private final Vector2 velocity;
+    private Vector2 position;
+    private Vector2 velocity;
     private final LutemonStats stats;
-    private boolean isAlive;
     private float stateTime;
     private float animationSpeed;
 
+    // Saved stats not yet applied to this Lutemon, see deferStats()
+    private transient volatile Consumer<LutemonStats> pendingStats;
+    private transient Runnable onHydrated;
+
     protected Lutemon(int id, String name, LutemonType type) {
         this.id = id;
         this.name = name;
         this.type = type;
-        this.position = new Vector2();
-        this.velocity = new Vector2();
+        // Position and velocity are only allocated once something asks for them
         this.stats = new LutemonStats();
-        this.isAlive = true;
         this.stateTime = 0;
         this.animationSpeed = 0.1f;
 
@@ -32,7 +35,9 @@ public abstract class Lutemon {
 
     public void update(float delta) {
         stateTime += delta;
-        position.add(velocity.x * delta, velocity.y * delta);
+        if (velocity != null) {
+            getPosition().add(velocity.x * delta, velocity.y * delta);
+        }
     }
 
     /**
@@ -43,35 +48,33 @@ public abstract class Lutemon {
      * @param damage The amount of damage to take
      */
     public void takeDamage(int damage) {
-        if (!isAlive) return;
+        if (!isAlive()) return;
 
-        int defense = stats.getDefense();
+        int defense = getStats().getDefense();
         int actualDamage = Math.max(1, damage - defense);
 
-        int maxHealth = stats.getMaxHealth();
+        int maxHealth = getStats().getMaxHealth();
         int damageLimit = (int) Math.ceil(maxHealth * 0.2);
         actualDamage = Math.min(actualDamage, damageLimit);
 
-        int currentHealth = stats.getCurrentHealth();
+        int currentHealth = getStats().getCurrentHealth();
         int newHealth = Math.max(0, currentHealth - actualDamage);
 
-        stats.setCurrentHealth(newHealth);
+        getStats().setCurrentHealth(newHealth);
         System.out.println("Health reduced: " + currentHealth + " -> " + newHealth +
                          " (Damage taken: " + (currentHealth - newHealth) + ")");
-        isAlive = newHealth > 0;
     }
 
     /**
      * Heals the Lutemon to full health.
      */
     public void heal() {
-        stats.setCurrentHealth(stats.getMaxHealth());
-        isAlive = true;
+        getStats().setCurrentHealth(getStats().getMaxHealth());
     }
 
     public void train() {
-        stats.incrementExperience();
-        stats.incrementTrainingDays();
+        getStats().incrementExperience();
+        getStats().incrementTrainingDays();
     }
 
     /**
@@ -81,22 +84,20 @@ public abstract class Lutemon {
      * @param amount The amount of experience points to add
      */
     public void addExperience(int amount) {
-        for (int i = 0; i < amount; i++) {
-            stats.incrementExperience();
-        }
+        getStats().addExperience(amount);
     }
 
     public void recordBattle(boolean won) {
-        stats.incrementBattles();
+        getStats().incrementBattles();
         if (won) {
-            stats.incrementWins();
-            stats.incrementExperience(); // Bonus experience for winning
+            getStats().incrementWins();
+            getStats().incrementExperience(); // Bonus experience for winning
             System.out.println(name + " gained 1 experience point for winning");
         }
     }
 
     public int getAttackDamage() {
-        return stats.getAttack();
+        return getStats().getAttack();
     }
 
     // Getters and setters
@@ -105,18 +106,94 @@ public abstract class Lutemon {
     public String getName() { return name; }
     public void setName(String name) { this.name = name; }
     public LutemonType getType() { return type; }
-    public Vector2 getPosition() { return position; }
-    public Vector2 getVelocity() { return velocity; }
-    public LutemonStats getStats() { return stats; }
-    public boolean isAlive() { return isAlive; }
+    public Vector2 getPosition() {
+        if (position == null) {
+            position = new Vector2();
+        }
+        return position;
+    }
+    public Vector2 getVelocity() {
+        if (velocity == null) {
+            velocity = new Vector2();
+        }
+        return velocity;
+    }
+    public LutemonStats getStats() {
+        if (pendingStats != null) {
+            hydrate();
+        }
+        return stats;
+    }
+
+    /**
+     * Defers restoring this Lutemon's saved stats until they are first needed.
+     * The loader is run exactly once, on the first call to {@link #getStats()} or {@link #hydrate()}.
+     * It must only work on the stats object it is given.
+     *
+     * @param loader Applies the saved values to the freshly initialized stats
+     */
+    public void deferStats(Consumer<LutemonStats> loader) {
+        this.pendingStats = loader;
+    }
+
+    /**
+     * Applies any deferred stats now. Safe to call from a background thread.
+     */
+    public void hydrate() {
+        Runnable callback;
+        synchronized (this) {
+            Consumer<LutemonStats> loader = pendingStats;
+            if (loader == null) {
+                return;
+            }
+            loader.accept(stats);
+            pendingStats = null;
+            callback = onHydrated;
+            onHydrated = null;
+        }
+        if (callback != null) {
+            callback.run();
+        }
+    }
+
+    /**
+     * Checks whether the stats of this Lutemon are fully restored.
+     *
+     * @return False while deferred stats are still pending
+     */
+    public boolean isHydrated() {
+        return pendingStats == null;
+    }
+
+    /**
+     * Runs an action once the deferred stats have been applied, or right away if there are none.
+     *
+     * @param action The action to run
+     */
+    public void whenHydrated(Runnable action) {
+        synchronized (this) {
+            if (pendingStats != null) {
+                onHydrated = action;
+                return;
+            }
+        }
+        action.run();
+    }
+
+    /**
+     * A Lutemon is alive while it has health left. Healing brings it back.
+     *
+     * @return True if current health is above zero
+     */
+    public boolean isAlive() { return getStats().getCurrentHealth() > 0; }
     public float getStateTime() { return stateTime; }
     public float getAnimationSpeed() { return animationSpeed; }
     public void setAnimationSpeed(float speed) { this.animationSpeed = speed; }
 
     // Additional getters for stats
-    public int getLevel() { return stats.getLevel(); }
-    public int getExperience() { return stats.getExperience(); }
-    public int getWins() { return stats.getWins(); }
-    public int getLosses() { return stats.getLosses(); }
-    public int getAttack() { return stats.getAttack(); }
+    public int getLevel() { return getStats().getLevel(); }
+    public int getExperience() { return getStats().getExperience(); }
+    public int getWins() { return getStats().getWins(); }
+    public int getLosses() { return getStats().getLosses(); }
+    public int getAttack() { return getStats().getAttack(); }
 }
@@ -1,35 +1,104 @@
 package com.main.lutemon.model.lutemon.stats;
 
 public class LutemonStats {
-    private int maxHealth;
-    private int currentHealth;
-    private int attack;
-    private int defense;
-    private int experience;
-    private int level;
-    private int trainingDays;
-    private int battles;
-    private int wins;
-    private int losses;
+    // Stats indexed like the columns of StatsColumns
+    private static final int STAT_COUNT = StatsColumns.LOSSES + 1;
+
+    // The values while these stats are not bound, null once they live in a slot of shared columns,
+    // so a bound object holds nothing but the columns and the slot
+    private int[] values;
+    private transient ChangeListener changeListener;
+
+    private transient StatsColumns columns;
+    private transient int slot;
+
+    /**
+     * Notified whenever a stat value changes.
+     */
+    public interface ChangeListener {
+        void onStatsChanged(LutemonStats stats);
+    }
 
     public LutemonStats() {
-        this.maxHealth = 100;
-        this.currentHealth = maxHealth;
-        this.attack = 10;
-        this.defense = 5;
-        this.experience = 0;
-        this.level = 1;
-        this.trainingDays = 0;
-        this.battles = 0;
-        this.wins = 0;
-        this.losses = 0;
+        values = new int[STAT_COUNT];
+        values[StatsColumns.MAX_HEALTH] = 100;
+        values[StatsColumns.CURRENT_HEALTH] = 100;
+        values[StatsColumns.ATTACK] = 10;
+        values[StatsColumns.DEFENSE] = 5;
+        values[StatsColumns.EXPERIENCE] = 0;
+        values[StatsColumns.LEVEL] = 1;
+        values[StatsColumns.TRAINING_DAYS] = 0;
+        values[StatsColumns.BATTLES] = 0;
+        values[StatsColumns.WINS] = 0;
+        values[StatsColumns.LOSSES] = 0;
     }
 
     public void setBaseStats(int attack, int defense, int maxHealth) {
-        this.attack = attack;
-        this.defense = defense;
-        this.maxHealth = maxHealth;
-        this.currentHealth = maxHealth;
+        attack(attack);
+        defense(defense);
+        maxHealth(maxHealth);
+        currentHealth(maxHealth);
+        fireChanged();
+    }
+
+    /**
+     * Moves the values of these stats into a slot of the given columns.
+     * From then on this object is a view and every read and write goes to the columns; the values
+     * it held are dropped.
+     *
+     * @param columns The columns to store the values in
+     * @param slot The slot allocated for these stats
+     */
+    public void bindTo(StatsColumns columns, int slot) {
+        int[] detached = values;
+        if (detached == null) {
+            throw new IllegalStateException("Stats are already bound to columns");
+        }
+        for (int stat = 0; stat < STAT_COUNT; stat++) {
+            columns.set(stat, slot, detached[stat]);
+        }
+        // The columns are set before the values are dropped, so readers find one or the other
+        this.slot = slot;
+        this.columns = columns;
+        values = null;
+    }
+
+    /**
+     * Makes these stats a view of a slot that already holds their values, such as a slot of a
+     * store read back from disk. Nothing is copied into the slot.
+     *
+     * @param columns The columns holding the values
+     * @param slot The slot holding the values
+     */
+    public void adopt(StatsColumns columns, int slot) {
+        if (values == null) {
+            throw new IllegalStateException("Stats are already bound to columns");
+        }
+        this.slot = slot;
+        this.columns = columns;
+        values = null;
+    }
+
+    /**
+     * Copies the values back out of the columns and releases the slot.
+     * Does nothing if these stats are not bound.
+     */
+    public void unbind() {
+        StatsColumns bound = columns;
+        if (values != null || bound == null) {
+            return;
+        }
+        int[] detached = new int[STAT_COUNT];
+        for (int stat = 0; stat < STAT_COUNT; stat++) {
+            detached[stat] = bound.get(stat, slot);
+        }
+        values = detached;
+        columns = null;
+        bound.release(slot);
+    }
+
+    public boolean isBound() {
+        return values == null;
     }
 
     /**
@@ -39,7 +108,7 @@ public class LutemonStats {
      * @return The effective attack value
      */
     public int getEffectiveAttack() {
-        return attack + (experience / 10);
+        return attack() + (experience() / 10);
     }
 
     /**
@@ -49,7 +118,7 @@ public class LutemonStats {
      * @return The effective defense value
      */
     public int getEffectiveDefense() {
-        return defense + (experience / 15);
+        return defense() + (experience() / 15);
     }
 
     /**
@@ -59,7 +128,7 @@ public class LutemonStats {
      * @return The effective max health value
      */
     public int getEffectiveMaxHealth() {
-        return maxHealth + (experience / 5);
+        return maxHealth() + (experience() / 5);
     }
 
     /**
@@ -67,33 +136,150 @@ public class LutemonStats {
      * Experience directly affects stats through the getEffective* methods.
      */
     public void incrementExperience() {
-        experience += 1;
+        experience(experience() + 1);
         // Update current health if it was at max before
-        if (currentHealth == maxHealth || currentHealth == getEffectiveMaxHealth()) {
-            currentHealth = getEffectiveMaxHealth();
+        int currentHealth = currentHealth();
+        if (currentHealth == maxHealth() || currentHealth == getEffectiveMaxHealth()) {
+            currentHealth(getEffectiveMaxHealth());
+        }
+        fireChanged();
+    }
+
+    /**
+     * Adds experience points in constant time.
+     * Leaves the stats exactly as calling {@link #incrementExperience()} that many times would,
+     * including current health, but notifies the change listener only once.
+     *
+     * @param amount The number of experience points to add
+     */
+    public void addExperience(int amount) {
+        if (amount <= 0) {
+            return;
+        }
+        int experience = experience();
+        long last = (long) experience + amount;
+
+        // Each increment only ever moves current health while it still equals the base max health,
+        // and then to the effective max at that point. So the result is decided by the first increment
+        // whose effective max differs from the base one, if there is one.
+        if (currentHealth() == maxHealth()) {
+            int first = experience + 1;
+            if (first / 5 == 0) {
+                first = 5;
+            }
+            if (first <= last) {
+                currentHealth(maxHealth() + first / 5);
+            }
         }
+        experience((int) last);
+        fireChanged();
+    }
+
+    /**
+     * Adds saved progress in one step. Used by {@link LutemonStatsCodec}.
+     */
+    void addProgress(int experience, int currentHealth, int trainingDays, int battles, int wins) {
+        ChangeListener listener = changeListener;
+        changeListener = null;
+        try {
+            addExperience(experience);
+        } finally {
+            changeListener = listener;
+        }
+        if (trainingDays > 0) {
+            trainingDays(trainingDays() + trainingDays);
+        }
+        if (battles > 0) {
+            battles(battles() + battles);
+        }
+        if (wins > 0) {
+            wins(wins() + wins);
+        }
+        if (currentHealth > 0) {
+            currentHealth(Math.max(0, Math.min(currentHealth, getEffectiveMaxHealth())));
+        }
+        fireChanged();
     }
 
     public void incrementTrainingDays() {
-        trainingDays++;
+        trainingDays(trainingDays() + 1);
+        fireChanged();
     }
 
     public void incrementBattles() {
-        battles++;
+        battles(battles() + 1);
+        fireChanged();
     }
 
     public void incrementWins() {
-        wins++;
+        wins(wins() + 1);
+        fireChanged();
     }
 
     public void incrementLosses() {
-        losses++;
+        losses(losses() + 1);
+        fireChanged();
+    }
+
+    /**
+     * Sets the listener notified when any stat changes.
+     * Storage installs one while the owning Lutemon is stored; pass null to detach it.
+     *
+     * @param changeListener The listener, or null
+     */
+    public void setChangeListener(ChangeListener changeListener) {
+        this.changeListener = changeListener;
     }
 
+    private void fireChanged() {
+        ChangeListener listener = changeListener;
+        if (listener != null) {
+            listener.onStatsChanged(this);
+        }
+    }
+
+    // Raw accessors, reading the held values or, once bound, the columns
+
+    private int get(int stat) {
+        int[] detached = values;
+        return detached != null ? detached[stat] : columns.get(stat, slot);
+    }
+
+    private void set(int stat, int value) {
+        int[] detached = values;
+        if (detached != null) {
+            detached[stat] = value;
+        } else {
+            columns.set(stat, slot, value);
+        }
+    }
+
+    private int maxHealth() { return get(StatsColumns.MAX_HEALTH); }
+    private int currentHealth() { return get(StatsColumns.CURRENT_HEALTH); }
+    private int attack() { return get(StatsColumns.ATTACK); }
+    private int defense() { return get(StatsColumns.DEFENSE); }
+    private int experience() { return get(StatsColumns.EXPERIENCE); }
+    private int level() { return get(StatsColumns.LEVEL); }
+    private int trainingDays() { return get(StatsColumns.TRAINING_DAYS); }
+    private int battles() { return get(StatsColumns.BATTLES); }
+    private int wins() { return get(StatsColumns.WINS); }
+    private int losses() { return get(StatsColumns.LOSSES); }
+
+    private void maxHealth(int value) { set(StatsColumns.MAX_HEALTH, value); }
+    private void currentHealth(int value) { set(StatsColumns.CURRENT_HEALTH, value); }
+    private void attack(int value) { set(StatsColumns.ATTACK, value); }
+    private void defense(int value) { set(StatsColumns.DEFENSE, value); }
+    private void experience(int value) { set(StatsColumns.EXPERIENCE, value); }
+    private void level(int value) { set(StatsColumns.LEVEL, value); }
+    private void trainingDays(int value) { set(StatsColumns.TRAINING_DAYS, value); }
+    private void battles(int value) { set(StatsColumns.BATTLES, value); }
+    private void wins(int value) { set(StatsColumns.WINS, value); }
+    private void losses(int value) { set(StatsColumns.LOSSES, value); }
+
     // Getters and setters
     public int getMaxHealth() { return getEffectiveMaxHealth(); }
-    public void setMaxHealth(int maxHealth) { this.maxHealth = maxHealth; }
-    public int getCurrentHealth() { return currentHealth; }
+    public void setMaxHealth(int maxHealth) { maxHealth(maxHealth); fireChanged(); }
+    public int getCurrentHealth() { return currentHealth(); }
 
     /**
      * Sets the current health, ensuring it doesn't go below 0 or above max health.
@@ -102,22 +288,23 @@ public class LutemonStats {
      */
     public void setCurrentHealth(int newHealth) {
         // Ensure health is between 0 and max health
-        this.currentHealth = Math.max(0, Math.min(newHealth, getEffectiveMaxHealth()));
+        currentHealth(Math.max(0, Math.min(newHealth, getEffectiveMaxHealth())));
+        fireChanged();
     }
     public int getAttack() { return getEffectiveAttack(); }
-    public void setAttack(int attack) { this.attack = attack; }
+    public void setAttack(int attack) { attack(attack); fireChanged(); }
     public int getDefense() { return getEffectiveDefense(); }
-    public void setDefense(int defense) { this.defense = defense; }
-    public int getExperience() { return experience; }
-    public void setExperience(int experience) { this.experience = experience; }
-    public int getLevel() { return level; }
-    public void setLevel(int level) { this.level = level; }
-    public int getTrainingDays() { return trainingDays; }
-    public void setTrainingDays(int trainingDays) { this.trainingDays = trainingDays; }
-    public int getBattles() { return battles; }
-    public void setBattles(int battles) { this.battles = battles; }
-    public int getWins() { return wins; }
-    public void setWins(int wins) { this.wins = wins; }
-    public int getLosses() { return losses; }
-    public void setLosses(int losses) { this.losses = losses; }
+    public void setDefense(int defense) { defense(defense); fireChanged(); }
+    public int getExperience() { return experience(); }
+    public void setExperience(int experience) { experience(experience); fireChanged(); }
+    public int getLevel() { return level(); }
+    public void setLevel(int level) { level(level); fireChanged(); }
+    public int getTrainingDays() { return trainingDays(); }
+    public void setTrainingDays(int trainingDays) { trainingDays(trainingDays); fireChanged(); }
+    public int getBattles() { return battles(); }
+    public void setBattles(int battles) { battles(battles); fireChanged(); }
+    public int getWins() { return wins(); }
+    public void setWins(int wins) { wins(wins); fireChanged(); }
+    public int getLosses() { return losses(); }
+    public void setLosses(int losses) { losses(losses); fireChanged(); }
 }
@@ -0,0 +1,32 @@
+package com.main.lutemon.model.lutemon.stats;
+
+/**
+ * Restores saved stats into {@link LutemonStats} without replaying them point by point.
+ * The cost is the same for a fresh Lutemon and for a veteran with millions of experience.
+ */
+public final class LutemonStatsCodec {
+
+    private LutemonStatsCodec() {
+    }
+
+    /**
+     * Applies saved values to stats, usually freshly created ones.
+     * The result is the same as calling {@link LutemonStats#incrementExperience()}, {@link LutemonStats#incrementBattles()},
+     * {@link LutemonStats#incrementWins()} and {@link LutemonStats#incrementTrainingDays()} once per saved point
+     * and then setting the saved current health, but the change listener is notified only once.
+     *
+     * @param stats The stats to restore into
+     * @param experience The saved experience
+     * @param currentHealth The saved current health, or 0 to keep the health the experience left
+     * @param trainingDays The saved number of training days
+     * @param battles The saved number of battles
+     * @param wins The saved number of wins
+     */
+    public static void restore(LutemonStats stats, int experience, int currentHealth,
+                               int trainingDays, int battles, int wins) {
+        if (stats == null) {
+            throw new IllegalArgumentException("Stats cannot be null");
+        }
+        stats.addProgress(experience, currentHealth, trainingDays, battles, wins);
+    }
+}
@@ -0,0 +1,349 @@
+package com.main.lutemon.model.lutemon.stats;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Stats columns kept in a memory-mapped file, one fixed-size record per slot, so they are saved
+ * simply by flushing the pages that changed. Each record holds the stats, the owner ID, the type and
+ * the location of the name in a separate, append-only name file.
+ *
+ * <p>Record file layout: a {@value #HEADER_SIZE} byte header (magic, format version, record size,
+ * state), then records of {@value #RECORD_SIZE} bytes grouped in segments of {@value #SEGMENT_RECORDS}.
+ * The state is {@code BUILDING} until {@link #markReady()} has flushed a complete first version, so a
+ * store interrupted while being created is never mistaken for a complete one. Names of released
+ * slots stay in the name file; it is rewritten only when the store is created again.
+ *
+ * <p>Writes go straight to the mapped pages and reach the disk whenever the operating system writes
+ * them back, or at the latest on {@link #force()}. Once {@link #close()}d, the store can still be read
+ * but ignores every write, so detaching Lutemons from it does not change the saved records.
+ */
+public class MappedStatsColumns extends StatsColumns {
+    public static final int HEADER_SIZE = 64;
+    public static final int RECORD_SIZE = 64;
+    public static final int SEGMENT_RECORDS = 4096;
+
+    private static final int MAGIC = 0x4c555452; // "LUTR"
+    private static final int FORMAT_VERSION = 1;
+    private static final int STATE_BUILDING = 0;
+    private static final int STATE_READY = 1;
+
+    // Header fields, as byte offsets
+    private static final int HEADER_MAGIC = 0;
+    private static final int HEADER_VERSION = 4;
+    private static final int HEADER_RECORD_SIZE = 8;
+    private static final int HEADER_STATE = 12;
+
+    // Record fields after the stat columns, as int indexes
+    private static final int OWNER = 10;
+    private static final int TYPE = 11;
+    private static final int NAME_OFFSET = 12;
+    private static final int NAME_LENGTH = 13;
+    private static final int FLAGS = 14;
+    private static final int FLAG_ALLOCATED = 1;
+
+    private static final long SEGMENT_SIZE = (long) SEGMENT_RECORDS * RECORD_SIZE;
+
+    /**
+     * Receives the records of a store.
+     */
+    public interface RecordVisitor {
+        void visit(int slot, int ownerId, int typeOrdinal, String name);
+    }
+
+    private final RandomAccessFile recordFile;
+    private final FileChannel records;
+    private final FileChannel names;
+    private final MappedByteBuffer header;
+    // Segments are never unmapped or moved, only the array holding them is replaced
+    private volatile MappedByteBuffer[] segments = new MappedByteBuffer[0];
+    private final BitSet allocated = new BitSet();
+    private long namesLength;
+    private volatile boolean closed;
+
+    private MappedStatsColumns(File recordPath, File namePath) throws IOException {
+        recordFile = new RandomAccessFile(recordPath, "rw");
+        records = recordFile.getChannel();
+        names = new RandomAccessFile(namePath, "rw").getChannel();
+        header = records.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        namesLength = names.size();
+    }
+
+    /**
+     * Creates an empty store, replacing any existing files. It is not ready until {@link #markReady()}.
+     *
+     * @param recordPath The record file
+     * @param namePath The name file
+     * @return The store
+     * @throws IOException If the files could not be created
+     */
+    public static MappedStatsColumns create(File recordPath, File namePath) throws IOException {
+        recordPath.delete();
+        namePath.delete();
+        MappedStatsColumns store = new MappedStatsColumns(recordPath, namePath);
+        store.header.putInt(HEADER_MAGIC, MAGIC);
+        store.header.putInt(HEADER_VERSION, FORMAT_VERSION);
+        store.header.putInt(HEADER_RECORD_SIZE, RECORD_SIZE);
+        store.header.putInt(HEADER_STATE, STATE_BUILDING);
+        return store;
+    }
+
+    /**
+     * Opens a ready store.
+     *
+     * @param recordPath The record file
+     * @param namePath The name file
+     * @return The store
+     * @throws IOException If the files could not be read or the store is not ready
+     */
+    public static MappedStatsColumns open(File recordPath, File namePath) throws IOException {
+        if (!isReady(recordPath)) {
+            throw new IOException("Not a complete stats store: " + recordPath.getName());
+        }
+        MappedStatsColumns store = new MappedStatsColumns(recordPath, namePath);
+        try {
+            store.mapExisting();
+        } catch (IOException e) {
+            store.close();
+            throw e;
+        }
+        int capacity = store.segments.length * SEGMENT_RECORDS;
+        for (int slot = 0; slot < capacity; slot++) {
+            if ((store.field(slot, FLAGS) & FLAG_ALLOCATED) != 0) {
+                store.allocated.set(slot);
+            }
+        }
+        return store;
+    }
+
+    /**
+     * Checks whether a record file holds a complete store.
+     *
+     * @param recordPath The record file
+     * @return True if the file exists and was marked ready
+     */
+    public static boolean isReady(File recordPath) {
+        if (!recordPath.isFile() || recordPath.length() < HEADER_SIZE) {
+            return false;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(recordPath, "r")) {
+            return file.readInt() == MAGIC
+                && file.readInt() <= FORMAT_VERSION
+                && file.readInt() == RECORD_SIZE
+                && file.readInt() == STATE_READY;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Flushes everything written so far and marks the store complete.
+     *
+     * @throws IOException If the store could not be flushed
+     */
+    public void markReady() throws IOException {
+        force();
+        header.putInt(HEADER_STATE, STATE_READY);
+        header.force();
+    }
+
+    /**
+     * Reports every allocated record, in slot order. A record whose name lies outside the name file,
+     * which a crash before the name file was flushed can leave behind, gets an empty name.
+     *
+     * @param visitor Receives the records
+     * @throws IOException If the name file could not be read
+     */
+    public synchronized void forEachRecord(RecordVisitor visitor) throws IOException {
+        byte[] nameData = readNames();
+        for (int slot = allocated.nextSetBit(0); slot >= 0; slot = allocated.nextSetBit(slot + 1)) {
+            int offset = field(slot, NAME_OFFSET);
+            int length = field(slot, NAME_LENGTH);
+            String name = offset >= 0 && length >= 0 && (long) offset + length <= nameData.length
+                ? new String(nameData, offset, length, StandardCharsets.UTF_8) : "";
+            visitor.visit(slot, field(slot, OWNER), field(slot, TYPE), name);
+        }
+    }
+
+    /**
+     * Writes every changed page and the name file to the disk.
+     *
+     * @throws IOException If the name file could not be flushed
+     */
+    public synchronized void force() throws IOException {
+        if (closed) {
+            return;
+        }
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+        names.force(false);
+    }
+
+    /**
+     * Flushes the store and stops writing to it. Values can still be read afterwards.
+     */
+    public synchronized void close() {
+        if (closed) {
+            return;
+        }
+        try {
+            force();
+        } catch (IOException e) {
+            // The records were written to the mapping, the system still writes them back
+        }
+        closed = true;
+        try {
+            names.close();
+            records.close();
+            recordFile.close();
+        } catch (IOException e) {
+            // Nothing more can be done with a store that is going away
+        }
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public synchronized int allocate(int ownerId) {
+        int slot = allocated.nextClearBit(0);
+        if (slot >= segments.length * SEGMENT_RECORDS) {
+            addSegment();
+        }
+        allocated.set(slot);
+        setField(slot, OWNER, ownerId);
+        setField(slot, FLAGS, FLAG_ALLOCATED);
+        return slot;
+    }
+
+    /**
+     * Records the type and name of the Lutemon owning a slot, appending the name to the name file.
+     */
+    @Override
+    public synchronized void describe(int slot, int typeOrdinal, String name) {
+        if (closed) {
+            return;
+        }
+        byte[] utf8 = (name != null ? name : "").getBytes(StandardCharsets.UTF_8);
+        try {
+            names.write(ByteBuffer.wrap(utf8), namesLength);
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not write Lutemon name", e);
+        }
+        setField(slot, TYPE, typeOrdinal);
+        setField(slot, NAME_OFFSET, (int) namesLength);
+        setField(slot, NAME_LENGTH, utf8.length);
+        namesLength += utf8.length;
+    }
+
+    @Override
+    public synchronized void forEachSlot(IntConsumer visitor) {
+        for (int slot = allocated.nextSetBit(0); slot >= 0; slot = allocated.nextSetBit(slot + 1)) {
+            visitor.accept(slot);
+        }
+    }
+
+    @Override
+    public synchronized void release(int slot) {
+        allocated.clear(slot);
+        setField(slot, FLAGS, 0);
+    }
+
+    @Override
+    public synchronized void clear() {
+        for (int slot = allocated.nextSetBit(0); slot >= 0; slot = allocated.nextSetBit(slot + 1)) {
+            setField(slot, FLAGS, 0);
+        }
+        allocated.clear();
+    }
+
+    @Override
+    public synchronized int size() {
+        return allocated.cardinality();
+    }
+
+    @Override
+    public int get(int column, int slot) {
+        return field(slot, column);
+    }
+
+    @Override
+    public void set(int column, int slot, int value) {
+        setField(slot, column, value);
+    }
+
+    @Override
+    public synchronized int healAll(IntConsumer healedOwner) {
+        int healed = 0;
+        for (int slot = allocated.nextSetBit(0); slot >= 0; slot = allocated.nextSetBit(slot + 1)) {
+            setField(slot, CURRENT_HEALTH, field(slot, MAX_HEALTH) + field(slot, EXPERIENCE) / 5);
+            healedOwner.accept(field(slot, OWNER));
+            healed++;
+        }
+        return healed;
+    }
+
+    @Override
+    public synchronized long sum(int column) {
+        long total = 0;
+        for (int slot = allocated.nextSetBit(0); slot >= 0; slot = allocated.nextSetBit(slot + 1)) {
+            total += field(slot, column);
+        }
+        return total;
+    }
+
+    private int field(int slot, int field) {
+        return segments[slot / SEGMENT_RECORDS].getInt((slot % SEGMENT_RECORDS) * RECORD_SIZE + field * 4);
+    }
+
+    private void setField(int slot, int field, int value) {
+        if (closed) {
+            return;
+        }
+        segments[slot / SEGMENT_RECORDS].putInt((slot % SEGMENT_RECORDS) * RECORD_SIZE + field * 4, value);
+    }
+
+    private void mapExisting() throws IOException {
+        int count = (int) ((records.size() - HEADER_SIZE) / SEGMENT_SIZE);
+        MappedByteBuffer[] mapped = new MappedByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            mapped[i] = records.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE + i * SEGMENT_SIZE, SEGMENT_SIZE);
+        }
+        segments = mapped;
+    }
+
+    private void addSegment() {
+        MappedByteBuffer[] current = segments;
+        try {
+            // Mapping past the end of the file grows it; the new records read as zero, so unallocated
+            MappedByteBuffer segment = records.map(FileChannel.MapMode.READ_WRITE,
+                HEADER_SIZE + current.length * SEGMENT_SIZE, SEGMENT_SIZE);
+            MappedByteBuffer[] grown = Arrays.copyOf(current, current.length + 1);
+            grown[current.length] = segment;
+            segments = grown;
+        } catch (IOException e) {
+            throw new IllegalStateException("Could not grow stats store", e);
+        }
+    }
+
+    private byte[] readNames() throws IOException {
+        byte[] data = new byte[(int) namesLength];
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        while (buffer.hasRemaining()) {
+            if (names.read(buffer, buffer.position()) < 0) {
+                break;
+            }
+        }
+        return data;
+    }
+}
@@ -0,0 +1,177 @@
+package com.main.lutemon.model.lutemon.stats;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntConsumer;
+
+/**
+ * Column-oriented storage for the stats of many Lutemons.
+ * Each stat lives in its own primitive int pages indexed by slot, so a stored Lutemon costs
+ * a few ints per stat instead of an object, and scans over one stat are sequential array loops.
+ * Pages are never moved once allocated, which lets bound {@link LutemonStats} views read and
+ * write their slot without locking while other slots are being added.
+ */
+public class StatsColumns {
+    public static final int MAX_HEALTH = 0;
+    public static final int CURRENT_HEALTH = 1;
+    public static final int ATTACK = 2;
+    public static final int DEFENSE = 3;
+    public static final int EXPERIENCE = 4;
+    public static final int LEVEL = 5;
+    public static final int TRAINING_DAYS = 6;
+    public static final int BATTLES = 7;
+    public static final int WINS = 8;
+    public static final int LOSSES = 9;
+
+    // Not a stat: the ID of the Lutemon owning each slot
+    private static final int OWNER = 10;
+    private static final int COLUMN_COUNT = 11;
+
+    private static final int PAGE_SHIFT = 12;
+    private static final int PAGE_SIZE = 1 << PAGE_SHIFT;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    // [column][page][offset]; only the page tables are ever replaced, never the pages
+    private volatile int[][][] columns = new int[COLUMN_COUNT][0][];
+    private final BitSet allocated = new BitSet();
+    private int capacity;
+
+    /**
+     * Reserves a slot for a Lutemon.
+     *
+     * @param ownerId The ID of the Lutemon that will own the slot
+     * @return The slot
+     */
+    public synchronized int allocate(int ownerId) {
+        int slot = allocated.nextClearBit(0);
+        if (slot >= capacity) {
+            addPage();
+        }
+        allocated.set(slot);
+        set(OWNER, slot, ownerId);
+        return slot;
+    }
+
+    /**
+     * Frees a slot so it can be reused. The values in it are left as they are.
+     *
+     * @param slot The slot to free
+     */
+    public synchronized void release(int slot) {
+        allocated.clear(slot);
+    }
+
+    /**
+     * Frees every slot. Pages are kept for reuse.
+     */
+    public synchronized void clear() {
+        allocated.clear();
+    }
+
+    /**
+     * Gets the number of slots in use.
+     *
+     * @return The number of allocated slots
+     */
+    public synchronized int size() {
+        return allocated.cardinality();
+    }
+
+    /**
+     * Calls the visitor with every allocated slot, in slot order. The visitor may release the slot it is given.
+     *
+     * @param visitor Receives the slots
+     */
+    public synchronized void forEachSlot(IntConsumer visitor) {
+        for (int slot = allocated.nextSetBit(0); slot >= 0; slot = allocated.nextSetBit(slot + 1)) {
+            visitor.accept(slot);
+        }
+    }
+
+    /**
+     * Gets the ID of the Lutemon a slot was allocated for.
+     *
+     * @param slot The slot
+     * @return The owner ID
+     */
+    public int getOwner(int slot) {
+        return get(OWNER, slot);
+    }
+
+    /**
+     * Records what owns a slot. Columns that are only kept in memory have no use for it.
+     *
+     * @param slot The slot
+     * @param typeOrdinal The ordinal of the owner's type
+     * @param name The name of the owner
+     */
+    public void describe(int slot, int typeOrdinal, String name) {
+    }
+
+    public int get(int column, int slot) {
+        return columns[column][slot >>> PAGE_SHIFT][slot & PAGE_MASK];
+    }
+
+    public void set(int column, int slot, int value) {
+        columns[column][slot >>> PAGE_SHIFT][slot & PAGE_MASK] = value;
+    }
+
+    /**
+     * Restores every allocated slot to full effective health in one pass over the columns.
+     * Uses the same formula as {@link LutemonStats#getEffectiveMaxHealth()}.
+     *
+     * @param healedOwner Called with the owner ID of every healed slot
+     * @return The number of slots healed
+     */
+    public synchronized int healAll(IntConsumer healedOwner) {
+        int[][][] columns = this.columns;
+        int healed = 0;
+        for (int page = 0; page < columns[CURRENT_HEALTH].length; page++) {
+            int[] current = columns[CURRENT_HEALTH][page];
+            int[] max = columns[MAX_HEALTH][page];
+            int[] experience = columns[EXPERIENCE][page];
+            int[] owner = columns[OWNER][page];
+            int base = page << PAGE_SHIFT;
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                if (allocated.get(base + i)) {
+                    current[i] = max[i] + experience[i] / 5;
+                    healedOwner.accept(owner[i]);
+                    healed++;
+                }
+            }
+        }
+        return healed;
+    }
+
+    /**
+     * Sums one column over every allocated slot.
+     *
+     * @param column The column to sum
+     * @return The total
+     */
+    public synchronized long sum(int column) {
+        int[][] pages = columns[column];
+        long total = 0;
+        for (int page = 0; page < pages.length; page++) {
+            int[] values = pages[page];
+            int base = page << PAGE_SHIFT;
+            for (int i = 0; i < PAGE_SIZE; i++) {
+                if (allocated.get(base + i)) {
+                    total += values[i];
+                }
+            }
+        }
+        return total;
+    }
+
+    private void addPage() {
+        int[][][] grown = new int[COLUMN_COUNT][][];
+        for (int column = 0; column < COLUMN_COUNT; column++) {
+            int[][] pages = columns[column];
+            grown[column] = Arrays.copyOf(pages, pages.length + 1);
+            grown[column][pages.length] = new int[PAGE_SIZE];
+        }
+        columns = grown;
+        capacity += PAGE_SIZE;
+    }
+}
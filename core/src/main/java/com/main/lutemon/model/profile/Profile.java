@@ -12,14 +12,25 @@ import java.util.List;
 public class Profile implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    // Version of the saved profile layout written by this version of the game
+    public static final int SCHEMA_VERSION = 3;
+
     private String name;
     private Date creationDate;
     private Date lastPlayedDate;
     private List<Lutemon> lutemons;
+
+    // Totals as of the last save; while the profile is in use they are counted by StatisticsManager
     private int totalLutemonsCreated;
     private int totalBattles;
     private int totalTrainingSessions;
 
+    // Sequence number of the last journal record already included in this saved profile
+    private long journalSequence;
+
+    // Schema the profile was saved with; older ones are upgraded when read
+    private int schemaVersion;
+
     /**
      * Default constructor for serialization.
      * Required by LibGDX's Json serializer.
@@ -31,6 +42,7 @@ public class Profile implements Serializable {
         this.totalLutemonsCreated = 0;
         this.totalBattles = 0;
         this.totalTrainingSessions = 0;
+        this.schemaVersion = SCHEMA_VERSION;
     }
 
     /**
@@ -92,10 +104,6 @@ public class Profile implements Serializable {
         this.totalLutemonsCreated = totalLutemonsCreated;
     }
 
-    public void incrementTotalLutemonsCreated() {
-        this.totalLutemonsCreated++;
-    }
-
     public int getTotalBattles() {
         return totalBattles;
     }
@@ -104,10 +112,6 @@ public class Profile implements Serializable {
         this.totalBattles = totalBattles;
     }
 
-    public void incrementTotalBattles() {
-        this.totalBattles++;
-    }
-
     public int getTotalTrainingSessions() {
         return totalTrainingSessions;
     }
@@ -116,8 +120,20 @@ public class Profile implements Serializable {
         this.totalTrainingSessions = totalTrainingSessions;
     }
 
-    public void incrementTotalTrainingSessions() {
-        this.totalTrainingSessions++;
+    public long getJournalSequence() {
+        return journalSequence;
+    }
+
+    public void setJournalSequence(long journalSequence) {
+        this.journalSequence = journalSequence;
+    }
+
+    public int getSchemaVersion() {
+        return schemaVersion;
+    }
+
+    public void setSchemaVersion(int schemaVersion) {
+        this.schemaVersion = schemaVersion;
     }
 
     @Override
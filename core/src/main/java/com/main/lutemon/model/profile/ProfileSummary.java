@@ -0,0 +1,68 @@
+package com.main.lutemon.model.profile;
+
+import java.util.Date;
+
+/**
+ * What the profile selection screen shows about a profile, without its Lutemons.
+ */
+public final class ProfileSummary {
+    private final String name;
+    private final long creationDate;
+    private final long lastPlayedDate;
+    private final int lutemonCount;
+    private final int totalLutemonsCreated;
+    private final int totalBattles;
+    private final int totalTrainingSessions;
+
+    public ProfileSummary(String name, long creationDate, long lastPlayedDate, int lutemonCount,
+                          int totalLutemonsCreated, int totalBattles, int totalTrainingSessions) {
+        this.name = name;
+        this.creationDate = creationDate;
+        this.lastPlayedDate = lastPlayedDate;
+        this.lutemonCount = lutemonCount;
+        this.totalLutemonsCreated = totalLutemonsCreated;
+        this.totalBattles = totalBattles;
+        this.totalTrainingSessions = totalTrainingSessions;
+    }
+
+    /**
+     * Creates a summary of a profile with all of its Lutemons in its list.
+     *
+     * @param profile The profile to summarize
+     * @return The summary
+     */
+    public static ProfileSummary of(Profile profile) {
+        int lutemonCount = profile.getLutemons() != null ? profile.getLutemons().size() : 0;
+        return new ProfileSummary(profile.getName(), profile.getCreationDate().getTime(),
+            profile.getLastPlayedDate().getTime(), lutemonCount, profile.getTotalLutemonsCreated(),
+            profile.getTotalBattles(), profile.getTotalTrainingSessions());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Date getCreationDate() {
+        return new Date(creationDate);
+    }
+
+    public Date getLastPlayedDate() {
+        return new Date(lastPlayedDate);
+    }
+
+    public int getLutemonCount() {
+        return lutemonCount;
+    }
+
+    public int getTotalLutemonsCreated() {
+        return totalLutemonsCreated;
+    }
+
+    public int getTotalBattles() {
+        return totalBattles;
+    }
+
+    public int getTotalTrainingSessions() {
+        return totalTrainingSessions;
+    }
+}
@@ -0,0 +1,143 @@
+package com.main.lutemon.model.storage;
+
+import com.main.lutemon.model.lutemon.LutemonType;
+
+/**
+ * Describes a query over the Lutemons in {@link Storage}.
+ * Queries are answered from the sorted index of the chosen {@link StatKey}, so asking for the
+ * top few Lutemons by a stat does not sort or copy the whole roster.
+ *
+ * <pre>
+ * // Top 20 by effective attack at HOME
+ * storage.query(LutemonQuery.orderBy(StatKey.EFFECTIVE_ATTACK).at(Location.HOME).limit(20));
+ *
+ * // All BLACK Lutemons with more than 100 experience
+ * storage.query(LutemonQuery.orderBy(StatKey.EXPERIENCE).ofType(LutemonType.BLACK).greaterThan(100));
+ * </pre>
+ */
+public class LutemonQuery {
+    private final StatKey key;
+    private boolean descending = true;
+    private Storage.Location location;
+    private LutemonType type;
+    private int min = Integer.MIN_VALUE;
+    private int max = Integer.MAX_VALUE;
+    private int limit = Integer.MAX_VALUE;
+
+    private LutemonQuery(StatKey key) {
+        this.key = key;
+    }
+
+    /**
+     * Starts a query ordered by the given stat, highest first.
+     *
+     * @param key The stat to order by
+     * @return A new query
+     */
+    public static LutemonQuery orderBy(StatKey key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Stat key cannot be null");
+        }
+        return new LutemonQuery(key);
+    }
+
+    /**
+     * Orders the results from the lowest value up.
+     *
+     * @return This query
+     */
+    public LutemonQuery ascending() {
+        this.descending = false;
+        return this;
+    }
+
+    /**
+     * Orders the results from the highest value down. This is the default.
+     *
+     * @return This query
+     */
+    public LutemonQuery descending() {
+        this.descending = true;
+        return this;
+    }
+
+    /**
+     * Only includes Lutemons at the given location.
+     *
+     * @param location The location, or null for any location
+     * @return This query
+     */
+    public LutemonQuery at(Storage.Location location) {
+        this.location = location;
+        return this;
+    }
+
+    /**
+     * Only includes Lutemons of the given type.
+     *
+     * @param type The type, or null for any type
+     * @return This query
+     */
+    public LutemonQuery ofType(LutemonType type) {
+        this.type = type;
+        return this;
+    }
+
+    /**
+     * Only includes Lutemons whose ordering stat is at least the given value.
+     *
+     * @param value The lowest value to include
+     * @return This query
+     */
+    public LutemonQuery atLeast(int value) {
+        this.min = value;
+        return this;
+    }
+
+    /**
+     * Only includes Lutemons whose ordering stat is greater than the given value.
+     *
+     * @param value The value to exceed
+     * @return This query
+     */
+    public LutemonQuery greaterThan(int value) {
+        if (value == Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Nothing is greater than Integer.MAX_VALUE");
+        }
+        this.min = value + 1;
+        return this;
+    }
+
+    /**
+     * Only includes Lutemons whose ordering stat is at most the given value.
+     *
+     * @param value The highest value to include
+     * @return This query
+     */
+    public LutemonQuery atMost(int value) {
+        this.max = value;
+        return this;
+    }
+
+    /**
+     * Limits the number of results.
+     *
+     * @param limit The maximum number of Lutemons to return
+     * @return This query
+     */
+    public LutemonQuery limit(int limit) {
+        if (limit < 0) {
+            throw new IllegalArgumentException("Limit cannot be negative");
+        }
+        this.limit = limit;
+        return this;
+    }
+
+    public StatKey getKey() { return key; }
+    public boolean isDescending() { return descending; }
+    public Storage.Location getLocation() { return location; }
+    public LutemonType getType() { return type; }
+    public int getMin() { return min; }
+    public int getMax() { return max; }
+    public int getLimit() { return limit; }
+}
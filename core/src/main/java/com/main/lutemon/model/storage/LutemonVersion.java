@@ -0,0 +1,106 @@
+package com.main.lutemon.model.storage;
+
+import com.main.lutemon.model.lutemon.Lutemon;
+import com.main.lutemon.model.lutemon.stats.LutemonStats;
+
+/**
+ * An immutable copy of a stored Lutemon's location and stats as of one committed version.
+ * Versions of the same Lutemon are chained newest first, so a {@link StorageSnapshot} can find
+ * the one it should see without locking.
+ */
+public final class LutemonVersion {
+    private final long version;
+    private final Lutemon lutemon;
+    private final Storage.Location location;
+    private final boolean removed;
+    private final int experience;
+    private final int currentHealth;
+    private final int maxHealth;
+    private final int attack;
+    private final int defense;
+    private final int trainingDays;
+    private final int battles;
+    private final int wins;
+    private final int losses;
+
+    // Older version, cut off once no open snapshot can need it
+    volatile LutemonVersion previous;
+
+    LutemonVersion(long version, Lutemon lutemon, Storage.Location location, LutemonVersion previous) {
+        LutemonStats stats = lutemon.getStats();
+        this.version = version;
+        this.lutemon = lutemon;
+        this.location = location;
+        this.removed = false;
+        this.experience = stats.getExperience();
+        this.currentHealth = stats.getCurrentHealth();
+        this.maxHealth = stats.getEffectiveMaxHealth();
+        this.attack = stats.getEffectiveAttack();
+        this.defense = stats.getEffectiveDefense();
+        this.trainingDays = stats.getTrainingDays();
+        this.battles = stats.getBattles();
+        this.wins = stats.getWins();
+        this.losses = stats.getLosses();
+        this.previous = previous;
+    }
+
+    /**
+     * Creates a version marking the Lutemon as no longer stored.
+     */
+    private LutemonVersion(long version, Lutemon lutemon, LutemonVersion previous) {
+        this.version = version;
+        this.lutemon = lutemon;
+        this.location = null;
+        this.removed = true;
+        this.experience = 0;
+        this.currentHealth = 0;
+        this.maxHealth = 0;
+        this.attack = 0;
+        this.defense = 0;
+        this.trainingDays = 0;
+        this.battles = 0;
+        this.wins = 0;
+        this.losses = 0;
+        this.previous = previous;
+    }
+
+    static LutemonVersion removed(long version, Lutemon lutemon, LutemonVersion previous) {
+        return new LutemonVersion(version, lutemon, previous);
+    }
+
+    /**
+     * Finds the newest version in this chain visible at the given version.
+     *
+     * @param snapshotVersion The version being read
+     * @return The visible version, or null if the Lutemon did not exist or was removed by then
+     */
+    LutemonVersion visibleAt(long snapshotVersion) {
+        LutemonVersion current = this;
+        while (current != null && current.version > snapshotVersion) {
+            current = current.previous;
+        }
+        return current == null || current.removed ? null : current;
+    }
+
+    boolean isRemoved() { return removed; }
+
+    public long getVersion() { return version; }
+
+    /**
+     * Gets the live Lutemon. Its name, type and ID never change, but its stats may be newer than this version.
+     *
+     * @return The Lutemon this version belongs to
+     */
+    public Lutemon getLutemon() { return lutemon; }
+    public int getLutemonId() { return lutemon.getId(); }
+    public Storage.Location getLocation() { return location; }
+    public int getExperience() { return experience; }
+    public int getCurrentHealth() { return currentHealth; }
+    public int getMaxHealth() { return maxHealth; }
+    public int getAttack() { return attack; }
+    public int getDefense() { return defense; }
+    public int getTrainingDays() { return trainingDays; }
+    public int getBattles() { return battles; }
+    public int getWins() { return wins; }
+    public int getLosses() { return losses; }
+}
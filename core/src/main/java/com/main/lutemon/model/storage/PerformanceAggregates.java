@@ -0,0 +1,145 @@
+package com.main.lutemon.model.storage;
+
+import com.main.lutemon.model.lutemon.Lutemon;
+import com.main.lutemon.model.lutemon.stats.LutemonStats;
+import com.main.lutemon.utils.StatisticsManager.LutemonPerformance;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Battle and training performance of every stored Lutemon, with roster-wide sums, kept up to date on
+ * every stat change like the {@link StatIndex}es.
+ *
+ * <p>Each Lutemon's performance is an immutable {@link LutemonPerformance} that is replaced when its
+ * battles, wins or training days change; other stat changes, such as health during a battle, cost a
+ * comparison and nothing else. The sums are adjusted by the difference. Reads are constant time and
+ * allocate nothing, and the changes of one {@link StorageTransaction} become visible together.
+ */
+public final class PerformanceAggregates {
+    private final Map<Integer, LutemonPerformance> performanceById = new HashMap<>();
+    private int lutemonCount;
+    private long totalBattles;
+    private long totalWins;
+    private long totalTrainingDays;
+
+    PerformanceAggregates() {
+    }
+
+    /**
+     * Adds a Lutemon or takes its current stats into account. Does nothing if none of the
+     * aggregated stats changed.
+     */
+    synchronized void update(Lutemon lutemon) {
+        LutemonStats stats = lutemon.getStats();
+        int battles = stats.getBattles();
+        int wins = stats.getWins();
+        int trainingDays = stats.getTrainingDays();
+        LutemonPerformance previous = performanceById.get(lutemon.getId());
+        if (previous == null) {
+            lutemonCount++;
+        } else if (previous.getBattles() == battles && previous.getWins() == wins
+                && previous.getTrainingDays() == trainingDays) {
+            return;
+        } else {
+            subtract(previous);
+        }
+        totalBattles += battles;
+        totalWins += wins;
+        totalTrainingDays += trainingDays;
+        performanceById.put(lutemon.getId(), new LutemonPerformance(battles, wins, trainingDays));
+    }
+
+    synchronized void remove(int id) {
+        LutemonPerformance previous = performanceById.remove(id);
+        if (previous != null) {
+            lutemonCount--;
+            subtract(previous);
+        }
+    }
+
+    synchronized void clear() {
+        performanceById.clear();
+        lutemonCount = 0;
+        totalBattles = 0;
+        totalWins = 0;
+        totalTrainingDays = 0;
+    }
+
+    private void subtract(LutemonPerformance performance) {
+        totalBattles -= performance.getBattles();
+        totalWins -= performance.getWins();
+        totalTrainingDays -= performance.getTrainingDays();
+    }
+
+    /**
+     * Gets the performance of a stored Lutemon.
+     *
+     * @param lutemonId The ID of the Lutemon
+     * @return The performance, or null if the Lutemon is not stored
+     */
+    public synchronized LutemonPerformance get(int lutemonId) {
+        return performanceById.get(lutemonId);
+    }
+
+    /**
+     * Copies the performance of every stored Lutemon.
+     *
+     * @return A new map of Lutemon IDs to their performance
+     */
+    public synchronized Map<Integer, LutemonPerformance> copy() {
+        return new HashMap<>(performanceById);
+    }
+
+    /**
+     * Gets the number of Lutemons the sums are over.
+     *
+     * @return The number of stored Lutemons
+     */
+    public synchronized int getLutemonCount() {
+        return lutemonCount;
+    }
+
+    public synchronized long getTotalBattles() {
+        return totalBattles;
+    }
+
+    public synchronized long getTotalWins() {
+        return totalWins;
+    }
+
+    public synchronized long getTotalLosses() {
+        return totalBattles - totalWins;
+    }
+
+    public synchronized long getTotalTrainingDays() {
+        return totalTrainingDays;
+    }
+
+    /**
+     * Gets the share of all battles of stored Lutemons that were won.
+     *
+     * @return The win rate between 0 and 1, or 0 if there were no battles
+     */
+    public synchronized float getWinRate() {
+        return totalBattles > 0 ? (float) totalWins / totalBattles : 0;
+    }
+
+    /**
+     * Gets the average number of battles per stored Lutemon.
+     *
+     * @return The average, or 0 if storage is empty
+     */
+    public synchronized float getAverageBattles() {
+        return lutemonCount > 0 ? (float) totalBattles / lutemonCount : 0;
+    }
+
+    /**
+     * Gets the average number of training days per stored Lutemon.
+     *
+     * @return The average, or 0 if storage is empty
+     */
+    public synchronized float getAverageTrainingDays() {
+        return lutemonCount > 0 ? (float) totalTrainingDays / lutemonCount : 0;
+    }
+}
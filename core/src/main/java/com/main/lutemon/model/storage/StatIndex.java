@@ -0,0 +1,74 @@
+package com.main.lutemon.model.storage;
+
+import com.main.lutemon.model.lutemon.Lutemon;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * A sorted index of Lutemon IDs by one stat.
+ * Entries are packed into a single long, stat value in the high half and ID in the low half,
+ * so the natural order of the set is "by value, then by ID". Readers never block; writers
+ * replace only the entry of the Lutemon that changed.
+ */
+class StatIndex {
+    private final StatKey key;
+    private final NavigableSet<Long> entries = new ConcurrentSkipListSet<>();
+    private final Map<Integer, Long> entryById = new ConcurrentHashMap<>();
+
+    StatIndex(StatKey key) {
+        this.key = key;
+    }
+
+    /**
+     * Inserts or repositions a Lutemon. Does nothing if its value did not change.
+     */
+    synchronized void update(Lutemon lutemon) {
+        int id = lutemon.getId();
+        long entry = pack(key.valueOf(lutemon.getStats()), id);
+        Long previous = entryById.put(id, entry);
+        if (previous != null) {
+            if (previous == entry) {
+                return;
+            }
+            entries.remove(previous);
+        }
+        entries.add(entry);
+    }
+
+    synchronized void remove(int id) {
+        Long previous = entryById.remove(id);
+        if (previous != null) {
+            entries.remove(previous);
+        }
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        entryById.clear();
+    }
+
+    /**
+     * Iterates over the entries whose value is within the given inclusive range.
+     *
+     * @param min The lowest value to include
+     * @param max The highest value to include
+     * @param descending Whether to iterate from the highest value down
+     * @return An iterator of packed entries
+     */
+    Iterator<Long> range(int min, int max, boolean descending) {
+        NavigableSet<Long> range = entries.subSet(pack(min, 0), true, pack(max, -1), true);
+        return descending ? range.descendingIterator() : range.iterator();
+    }
+
+    static long pack(int value, int id) {
+        return ((long) value << 32) | (id & 0xffffffffL);
+    }
+
+    static int idOf(long entry) {
+        return (int) entry;
+    }
+}
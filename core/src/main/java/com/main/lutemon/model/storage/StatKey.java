@@ -0,0 +1,56 @@
+package com.main.lutemon.model.storage;
+
+import com.main.lutemon.model.lutemon.stats.LutemonStats;
+
+/**
+ * Stats that {@link Storage} keeps sorted indexes for and that a {@link LutemonQuery} can order by.
+ */
+public enum StatKey {
+    EXPERIENCE {
+        @Override
+        public int valueOf(LutemonStats stats) { return stats.getExperience(); }
+    },
+    EFFECTIVE_ATTACK {
+        @Override
+        public int valueOf(LutemonStats stats) { return stats.getEffectiveAttack(); }
+    },
+    EFFECTIVE_DEFENSE {
+        @Override
+        public int valueOf(LutemonStats stats) { return stats.getEffectiveDefense(); }
+    },
+    EFFECTIVE_MAX_HEALTH {
+        @Override
+        public int valueOf(LutemonStats stats) { return stats.getEffectiveMaxHealth(); }
+    },
+    TRAINING_DAYS {
+        @Override
+        public int valueOf(LutemonStats stats) { return stats.getTrainingDays(); }
+    },
+    BATTLES {
+        @Override
+        public int valueOf(LutemonStats stats) { return stats.getBattles(); }
+    },
+    WINS {
+        @Override
+        public int valueOf(LutemonStats stats) { return stats.getWins(); }
+    },
+
+    /**
+     * Win rate in basis points, so 10000 means every battle was won.
+     */
+    WIN_RATE {
+        @Override
+        public int valueOf(LutemonStats stats) {
+            int battles = stats.getBattles();
+            return battles > 0 ? (int) ((long) stats.getWins() * 10000 / battles) : 0;
+        }
+    };
+
+    /**
+     * Gets the value of this stat for the given stats.
+     *
+     * @param stats The stats to read
+     * @return The value used for sorting and range filtering
+     */
+    public abstract int valueOf(LutemonStats stats);
+}
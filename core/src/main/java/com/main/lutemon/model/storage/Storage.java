@@ -1,22 +1,73 @@
 package com.main.lutemon.model.storage;
 
 import com.main.lutemon.model.lutemon.*;
+import com.main.lutemon.model.lutemon.stats.StatsColumns;
 import com.main.lutemon.utils.StatisticsManager;
 import java.io.Serializable;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 
 public class Storage implements Serializable {
     private static final long serialVersionUID = 1L;
     private static volatile Storage instance;
     private final Map<Integer, Lutemon> lutemons;
     private final Map<Integer, Location> lutemonLocations;
-    private int nextId;
+    // Allocated with a single compare-and-set, so Lutemons can be added from many threads without locking
+    private final AtomicInteger nextId;
+
+    // Shared by adds, which run in parallel; taken exclusively by clear, removal, commits and column
+    // switches, so those never see a half-added Lutemon and an add never sees them half done
+    private transient ReentrantReadWriteLock structureLock;
+    private transient List<StorageListener> listeners;
+
+    // Events collected while a bulk operation holds the lock, published together at the end
+    private transient List<StorageEvent> batchEvents;
+
+    // Sorted indexes over stats, kept up to date on every stat change
+    private transient Map<StatKey, StatIndex> indexes;
+
+    // Per-Lutemon performance and roster-wide sums, kept up to date with the indexes
+    private transient PerformanceAggregates performance;
+
+    // Optional columnar backend for stats, null while stats live in their LutemonStats objects
+    private transient volatile StatsColumns statsColumns;
+
+    // Lutemons added with deferred stats that have not been hydrated yet
+    private transient Set<Integer> pendingHydration;
+
+    // Committed versions of every stored Lutemon, newest first, read by snapshots without locking.
+    // Only kept while a snapshot is open; the first snapshot records every Lutemon as it is.
+    private transient Map<Integer, LutemonVersion> versions;
+
+    // Guards the version number and open snapshots; held briefly per change while versions are kept and for a whole commit
+    private transient Object versionLock;
+    private transient volatile long committedVersion;
+    private transient TreeMap<Long, Integer> openSnapshots;
+
+    // Whether versions are kept, set under the version lock; stat changes skip versioning without locking while false
+    private transient volatile boolean keepingVersions;
+
+    // Lutemons still holding old versions or a removal marker for an open snapshot
+    private transient Set<Integer> retainedVersions;
+
+    // IDs changed by the transaction being committed, null outside a commit
+    private transient Set<Integer> transactionChanges;
 
     private Storage() {
         lutemons = new ConcurrentHashMap<>();
         lutemonLocations = new ConcurrentHashMap<>();
-        nextId = 1;
+        nextId = new AtomicInteger(1);
+        structureLock = new ReentrantReadWriteLock();
+        listeners = new CopyOnWriteArrayList<>();
+        indexes = createIndexes();
+        performance = new PerformanceAggregates();
+        pendingHydration = ConcurrentHashMap.newKeySet();
+        initVersions();
     }
 
     public static Storage getInstance() {
@@ -30,40 +81,103 @@ public class Storage implements Serializable {
         return instance;
     }
 
-    public synchronized void addLutemon(Lutemon lutemon) {
+    /**
+     * Adds a new Lutemon at HOME and gives it the next free ID.
+     * Does not take the storage lock, so it can be called from several threads at once; it only waits
+     * for {@link #clear()}, removals and commits.
+     *
+     * @param lutemon The Lutemon to add
+     */
+    public void addLutemon(Lutemon lutemon) {
         if (lutemon == null) {
             throw new IllegalArgumentException("Lutemon cannot be null");
         }
-        lutemon.setId(nextId++);
-        lutemons.put(lutemon.getId(), lutemon);
-        lutemonLocations.put(lutemon.getId(), Location.HOME);
+        insert(lutemon, false);
+        publishAdded(lutemon);
 
         StatisticsManager.getInstance().incrementLutemonsCreated();
     }
 
     /**
      * Adds a Lutemon to storage without incrementing statistics.
-     * This is used when loading Lutemons from a profile.
+     * This is used when loading Lutemons from a profile. Like {@link #addLutemon}, it does not take the
+     * storage lock.
      *
-     * @param lutemon The Lutemon to add
+     * @param lutemon The Lutemon to add, with the ID it was saved with
+     * @throws IllegalArgumentException If a stored Lutemon already has its ID
      */
-    public synchronized void addLutemonWithoutStats(Lutemon lutemon) {
+    public void addLutemonWithoutStats(Lutemon lutemon) {
         if (lutemon == null) {
             throw new IllegalArgumentException("Lutemon cannot be null");
         }
+        insert(lutemon, true);
+        publishAdded(lutemon);
+    }
 
-        if (lutemon.getId() >= nextId) {
-            nextId = lutemon.getId() + 1;
+    /**
+     * Adds several Lutemons without incrementing statistics, under a single lock acquisition.
+     * Listeners receive one notification for the whole batch. Used when importing Lutemons in bulk.
+     *
+     * @param batch The Lutemons to add
+     */
+    public synchronized void addLutemonsWithoutStats(Collection<? extends Lutemon> batch) {
+        if (batch == null || batch.contains(null)) {
+            throw new IllegalArgumentException("Lutemons cannot be null");
         }
+        beginBatch();
+        try {
+            for (Lutemon lutemon : batch) {
+                insert(lutemon, true);
+                publishAdded(lutemon);
+            }
+        } finally {
+            endBatch();
+        }
+    }
 
-        lutemons.put(lutemon.getId(), lutemon);
-        lutemonLocations.put(lutemon.getId(), Location.HOME);
+    /**
+     * Allocates a Lutemon ID in one compare-and-set, either the next free one or a loaded one that
+     * newly allocated IDs are then kept above. Called with the structure lock shared.
+     *
+     * @param loaded Whether the ID of a loaded Lutemon is taken instead of the next free one
+     * @param loadedId The ID of the loaded Lutemon
+     * @return The allocated ID
+     */
+    private int allocateId(boolean loaded, int loadedId) {
+        while (true) {
+            int current = nextId.get();
+            int id = loaded ? loadedId : current;
+            if (nextId.compareAndSet(current, Math.max(current, id + 1))) {
+                return id;
+            }
+        }
+    }
 
-        // Log the addition but don't increment statistics
-        System.out.println("Added Lutemon without incrementing stats: " + lutemon.getName() + " (ID: " + lutemon.getId() + ")");
-        com.badlogic.gdx.Gdx.app.log("Storage", "Added Lutemon without incrementing stats: " +
-                                  lutemon.getName() + " (ID: " + lutemon.getId() + ", Type: " +
-                                  lutemon.getType() + ", Location: HOME)");
+    /**
+     * Gives a Lutemon its ID and puts it into the maps with the structure lock shared, so adds run in
+     * parallel with each other but never with a clear, removal or commit. The location is claimed first,
+     * so a concurrent reader never sees a stored Lutemon without one and two adds never share an ID.
+     */
+    private void insert(Lutemon lutemon, boolean loaded) {
+        structureLock.readLock().lock();
+        try {
+            int id = allocateId(loaded, lutemon.getId());
+            if (lutemonLocations.putIfAbsent(id, Location.HOME) != null) {
+                throw new IllegalArgumentException("Lutemon ID already in use: " + id);
+            }
+            lutemon.setId(id);
+            lutemons.put(id, lutemon);
+            attach(lutemon);
+        } finally {
+            structureLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Announces an added Lutemon. Called after the structure lock is released, so listeners may change storage.
+     */
+    private void publishAdded(Lutemon lutemon) {
+        publish(new StorageEvent(StorageEvent.Type.ADDED, lutemon.getId(), null, Location.HOME));
     }
 
     public synchronized void moveToLocation(int lutemonId, Location location) {
@@ -73,7 +187,10 @@ public class Storage implements Serializable {
         if (location == null) {
             throw new IllegalArgumentException("Location cannot be null");
         }
-        lutemonLocations.put(lutemonId, location);
+        Location previous = lutemonLocations.put(lutemonId, location);
+        if (previous != location) {
+            publish(new StorageEvent(StorageEvent.Type.MOVED, lutemonId, previous, location));
+        }
     }
 
     public List<Lutemon> getLutemonsAtLocation(Location location) {
@@ -97,17 +214,86 @@ public class Storage implements Serializable {
         return Collections.unmodifiableList(result);
     }
 
+    /**
+     * Gets the battle and training performance of the stored Lutemons, kept up to date on every stat
+     * change. Lutemons whose stats are still deferred are hydrated first.
+     *
+     * @return The live aggregates
+     */
+    public PerformanceAggregates getPerformance() {
+        hydrateAll();
+        return performance;
+    }
+
     public List<Lutemon> getAllLutemons() {
         return Collections.unmodifiableList(new ArrayList<>(lutemons.values()));
     }
 
+    /**
+     * Gets the number of stored Lutemons without copying them.
+     *
+     * @return The number of stored Lutemons
+     */
+    public int getLutemonCount() {
+        return lutemons.size();
+    }
+
+    /**
+     * Runs a query against the sorted index of the query's stat.
+     * Only as many index entries are visited as are needed to fill the limit after filtering.
+     *
+     * @param query The query to run
+     * @return The matching Lutemons in the requested order
+     */
+    public List<Lutemon> query(LutemonQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("Query cannot be null");
+        }
+        if (query.getLimit() == 0 || query.getMin() > query.getMax()) {
+            return Collections.emptyList();
+        }
+        hydrateAll();
+
+        List<Lutemon> result = new ArrayList<>(Math.min(query.getLimit(), 64));
+        Iterator<Long> entries = indexes.get(query.getKey()).range(query.getMin(), query.getMax(), query.isDescending());
+        while (entries.hasNext() && result.size() < query.getLimit()) {
+            int id = StatIndex.idOf(entries.next());
+            Lutemon lutemon = lutemons.get(id);
+            if (lutemon == null) {
+                continue;
+            }
+            if (query.getLocation() != null && lutemonLocations.get(id) != query.getLocation()) {
+                continue;
+            }
+            if (query.getType() != null && lutemon.getType() != query.getType()) {
+                continue;
+            }
+            result.add(lutemon);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
     public synchronized void clear() {
         int lutemonCount = lutemons.size();
         System.out.println("Clearing storage - removing " + lutemonCount + " Lutemons");
 
-        lutemons.clear();
-        lutemonLocations.clear();
-        nextId = 1;
+        structureLock.writeLock().lock();
+        try {
+            for (Lutemon lutemon : lutemons.values()) {
+                detach(lutemon);
+            }
+            pendingHydration.clear();
+            lutemons.clear();
+            lutemonLocations.clear();
+            for (StatIndex index : indexes.values()) {
+                index.clear();
+            }
+            performance.clear();
+            nextId.set(1);
+            publish(new StorageEvent(StorageEvent.Type.CLEARED, -1, null, null));
+        } finally {
+            structureLock.writeLock().unlock();
+        }
 
         System.out.println("Storage cleared successfully");
     }
@@ -120,6 +306,7 @@ public class Storage implements Serializable {
 
             // Track statistics
             StatisticsManager.getInstance().incrementTotalTrainingSessions();
+            StatisticsManager.getInstance().recordTraining(id, 1, 0);
 
             // Log the training
             com.badlogic.gdx.Gdx.app.log("Storage", "Trained lutemon: " + lutemon.getName() +
@@ -143,27 +330,717 @@ public class Storage implements Serializable {
     }
 
     public synchronized void removeLutemon(int id) {
-        lutemons.remove(id);
-        lutemonLocations.remove(id);
+        Lutemon lutemon;
+        Location previous;
+        structureLock.writeLock().lock();
+        try {
+            lutemon = lutemons.remove(id);
+            previous = lutemonLocations.remove(id);
+            if (lutemon != null) {
+                pendingHydration.remove(id);
+                detach(lutemon);
+                for (StatIndex index : indexes.values()) {
+                    index.remove(id);
+                }
+                performance.remove(id);
+            }
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+        if (lutemon != null) {
+            publish(new StorageEvent(StorageEvent.Type.REMOVED, id, previous, null));
+        }
     }
 
     public void healAllAtHome() {
-        lutemonLocations.entrySet().stream()
-            .filter(entry -> entry.getValue() == Location.HOME)
-            .forEach(entry -> {
-                Lutemon lutemon = lutemons.get(entry.getKey());
-                if (lutemon != null) {
+        healAtLocation(Location.HOME);
+    }
+
+    /**
+     * Moves several Lutemons to a location under a single lock acquisition.
+     * All IDs are validated before anything is moved, and listeners receive one notification.
+     *
+     * @param ids The IDs of the Lutemons to move
+     * @param location The location to move them to
+     * @return The number of Lutemons whose location actually changed
+     */
+    public synchronized int moveToLocation(int[] ids, Location location) {
+        if (ids == null) {
+            throw new IllegalArgumentException("IDs cannot be null");
+        }
+        if (location == null) {
+            throw new IllegalArgumentException("Location cannot be null");
+        }
+        for (int id : ids) {
+            if (!lutemons.containsKey(id)) {
+                throw new IllegalArgumentException("Invalid Lutemon ID: " + id);
+            }
+        }
+
+        beginBatch();
+        int moved = 0;
+        try {
+            for (int id : ids) {
+                if (moveInBatch(id, location)) {
+                    moved++;
+                }
+            }
+        } finally {
+            endBatch();
+        }
+        com.badlogic.gdx.Gdx.app.log("Storage", "Moved " + moved + " Lutemons to " + location);
+        return moved;
+    }
+
+    /**
+     * Moves every Lutemon matching the filter to a location under a single lock acquisition.
+     *
+     * @param filter Selects the Lutemons to move
+     * @param location The location to move them to
+     * @return The number of Lutemons whose location actually changed
+     */
+    public synchronized int moveWhere(Predicate<Lutemon> filter, Location location) {
+        if (filter == null) {
+            throw new IllegalArgumentException("Filter cannot be null");
+        }
+        if (location == null) {
+            throw new IllegalArgumentException("Location cannot be null");
+        }
+
+        beginBatch();
+        int moved = 0;
+        try {
+            for (Lutemon lutemon : lutemons.values()) {
+                if (filter.test(lutemon) && moveInBatch(lutemon.getId(), location)) {
+                    moved++;
+                }
+            }
+        } finally {
+            endBatch();
+        }
+        com.badlogic.gdx.Gdx.app.log("Storage", "Moved " + moved + " Lutemons to " + location);
+        return moved;
+    }
+
+    /**
+     * Heals every Lutemon matching the filter with one change notification.
+     *
+     * @param filter Selects the Lutemons to heal
+     * @return The number of Lutemons healed
+     */
+    public synchronized int healWhere(Predicate<Lutemon> filter) {
+        if (filter == null) {
+            throw new IllegalArgumentException("Filter cannot be null");
+        }
+
+        beginBatch();
+        int healed = 0;
+        try {
+            for (Lutemon lutemon : lutemons.values()) {
+                if (filter.test(lutemon)) {
                     lutemon.heal();
+                    healed++;
+                }
+            }
+        } finally {
+            endBatch();
+        }
+        return healed;
+    }
+
+    /**
+     * Heals every Lutemon at the given location with one change notification.
+     *
+     * @param location The location whose Lutemons should be healed
+     * @return The number of Lutemons healed
+     */
+    public int healAtLocation(Location location) {
+        if (location == null) {
+            throw new IllegalArgumentException("Location cannot be null");
+        }
+        return healWhere(lutemon -> lutemonLocations.get(lutemon.getId()) == location);
+    }
+
+    /**
+     * Heals every stored Lutemon with one change notification.
+     *
+     * @return The number of Lutemons healed
+     */
+    public synchronized int healAll() {
+        if (statsColumns == null) {
+            return healWhere(lutemon -> true);
+        }
+
+        // Columnar stats can be healed in one sequential pass without touching the Lutemon objects
+        hydrateAll();
+        beginBatch();
+        try {
+            return statsColumns.healAll(id -> {
+                Location location = lutemonLocations.get(id);
+                publish(new StorageEvent(StorageEvent.Type.STATS_CHANGED, id, location, location));
+            });
+        } finally {
+            endBatch();
+        }
+    }
+
+    /**
+     * Switches between keeping stats in each Lutemon's own LutemonStats object and keeping them
+     * in shared primitive columns. With columns, LutemonStats objects become views over their slot,
+     * which cuts per-Lutemon memory and turns bulk operations like {@link #healAll()} and
+     * {@link #sumStat(StatKey)} into sequential array loops. Can be switched at any time;
+     * existing values are carried over.
+     *
+     * @param enabled True to use columnar stats
+     */
+    public synchronized void setColumnarStats(boolean enabled) {
+        if (enabled == (statsColumns != null)) {
+            return;
+        }
+        setStatsColumns(enabled ? new StatsColumns() : null);
+        com.badlogic.gdx.Gdx.app.log("Storage", "Columnar stats " + (enabled ? "enabled" : "disabled") +
+                                  " for " + lutemons.size() + " Lutemons");
+    }
+
+    /**
+     * Moves the stats of every stored Lutemon into the given columns, such as a
+     * {@link com.main.lutemon.model.lutemon.stats.MappedStatsColumns} store, or back into their own
+     * LutemonStats objects when null. Lutemons added afterwards whose stats already view a slot,
+     * because they were {@link com.main.lutemon.model.lutemon.stats.LutemonStats#adopt adopted}
+     * from a store, keep that slot.
+     *
+     * @param columns The columns to use, or null to stop using columns
+     */
+    public synchronized void setStatsColumns(StatsColumns columns) {
+        if (columns == statsColumns) {
+            return;
+        }
+        structureLock.writeLock().lock();
+        try {
+            for (Lutemon lutemon : lutemons.values()) {
+                // Lutemons still waiting for hydration are bound when they are attached
+                if (lutemon.isHydrated()) {
+                    lutemon.getStats().unbind();
+                }
+            }
+            statsColumns = columns;
+            if (columns != null) {
+                for (Lutemon lutemon : lutemons.values()) {
+                    if (lutemon.isHydrated()) {
+                        bindStats(lutemon, columns);
+                    }
+                }
+            }
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Moves the stats of every stored Lutemon into columns whose slots were already allocated and
+     * described for them, such as a store built from a snapshot on another thread. Each Lutemon copies
+     * its current values into its slot; slots of Lutemons removed since are released, and Lutemons
+     * added since get a new slot. Must run on the thread that changes stats.
+     *
+     * @param columns The prepared columns
+     */
+    public synchronized void adoptStatsColumns(StatsColumns columns) {
+        if (columns == null || columns == statsColumns) {
+            throw new IllegalArgumentException("Columns must be new");
+        }
+        structureLock.writeLock().lock();
+        try {
+            for (Lutemon lutemon : lutemons.values()) {
+                if (lutemon.isHydrated()) {
+                    lutemon.getStats().unbind();
+                }
+            }
+            columns.forEachSlot(slot -> {
+                Lutemon lutemon = lutemons.get(columns.getOwner(slot));
+                if (lutemon != null && lutemon.isHydrated() && !lutemon.getStats().isBound()) {
+                    lutemon.getStats().bindTo(columns, slot);
+                } else {
+                    columns.release(slot);
                 }
             });
+            statsColumns = columns;
+            for (Lutemon lutemon : lutemons.values()) {
+                if (lutemon.isHydrated()) {
+                    bindStats(lutemon, columns);
+                }
+            }
+        } finally {
+            structureLock.writeLock().unlock();
+        }
+    }
+
+    public boolean isColumnarStats() {
+        return statsColumns != null;
+    }
+
+    /**
+     * Sums a stat over every stored Lutemon.
+     *
+     * @param key The stat to sum
+     * @return The total
+     */
+    public synchronized long sumStat(StatKey key) {
+        if (key == null) {
+            throw new IllegalArgumentException("Stat key cannot be null");
+        }
+        // Battles, wins and training days are summed incrementally
+        switch (key) {
+            case TRAINING_DAYS:
+                return getPerformance().getTotalTrainingDays();
+            case BATTLES:
+                return getPerformance().getTotalBattles();
+            case WINS:
+                return getPerformance().getTotalWins();
+            default:
+                break;
+        }
+        if (statsColumns != null && key == StatKey.EXPERIENCE) {
+            hydrateAll();
+            return statsColumns.sum(StatsColumns.EXPERIENCE);
+        }
+        long total = 0;
+        for (Lutemon lutemon : lutemons.values()) {
+            total += key.valueOf(lutemon.getStats());
+        }
+        return total;
+    }
+
+    /**
+     * Trains several Lutemons under a single lock acquisition.
+     * Lutemons that are missing or not in TRAINING are skipped. The training session
+     * statistic is updated once for the whole batch.
+     *
+     * @param ids The IDs of the Lutemons to train
+     * @return The number of Lutemons trained
+     */
+    public synchronized int trainLutemons(int[] ids) {
+        if (ids == null) {
+            throw new IllegalArgumentException("IDs cannot be null");
+        }
+
+        beginBatch();
+        int[] trainedIds = new int[ids.length];
+        int trained = 0;
+        try {
+            for (int id : ids) {
+                Lutemon lutemon = lutemons.get(id);
+                if (lutemon != null && lutemonLocations.get(id) == Location.TRAINING) {
+                    lutemon.train();
+                    trainedIds[trained++] = id;
+                }
+            }
+        } finally {
+            endBatch();
+        }
+        recordTrainingBatch(trainedIds, trained);
+        return trained;
+    }
+
+    private void recordTrainingBatch(int[] trainedIds, int trained) {
+        StatisticsManager.getInstance().addTotalTrainingSessions(trained);
+        // One history event per Lutemon, so its own training stays in the history
+        StatisticsManager.getInstance().recordTraining(trainedIds, trained);
+        com.badlogic.gdx.Gdx.app.log("Storage", "Trained " + trained + " Lutemons");
+    }
+
+    /**
+     * Moves a single Lutemon while a batch is open. The caller must hold the lock.
+     */
+    private boolean moveInBatch(int id, Location location) {
+        Location previous = lutemonLocations.put(id, location);
+        if (previous != location) {
+            publish(new StorageEvent(StorageEvent.Type.MOVED, id, previous, location));
+            return true;
+        }
+        return false;
+    }
+
+    private void beginBatch() {
+        batchEvents = new ArrayList<>();
+    }
+
+    private void endBatch() {
+        List<StorageEvent> events = batchEvents;
+        batchEvents = null;
+        if (events != null && !events.isEmpty()) {
+            dispatch(Collections.unmodifiableList(events));
+        }
     }
 
     public int getNextId() {
-        return nextId;
+        return nextId.get();
+    }
+
+    /**
+     * Applies the deferred stats of every Lutemon added with {@link Lutemon#deferStats}.
+     * Safe to call from a background thread to warm storage up after a profile load.
+     *
+     * @return The number of Lutemons hydrated
+     */
+    public int hydrateAll() {
+        if (pendingHydration.isEmpty()) {
+            return 0;
+        }
+        int hydrated = 0;
+        for (Integer id : new ArrayList<>(pendingHydration)) {
+            Lutemon lutemon = lutemons.get(id);
+            if (lutemon != null && !lutemon.isHydrated()) {
+                lutemon.hydrate();
+                hydrated++;
+            }
+        }
+        return hydrated;
+    }
+
+    /**
+     * Gets the number of stored Lutemons whose deferred stats have not been applied yet.
+     *
+     * @return The number of pending Lutemons
+     */
+    public int getPendingHydrationCount() {
+        return pendingHydration.size();
+    }
+
+    /**
+     * Registers a listener that is notified of every change to storage.
+     *
+     * @param listener The listener to add
+     */
+    public void addListener(StorageListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("Listener cannot be null");
+        }
+        if (!listeners.contains(listener)) {
+            listeners.add(listener);
+        }
+    }
+
+    /**
+     * Unregisters a previously added listener.
+     *
+     * @param listener The listener to remove
+     */
+    public void removeListener(StorageListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Hooks a stored Lutemon's stats up so that stat changes update the indexes and are published as events.
+     */
+    private void attach(Lutemon lutemon) {
+        final int id = lutemon.getId();
+
+        // Lutemons with deferred stats are attached once hydrated, so adding them stays cheap
+        if (!lutemon.isHydrated()) {
+            pendingHydration.add(id);
+            lutemon.whenHydrated(() -> {
+                if (pendingHydration.remove(id) && lutemons.get(id) == lutemon) {
+                    attach(lutemon);
+                }
+            });
+            return;
+        }
+
+        StatsColumns columns = statsColumns;
+        if (columns != null) {
+            bindStats(lutemon, columns);
+        }
+        reindex(lutemon);
+        // Checked after the aggregates were updated without the version lock, see recordAllVersions
+        if (keepingVersions) {
+            versionChanged(id);
+        }
+        lutemon.getStats().setChangeListener(stats -> {
+            reindex(lutemon);
+            Location location = lutemonLocations.get(id);
+            publish(new StorageEvent(StorageEvent.Type.STATS_CHANGED, id, location, location));
+        });
+    }
+
+    private static void bindStats(Lutemon lutemon, StatsColumns columns) {
+        if (lutemon.getStats().isBound()) {
+            return;
+        }
+        int slot = columns.allocate(lutemon.getId());
+        columns.describe(slot, lutemon.getType().ordinal(), lutemon.getName());
+        lutemon.getStats().bindTo(columns, slot);
+    }
+
+    /**
+     * Undoes {@link #attach(Lutemon)} so a Lutemon leaving storage keeps its values but stops reporting.
+     */
+    private void detach(Lutemon lutemon) {
+        if (!lutemon.isHydrated()) {
+            if (statsColumns == null) {
+                // Never attached; its stats can stay deferred
+                return;
+            }
+            // Deferred stats may be waiting to view a slot, which has to be freed with the Lutemon
+            pendingHydration.remove(lutemon.getId());
+            lutemon.hydrate();
+        }
+        lutemon.getStats().setChangeListener(null);
+        lutemon.getStats().unbind();
+    }
+
+    private void reindex(Lutemon lutemon) {
+        for (StatIndex index : indexes.values()) {
+            index.update(lutemon);
+        }
+        performance.update(lutemon);
+    }
+
+    private static Map<StatKey, StatIndex> createIndexes() {
+        Map<StatKey, StatIndex> indexes = new EnumMap<>(StatKey.class);
+        for (StatKey key : StatKey.values()) {
+            indexes.put(key, new StatIndex(key));
+        }
+        return indexes;
+    }
+
+    private void publish(StorageEvent event) {
+        recordVersion(event);
+        if (listeners.isEmpty()) {
+            return;
+        }
+        // Changes made by the thread running a bulk operation are held back until it finishes
+        if (batchEvents != null && Thread.holdsLock(this)) {
+            batchEvents.add(event);
+            return;
+        }
+        dispatch(Collections.singletonList(event));
+    }
+
+    private void dispatch(List<StorageEvent> events) {
+        for (StorageListener listener : listeners) {
+            listener.onStorageChanged(events);
+        }
+    }
+
+    /**
+     * Starts a transaction whose changes become visible to snapshots all at once when committed.
+     *
+     * @return A new, empty transaction
+     */
+    public StorageTransaction beginTransaction() {
+        return new StorageTransaction(this);
+    }
+
+    /**
+     * Takes a consistent snapshot of storage and the statistics totals.
+     * Any deferred stats are hydrated first so every stored Lutemon is included.
+     * The snapshot must be closed when no longer needed.
+     *
+     * @return A snapshot of the latest committed version
+     */
+    public synchronized StorageSnapshot snapshot() {
+        hydrateAll();
+        StatisticsManager statistics = StatisticsManager.getInstance();
+        synchronized (versionLock) {
+            if (!keepingVersions) {
+                recordAllVersions();
+            }
+            long version = committedVersion;
+            openSnapshots.merge(version, 1, Integer::sum);
+            return new StorageSnapshot(this, versions, version, statistics.getTotalLutemonsCreated(),
+                statistics.getTotalBattles(), statistics.getTotalTrainingSessions());
+        }
+    }
+
+    /**
+     * Starts keeping versions with one of every stored Lutemon as it is now. Bulk operations are kept
+     * out by the storage monitor and stat changes by the aggregates' monitor, which every change takes
+     * before it is versioned: a change either finished before and is recorded here, or sees that
+     * versions are kept and records itself.
+     */
+    private void recordAllVersions() {
+        synchronized (performance) {
+            keepingVersions = true;
+            long version = ++committedVersion;
+            for (Lutemon lutemon : lutemons.values()) {
+                if (lutemon.isHydrated()) {
+                    versions.put(lutemon.getId(), new LutemonVersion(version, lutemon,
+                        lutemonLocations.get(lutemon.getId()), null));
+                }
+            }
+        }
+    }
+
+    void releaseSnapshot(long version) {
+        synchronized (versionLock) {
+            openSnapshots.computeIfPresent(version, (v, count) -> count > 1 ? count - 1 : null);
+            if (openSnapshots.isEmpty()) {
+                // Nothing can read the versions any more; the next snapshot records them afresh
+                keepingVersions = false;
+                versions.clear();
+                retainedVersions.clear();
+                return;
+            }
+            Iterator<Integer> retained = retainedVersions.iterator();
+            while (retained.hasNext()) {
+                if (!prune(retained.next())) {
+                    retained.remove();
+                }
+            }
+        }
+    }
+
+    synchronized long commit(StorageTransaction transaction) {
+        for (int id : transaction.movedIds) {
+            if (!lutemons.containsKey(id)) {
+                throw new IllegalArgumentException("Invalid Lutemon ID: " + id);
+            }
+        }
+
+        long version;
+        beginBatch();
+        // Adds wait for the commit, so the versions it writes cover exactly the Lutemons it changed
+        structureLock.writeLock().lock();
+        try {
+            // Readers of the aggregates wait for the whole commit, so a battle result is never half counted
+            synchronized (versionLock) {
+                synchronized (performance) {
+                    transactionChanges = new LinkedHashSet<>();
+                    try {
+                        for (int i = 0; i < transaction.updates.size(); i++) {
+                            transaction.updates.get(i).accept(transaction.updatedLutemons.get(i).getStats());
+                        }
+                        for (int i = 0; i < transaction.movedIds.size(); i++) {
+                            moveInBatch(transaction.movedIds.get(i), transaction.moveTargets.get(i));
+                        }
+                        StatisticsManager statistics = StatisticsManager.getInstance();
+                        for (Consumer<StatisticsManager> update : transaction.statisticsUpdates) {
+                            update.accept(statistics);
+                        }
+                    } finally {
+                        version = ++committedVersion;
+                        if (keepingVersions) {
+                            for (int id : transactionChanges) {
+                                writeVersion(id, version);
+                            }
+                        }
+                        transactionChanges = null;
+                    }
+                }
+            }
+        } finally {
+            structureLock.writeLock().unlock();
+            endBatch();
+        }
+        return version;
+    }
+
+    private void initVersions() {
+        versions = new ConcurrentHashMap<>();
+        versionLock = new Object();
+        openSnapshots = new TreeMap<>();
+        retainedVersions = new HashSet<>();
+    }
+
+    private void recordVersion(StorageEvent event) {
+        switch (event.getType()) {
+            case ADDED:
+                // Recorded by attach, which also covers Lutemons hydrated later
+                break;
+            case CLEARED:
+                synchronized (versionLock) {
+                    if (!keepingVersions) {
+                        break;
+                    }
+                    long version = ++committedVersion;
+                    for (Integer id : new ArrayList<>(versions.keySet())) {
+                        writeVersion(id, version);
+                    }
+                }
+                break;
+            case STATS_CHANGED:
+                // Published after the aggregates were updated, see recordAllVersions
+                if (keepingVersions) {
+                    versionChanged(event.getLutemonId());
+                }
+                break;
+            default:
+                versionChanged(event.getLutemonId());
+                break;
+        }
+    }
+
+    /**
+     * Records the current state of a Lutemon as a new version, or as part of the commit in progress.
+     */
+    private void versionChanged(int id) {
+        synchronized (versionLock) {
+            // Only the committing thread can get here while a commit holds the lock
+            if (transactionChanges != null) {
+                transactionChanges.add(id);
+                return;
+            }
+            if (!keepingVersions) {
+                return;
+            }
+            writeVersion(id, ++committedVersion);
+        }
+    }
+
+    private void writeVersion(int id, long version) {
+        Lutemon lutemon = lutemons.get(id);
+        LutemonVersion head = versions.get(id);
+        if (lutemon == null) {
+            if (head == null || head.isRemoved()) {
+                return;
+            }
+            versions.put(id, LutemonVersion.removed(version, head.getLutemon(), head));
+        } else if (lutemon.isHydrated()) {
+            versions.put(id, new LutemonVersion(version, lutemon, lutemonLocations.get(id), head));
+        } else {
+            // Recorded when attached after hydration
+            return;
+        }
+        if (prune(id)) {
+            retainedVersions.add(id);
+        }
+    }
+
+    /**
+     * Drops the versions of a Lutemon that no open snapshot can see.
+     *
+     * @return True if some are still needed by an open snapshot
+     */
+    private boolean prune(int id) {
+        LutemonVersion head = versions.get(id);
+        if (head == null) {
+            return false;
+        }
+        long oldestOpen = openSnapshots.isEmpty() ? Long.MAX_VALUE : openSnapshots.firstKey();
+        if (head.isRemoved() && head.getVersion() <= oldestOpen) {
+            versions.remove(id);
+            return false;
+        }
+        for (LutemonVersion version = head; version != null; version = version.previous) {
+            if (version.getVersion() <= oldestOpen) {
+                version.previous = null;
+                return version != head;
+            }
+        }
+        return true;
     }
 
     // For serialization purposes
     protected Object readResolve() {
+        structureLock = new ReentrantReadWriteLock();
+        listeners = new CopyOnWriteArrayList<>();
+        indexes = createIndexes();
+        performance = new PerformanceAggregates();
+        pendingHydration = ConcurrentHashMap.newKeySet();
+        initVersions();
+        for (Lutemon lutemon : lutemons.values()) {
+            attach(lutemon);
+        }
         instance = this;
         return instance;
     }
@@ -0,0 +1,67 @@
+package com.main.lutemon.model.storage;
+
+/**
+ * Describes a single change to the contents of {@link Storage}.
+ * Events are delivered to {@link StorageListener}s in the order the changes were applied.
+ */
+public final class StorageEvent {
+    /**
+     * The kind of change an event describes.
+     */
+    public enum Type {
+        /** A Lutemon was added to storage */
+        ADDED,
+
+        /** A Lutemon was removed from storage */
+        REMOVED,
+
+        /** A Lutemon was moved from one location to another */
+        MOVED,
+
+        /** One or more stats of a Lutemon changed */
+        STATS_CHANGED,
+
+        /** Storage was cleared; every previously known Lutemon is gone */
+        CLEARED
+    }
+
+    private final Type type;
+    private final int lutemonId;
+    private final Storage.Location from;
+    private final Storage.Location to;
+
+    StorageEvent(Type type, int lutemonId, Storage.Location from, Storage.Location to) {
+        this.type = type;
+        this.lutemonId = lutemonId;
+        this.from = from;
+        this.to = to;
+    }
+
+    public Type getType() { return type; }
+
+    /**
+     * Gets the ID of the affected Lutemon, or -1 for {@link Type#CLEARED}.
+     *
+     * @return The Lutemon ID
+     */
+    public int getLutemonId() { return lutemonId; }
+
+    /**
+     * Gets the location the Lutemon was at before the change, or null if it was not in storage.
+     *
+     * @return The previous location
+     */
+    public Storage.Location getFrom() { return from; }
+
+    /**
+     * Gets the location the Lutemon is at after the change, or null if it is no longer in storage.
+     *
+     * @return The new location
+     */
+    public Storage.Location getTo() { return to; }
+
+    @Override
+    public String toString() {
+        return type + " (ID: " + lutemonId + ", " + from + " -> " + to + ")";
+    }
+}
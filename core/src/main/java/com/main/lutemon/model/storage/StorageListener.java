@@ -0,0 +1,17 @@
+package com.main.lutemon.model.storage;
+
+import java.util.List;
+
+/**
+ * Receives fine-grained change events from {@link Storage}.
+ * Listeners may be called from any thread that mutates storage, so implementations
+ * that touch the UI should hand the events over to the render thread.
+ */
+public interface StorageListener {
+    /**
+     * Called after one or more changes have been applied to storage.
+     *
+     * @param events The changes, in the order they were applied
+     */
+    void onStorageChanged(List<StorageEvent> events);
+}
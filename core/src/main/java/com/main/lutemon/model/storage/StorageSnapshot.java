@@ -0,0 +1,77 @@
+package com.main.lutemon.model.storage;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A consistent, read-only view of {@link Storage} and the statistics totals as of one committed version.
+ * Reading never blocks writers: changes committed after the snapshot was taken are simply not visible.
+ * Close the snapshot when done so storage can drop the old versions it kept for it.
+ *
+ * <pre>
+ * try (StorageSnapshot snapshot = Storage.getInstance().snapshot()) {
+ *     for (LutemonVersion lutemon : snapshot.getAll()) { ... }
+ * }
+ * </pre>
+ */
+public final class StorageSnapshot implements AutoCloseable {
+    private final Storage storage;
+    private final Map<Integer, LutemonVersion> versions;
+    private final long version;
+    private final int totalLutemonsCreated;
+    private final int totalBattles;
+    private final int totalTrainingSessions;
+    private boolean closed;
+
+    StorageSnapshot(Storage storage, Map<Integer, LutemonVersion> versions, long version,
+                    int totalLutemonsCreated, int totalBattles, int totalTrainingSessions) {
+        this.storage = storage;
+        this.versions = versions;
+        this.version = version;
+        this.totalLutemonsCreated = totalLutemonsCreated;
+        this.totalBattles = totalBattles;
+        this.totalTrainingSessions = totalTrainingSessions;
+    }
+
+    /**
+     * Gets a Lutemon as of this snapshot.
+     *
+     * @param id The ID of the Lutemon
+     * @return The Lutemon's version, or null if it was not stored at this snapshot
+     */
+    public LutemonVersion get(int id) {
+        LutemonVersion head = versions.get(id);
+        return head != null ? head.visibleAt(version) : null;
+    }
+
+    /**
+     * Gets every Lutemon stored as of this snapshot.
+     *
+     * @return An unmodifiable list of versions
+     */
+    public List<LutemonVersion> getAll() {
+        List<LutemonVersion> result = new ArrayList<>(versions.size());
+        for (LutemonVersion head : versions.values()) {
+            LutemonVersion visible = head.visibleAt(version);
+            if (visible != null) {
+                result.add(visible);
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    public long getVersion() { return version; }
+    public int getTotalLutemonsCreated() { return totalLutemonsCreated; }
+    public int getTotalBattles() { return totalBattles; }
+    public int getTotalTrainingSessions() { return totalTrainingSessions; }
+
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            storage.releaseSnapshot(version);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.main.lutemon.model.storage;
+
+import com.main.lutemon.model.lutemon.Lutemon;
+import com.main.lutemon.model.lutemon.stats.LutemonStats;
+import com.main.lutemon.utils.StatisticsManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * A group of changes to {@link Storage} and {@link StatisticsManager} that becomes visible at once.
+ * Nothing is applied until {@link #commit()}; snapshots taken before the commit see none of the changes
+ * and snapshots taken after see all of them.
+ *
+ * <pre>
+ * Storage.getInstance().beginTransaction()
+ *     .update(winner, stats -> { stats.incrementBattles(); stats.incrementWins(); })
+ *     .update(loser, LutemonStats::incrementBattles)
+ *     .move(winner.getId(), Storage.Location.HOME)
+ *     .commit();
+ * </pre>
+ */
+public final class StorageTransaction {
+    private final Storage storage;
+    final List<Lutemon> updatedLutemons = new ArrayList<>();
+    final List<Consumer<LutemonStats>> updates = new ArrayList<>();
+    final List<Integer> movedIds = new ArrayList<>();
+    final List<Storage.Location> moveTargets = new ArrayList<>();
+    final List<Consumer<StatisticsManager>> statisticsUpdates = new ArrayList<>();
+    private boolean committed;
+
+    StorageTransaction(Storage storage) {
+        this.storage = storage;
+    }
+
+    /**
+     * Changes the stats of a Lutemon. The Lutemon does not have to be stored.
+     *
+     * @param lutemon The Lutemon to change
+     * @param update Applies the change to the Lutemon's stats
+     * @return This transaction
+     */
+    public StorageTransaction update(Lutemon lutemon, Consumer<LutemonStats> update) {
+        if (lutemon == null || update == null) {
+            throw new IllegalArgumentException("Lutemon and update cannot be null");
+        }
+        checkOpen();
+        updatedLutemons.add(lutemon);
+        updates.add(update);
+        return this;
+    }
+
+    /**
+     * Moves a stored Lutemon. The ID is validated when the transaction is committed.
+     *
+     * @param lutemonId The ID of the Lutemon to move
+     * @param location The location to move it to
+     * @return This transaction
+     */
+    public StorageTransaction move(int lutemonId, Storage.Location location) {
+        if (location == null) {
+            throw new IllegalArgumentException("Location cannot be null");
+        }
+        checkOpen();
+        movedIds.add(lutemonId);
+        moveTargets.add(location);
+        return this;
+    }
+
+    /**
+     * Changes the statistics totals as part of this transaction.
+     *
+     * @param update Applies the change, for example {@code StatisticsManager::incrementTotalBattles}
+     * @return This transaction
+     */
+    public StorageTransaction statistics(Consumer<StatisticsManager> update) {
+        if (update == null) {
+            throw new IllegalArgumentException("Update cannot be null");
+        }
+        checkOpen();
+        statisticsUpdates.add(update);
+        return this;
+    }
+
+    /**
+     * Applies every change and publishes them as one new version.
+     * Changes are applied in the order stats, moves, statistics. They are not rolled back if an update throws;
+     * whatever was applied up to that point is still committed.
+     *
+     * @return The committed version
+     * @throws IllegalArgumentException if a moved Lutemon is not in storage; nothing is applied in that case
+     */
+    public long commit() {
+        checkOpen();
+        committed = true;
+        return storage.commit(this);
+    }
+
+    private void checkOpen() {
+        if (committed) {
+            throw new IllegalStateException("Transaction has already been committed");
+        }
+    }
+}
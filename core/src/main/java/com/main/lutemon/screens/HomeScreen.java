@@ -71,8 +71,7 @@ public class HomeScreen implements Screen {
         backButton.addListener(new ClickListener() {
             @Override
             public void clicked(InputEvent event, float x, float y) {
-                // Save profile before going back to main menu
-                game.saveGame();
+                // Unsaved changes are written by the autosave, or before another profile is loaded
                 game.setScreen(new MainMenuScreen(game));
             }
         });
@@ -168,8 +167,8 @@ public class HomeScreen implements Screen {
     }
 
     /**
-     * Updates the Lutemon list in the home fragment.
-     * Called after a new Lutemon is created.
+     * Rebuilds the Lutemon list in the home fragment.
+     * Regular changes are applied from storage events, so this is only needed after a layout change.
      */
     public void updateLutemonList() {
         homeFragment.updateLutemonList();
@@ -12,12 +12,11 @@ import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.viewport.FitViewport;
 import com.main.lutemon.LutemonGame;
-import com.main.lutemon.model.profile.Profile;
+import com.main.lutemon.model.profile.ProfileSummary;
 import com.main.lutemon.utils.Constants;
 import com.main.lutemon.utils.ProfileManager;
 
 import java.text.SimpleDateFormat;
-import java.util.List;
 
 /**
  * Screen for selecting a profile to load.
@@ -27,6 +26,8 @@ public class ProfileSelectionScreen implements Screen {
     private Stage stage;
     private final OrthographicCamera camera;
     private TextureRegion backgroundTexture;
+    // Incremented by every rebuild of the UI, so a profile scan only fills in the list it was started for
+    private int scanCount;
     public ProfileSelectionScreen(LutemonGame game) {
         this.game = game;
         this.camera = new OrthographicCamera();
@@ -60,69 +61,46 @@ public class ProfileSelectionScreen implements Screen {
         Label titleLabel = new Label("Select Profile", game.getAssetLoader().getSkin(), "title");
         mainTable.add(titleLabel).pad(padding * 2).expandX().center().row();
 
-        // Get profiles
-        List<Profile> profiles = ProfileManager.getInstance().getAllProfiles();
+        // Rows are added as the profiles are read, so the screen is usable before the last one is
+        final Table profilesTable = new Table();
+        profilesTable.top();
 
-        if (profiles.isEmpty()) {
-            // No profiles found
-            Label noProfilesLabel = new Label("No profiles found", game.getAssetLoader().getSkin());
-            mainTable.add(noProfilesLabel).pad(padding * 2).expandX().center().row();
-        } else {
-            // Create a table for profiles
-            Table profilesTable = new Table();
-            profilesTable.top();
+        // Headers
+        Table headerRow = new Table();
+        headerRow.add(new Label("Name", game.getAssetLoader().getSkin())).width(500).pad(padding).left();
+        headerRow.add(new Label("", game.getAssetLoader().getSkin())).width(700).pad(padding).center();
+        profilesTable.add(headerRow).expandX().fillX().row();
 
-            // Headers
-            Table headerRow = new Table();
-            headerRow.add(new Label("Name", game.getAssetLoader().getSkin())).width(500).pad(padding).left();
-            headerRow.add(new Label("", game.getAssetLoader().getSkin())).width(700).pad(padding).center();
-            profilesTable.add(headerRow).expandX().fillX().row();
+        final Label statusLabel = new Label("Loading profiles...", game.getAssetLoader().getSkin());
+        profilesTable.add(statusLabel).pad(padding * 2).expandX().center().row();
 
-            // Add a row for each profile
-            for (final Profile profile : profiles) {
-                Table profileRow = new Table();
+        // Create a scroll pane for the profiles
+        ScrollPane scrollPane = new ScrollPane(profilesTable, game.getAssetLoader().getSkin());
+        scrollPane.setFadeScrollBars(false);
+        scrollPane.setScrollingDisabled(true, false);
 
-                profileRow.add(new Label(profile.getName(), game.getAssetLoader().getSkin())).width(500).pad(padding).left();
+        mainTable.add(scrollPane).expand().fill().pad(padding).row();
 
-                // Create a table for buttons
-                Table buttonTable = new Table();
-
-                // Load button
-                TextButton loadButton = new TextButton("Load", game.getAssetLoader().getSkin());
-                loadButton.addListener(new ClickListener() {
-                    @Override
-                    public void clicked(InputEvent event, float x, float y) {
-                        loadProfile(profile.getName());
-                    }
-                });
-                loadButton.setColor(0f, 0f, 0.5f, 1f);
-
-                // Delete button
-                TextButton deleteButton = new TextButton("Delete", game.getAssetLoader().getSkin());
-                deleteButton.addListener(new ClickListener() {
-                    @Override
-                    public void clicked(InputEvent event, float x, float y) {
-                        showDeleteConfirmationDialog(profile.getName());
-                    }
-                });
-                deleteButton.setColor(1f, 0f, 0f, 1f);
-
-                // Add buttons to the button table
-                buttonTable.add(loadButton).width(260).pad(padding / 2);
-                buttonTable.add(deleteButton).width(420).pad(padding / 2);
-
-                profileRow.add(buttonTable).width(700).pad(padding).center();
-
-                profilesTable.add(profileRow).expandX().fillX().row();
+        // Get profiles, only their summaries are read until one is loaded
+        final int scan = ++scanCount;
+        ProfileManager.getInstance().scanProfileSummaries(new ProfileManager.ProfileScanListener() {
+            @Override
+            public void onProfileScanned(ProfileSummary profile) {
+                // Results of a scan started before the UI was last rebuilt are dropped
+                if (scan == scanCount) {
+                    profilesTable.removeActor(statusLabel);
+                    addProfileRow(profilesTable, profile, padding);
+                }
             }
 
-            // Create a scroll pane for the profiles
-            ScrollPane scrollPane = new ScrollPane(profilesTable, game.getAssetLoader().getSkin());
-            scrollPane.setFadeScrollBars(false);
-            scrollPane.setScrollingDisabled(true, false);
-
-            mainTable.add(scrollPane).expand().fill().pad(padding).row();
-        }
+            @Override
+            public void onScanComplete(int profileCount) {
+                if (scan == scanCount && profileCount == 0) {
+                    // No profiles found
+                    statusLabel.setText("No profiles found");
+                }
+            }
+        });
 
         // Back button
         TextButton backButton = new TextButton("Back", game.getAssetLoader().getSkin());
@@ -139,6 +117,50 @@ public class ProfileSelectionScreen implements Screen {
         stage.addActor(mainTable);
     }
 
+    /**
+     * Adds the row of a profile, with its load and delete buttons, to the profile list.
+     *
+     * @param profilesTable The profile list
+     * @param profile The profile
+     * @param padding The padding around cells
+     */
+    private void addProfileRow(Table profilesTable, final ProfileSummary profile, float padding) {
+        Table profileRow = new Table();
+
+        profileRow.add(new Label(profile.getName(), game.getAssetLoader().getSkin())).width(500).pad(padding).left();
+
+        // Create a table for buttons
+        Table buttonTable = new Table();
+
+        // Load button
+        TextButton loadButton = new TextButton("Load", game.getAssetLoader().getSkin());
+        loadButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                loadProfile(profile.getName());
+            }
+        });
+        loadButton.setColor(0f, 0f, 0.5f, 1f);
+
+        // Delete button
+        TextButton deleteButton = new TextButton("Delete", game.getAssetLoader().getSkin());
+        deleteButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                showDeleteConfirmationDialog(profile.getName());
+            }
+        });
+        deleteButton.setColor(1f, 0f, 0f, 1f);
+
+        // Add buttons to the button table
+        buttonTable.add(loadButton).width(260).pad(padding / 2);
+        buttonTable.add(deleteButton).width(420).pad(padding / 2);
+
+        profileRow.add(buttonTable).width(700).pad(padding).center();
+
+        profilesTable.add(profileRow).expandX().fillX().row();
+    }
+
     private void loadProfile(String name) {
         try {
             // Load profile
@@ -13,13 +13,13 @@ import com.badlogic.gdx.utils.Align;
 import com.badlogic.gdx.utils.viewport.FitViewport;
 import com.main.lutemon.LutemonGame;
 import com.main.lutemon.model.lutemon.Lutemon;
+import com.main.lutemon.model.storage.PerformanceAggregates;
 import com.main.lutemon.model.storage.Storage;
+import com.main.lutemon.ui.dialogs.HistoryChartDialog;
 import com.main.lutemon.ui.dialogs.StatisticsChartDialog;
 import com.main.lutemon.utils.Constants;
 import com.main.lutemon.utils.StatisticsManager;
 
-import java.util.Map;
-
 /**
  * Screen for displaying game statistics.
  */
@@ -114,7 +114,7 @@ public class StatisticsScreen implements Screen {
         int totalLutemons = statsManager.getTotalLutemonsCreated();
         int totalBattles = statsManager.getTotalBattles();
         int totalTraining = statsManager.getTotalTrainingSessions();
-        Map<Integer, StatisticsManager.LutemonPerformance> performanceMap = statsManager.getLutemonPerformanceStats();
+        PerformanceAggregates performance = statsManager.getRosterPerformance();
 
         // General Statistics Section
         Label generalStatsLabel = new Label("General Statistics", skin, "title");
@@ -131,6 +131,15 @@ public class StatisticsScreen implements Screen {
         generalTable.add(new Label("Total Training Sessions:", skin)).pad(padding).left();
         generalTable.add(new Label(String.valueOf(totalTraining), skin)).pad(padding).left().row();
 
+        generalTable.add(new Label("Overall Win Rate:", skin)).pad(padding).left();
+        generalTable.add(new Label(Math.round(performance.getWinRate() * 100) + "%", skin)).pad(padding).left().row();
+
+        generalTable.add(new Label("Average Battles per Lutemon:", skin)).pad(padding).left();
+        generalTable.add(new Label(String.format("%.1f", performance.getAverageBattles()), skin)).pad(padding).left().row();
+
+        generalTable.add(new Label("Average Training Days per Lutemon:", skin)).pad(padding).left();
+        generalTable.add(new Label(String.format("%.1f", performance.getAverageTrainingDays()), skin)).pad(padding).left().row();
+
         statsTable.add(generalTable).pad(padding).colspan(4).row();
 
         // Lutemon Performance Section
@@ -149,15 +158,15 @@ public class StatisticsScreen implements Screen {
         for (Lutemon lutemon : Storage.getInstance().getAllLutemons()) {
             Table lutemonRow = new Table();
 
-            StatisticsManager.LutemonPerformance performance = performanceMap.get(lutemon.getId());
-            if (performance == null) {
+            StatisticsManager.LutemonPerformance lutemonPerformance = performance.get(lutemon.getId());
+            if (lutemonPerformance == null) {
                 continue;
             }
 
             lutemonRow.add(new Label(lutemon.getName(), skin)).width(600).pad(padding).left();
-            lutemonRow.add(new Label(String.valueOf(performance.getBattles()), skin)).width(300).pad(padding).center();
-            lutemonRow.add(new Label(String.valueOf(performance.getWins()), skin)).width(200).pad(padding).center();
-            lutemonRow.add(new Label(String.valueOf(performance.getTrainingDays()), skin)).width(200).pad(padding).center();
+            lutemonRow.add(new Label(String.valueOf(lutemonPerformance.getBattles()), skin)).width(300).pad(padding).center();
+            lutemonRow.add(new Label(String.valueOf(lutemonPerformance.getWins()), skin)).width(200).pad(padding).center();
+            lutemonRow.add(new Label(String.valueOf(lutemonPerformance.getTrainingDays()), skin)).width(200).pad(padding).center();
 
             statsTable.add(lutemonRow).expandX().fillX().row();
         }
@@ -249,7 +258,7 @@ public class StatisticsScreen implements Screen {
 
         // Add chart type buttons
         float buttonWidth = dialogWidth * 0.8f;
-        float buttonHeight = dialogHeight * 0.1f;
+        float buttonHeight = dialogHeight * 0.08f;
         float buttonPad = 10;
 
         // Battles chart button
@@ -296,6 +305,27 @@ public class StatisticsScreen implements Screen {
         });
         contentTable.add(winRateButton).width(buttonWidth).height(buttonHeight).pad(buttonPad).row();
 
+        // History chart buttons
+        TextButton dailyButton = new TextButton("Activity over 30 Days", game.getAssetLoader().getSkin());
+        dailyButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                dialog.hide();
+                showHistoryChart("daily");
+            }
+        });
+        contentTable.add(dailyButton).width(buttonWidth).height(buttonHeight).pad(buttonPad).row();
+
+        TextButton hourlyButton = new TextButton("Activity over 48 Hours", game.getAssetLoader().getSkin());
+        hourlyButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                dialog.hide();
+                showHistoryChart("hourly");
+            }
+        });
+        contentTable.add(hourlyButton).width(buttonWidth).height(buttonHeight).pad(buttonPad).row();
+
         // Cancel button
         TextButton cancelButton = new TextButton("Cancel", game.getAssetLoader().getSkin());
         cancelButton.addListener(new ClickListener() {
@@ -319,4 +349,14 @@ public class StatisticsScreen implements Screen {
         StatisticsChartDialog chartDialog = new StatisticsChartDialog(game.getAssetLoader().getSkin(), chartType);
         chartDialog.show(stage);
     }
+
+    /**
+     * Shows a chart of the statistics history.
+     *
+     * @param chartType The type of chart to show ("daily" or "hourly")
+     */
+    private void showHistoryChart(String chartType) {
+        HistoryChartDialog chartDialog = new HistoryChartDialog(game.getAssetLoader().getSkin(), chartType);
+        chartDialog.show(stage);
+    }
 }
@@ -31,6 +31,8 @@ public class TrainingScreen implements Screen {
     private final OrthographicCamera camera;
     private TextureRegion backgroundTexture;
     private Lutemon selectedLutemon;
+    // IDs of the Lutemons trained together with "Train All", null when one Lutemon is trained
+    private int[] trainingTeam;
     private boolean inSelectionMode;
     private boolean isTraining;
     private float trainingTime;
@@ -279,6 +281,19 @@ public class TrainingScreen implements Screen {
             // Add the scroll pane to the selection table
             selectionTable.add(scrollPane).colspan(3).expand().fill().pad(20).row(); // Increased colspan to 3
 
+            // Train every Lutemon at once
+            if (lutemons.size() > 1) {
+                TextButton trainAllButton = new TextButton("Train All", skin);
+                trainAllButton.getLabel().setFontScale(1f);
+                trainAllButton.addListener(new ClickListener() {
+                    @Override
+                    public void clicked(InputEvent event, float x, float y) {
+                        selectTeam(lutemons);
+                    }
+                });
+                selectionTable.add(trainAllButton).colspan(3).width(800).height(80).pad(10).row();
+            }
+
             // Back button - increased size
             TextButton backButton = new TextButton("Back to Home", skin);
             backButton.getLabel().setFontScale(1f);
@@ -317,6 +332,21 @@ public class TrainingScreen implements Screen {
         Gdx.input.setInputProcessor(stage);
     }
 
+    /**
+     * Selects every Lutemon for training together. They are moved to TRAINING for the session.
+     *
+     * @param lutemons The Lutemons to train
+     */
+    private void selectTeam(List<Lutemon> lutemons) {
+        int[] ids = new int[lutemons.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = lutemons.get(i).getId();
+        }
+        Storage.getInstance().moveToLocation(ids, Storage.Location.TRAINING);
+        trainingTeam = ids;
+        selectLutemon(lutemons.get(0));
+    }
+
     /**
      * Starts the training process.
      */
@@ -324,7 +354,21 @@ public class TrainingScreen implements Screen {
         isTraining = true;
         trainingTime = 0;
         trainingProgressBar.setValue(0);
-        trainingStatusLabel.setText("Training " + selectedLutemon.getName() + "...");
+        if (trainingTeam != null) {
+            trainingStatusLabel.setText("Training all " + trainingTeam.length + " Lutemons...");
+        } else {
+            trainingStatusLabel.setText("Training " + selectedLutemon.getName() + "...");
+        }
+    }
+
+    /**
+     * Sends the Lutemons trained together back home.
+     */
+    private void releaseTeam() {
+        if (trainingTeam != null) {
+            Storage.getInstance().moveToLocation(trainingTeam, Storage.Location.HOME);
+            trainingTeam = null;
+        }
     }
 
     /**
@@ -335,6 +379,7 @@ public class TrainingScreen implements Screen {
             isTraining = false;
             trainingTime = 0;
             trainingProgressBar.setValue(0);
+            releaseTeam();
 
             // Return to selection mode
             inSelectionMode = true;
@@ -355,6 +400,15 @@ public class TrainingScreen implements Screen {
     private void completeTraining() {
         isTraining = false;
 
+        if (trainingTeam != null) {
+            // The whole team is trained in one batch, which also counts the sessions
+            int trained = Storage.getInstance().trainLutemons(trainingTeam);
+            releaseTeam();
+            trainingStatusLabel.setText(trained + " Lutemons gained 1 EXP!");
+            returnToSelectionLater();
+            return;
+        }
+
         // Get stats before training
         int oldAttack = selectedLutemon.getStats().getAttack();
         int oldDefense = selectedLutemon.getStats().getDefense();
@@ -365,6 +419,8 @@ public class TrainingScreen implements Screen {
 
         // Also increment the total training sessions in StatisticsManager
         com.main.lutemon.utils.StatisticsManager.getInstance().incrementTotalTrainingSessions();
+        com.main.lutemon.utils.StatisticsManager.getInstance().recordTraining(selectedLutemon.getId(), 1,
+            (long) (trainingDuration * 1000));
 
         Gdx.app.log("TrainingScreen", "Completed training for " + selectedLutemon.getName() +
                   ", Training days: " + selectedLutemon.getStats().getTrainingDays());
@@ -392,7 +448,13 @@ public class TrainingScreen implements Screen {
         // Update status label
         trainingStatusLabel.setText(message.toString());
 
-        // Add a delay before returning to selection
+        returnToSelectionLater();
+    }
+
+    /**
+     * Returns to the selection after showing the training result for two seconds.
+     */
+    private void returnToSelectionLater() {
         Gdx.app.postRunnable(() -> {
             // Schedule return to selection after 2 seconds
             Timer.schedule(new Timer.Task() {
@@ -497,6 +559,7 @@ public class TrainingScreen implements Screen {
         // Cancel any ongoing training when screen is hidden
         if (isTraining) {
             isTraining = false;
+            releaseTeam();
         }
     }
 
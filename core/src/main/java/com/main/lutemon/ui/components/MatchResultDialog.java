@@ -11,6 +11,7 @@ import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.utils.Align;
 import com.main.lutemon.model.lutemon.Lutemon;
 import com.main.lutemon.model.storage.Storage;
+import com.main.lutemon.model.storage.StorageTransaction;
 import com.main.lutemon.screens.BattleScreen;
 import com.main.lutemon.utils.StatisticsManager;
 
@@ -97,11 +98,8 @@ public class MatchResultDialog extends Window {
         restartButton.addListener(new ClickListener() {
             @Override
             public void clicked(InputEvent event, float x, float y) {
-                // Record battle statistics for both Lutemons
-                recordBattleStatistics();
-
-                // Make sure the player's Lutemon is in the BATTLE location
-                Storage.getInstance().moveToLocation(playerLutemon.getId(), Storage.Location.BATTLE);
+                // Record battle statistics for both Lutemons, keeping the player's Lutemon in BATTLE
+                recordBattleStatistics(Storage.Location.BATTLE);
                 battleScreen.restartBattle(playerLutemon, opponentLutemon);
                 remove(); // Remove dialog
             }
@@ -110,11 +108,8 @@ public class MatchResultDialog extends Window {
         quitButton.addListener(new ClickListener() {
             @Override
             public void clicked(InputEvent event, float x, float y) {
-                // Record battle statistics for both Lutemons
-                recordBattleStatistics();
-
-                // Move the player's Lutemon back to HOME location before navigating to home
-                Storage.getInstance().moveToLocation(playerLutemon.getId(), Storage.Location.HOME);
+                // Record battle statistics for both Lutemons and move the player's Lutemon back HOME
+                recordBattleStatistics(Storage.Location.HOME);
                 battleScreen.getGame().navigateToHome();
                 remove(); // Remove dialog
             }
@@ -136,28 +131,44 @@ public class MatchResultDialog extends Window {
      * Records battle statistics for both Lutemons.
      * This method ensures that both Lutemons have their battle count incremented,
      * and the winner has their win count incremented.
+     * The result, the move and the battle total are committed as one transaction, so a save never sees half of it.
+     *
+     * @param playerLocation Where the player's Lutemon goes after the battle
      */
-    private void recordBattleStatistics() {
+    private void recordBattleStatistics(Storage.Location playerLocation) {
+        Storage storage = Storage.getInstance();
+        StorageTransaction transaction = storage.beginTransaction();
+
         // Record battle for player Lutemon
-        playerLutemon.getStats().incrementBattles();
-        if (playerWon) {
-            playerLutemon.getStats().incrementWins();
-            playerLutemon.getStats().incrementExperience(); // Bonus experience for winning
-            System.out.println("Player " + playerLutemon.getName() + " gained 1 experience point for winning");
-        }
+        transaction.update(playerLutemon, stats -> {
+            stats.incrementBattles();
+            if (playerWon) {
+                stats.incrementWins();
+                stats.incrementExperience(); // Bonus experience for winning
+            }
+        });
 
         // Record battle for opponent Lutemon (if it's in storage)
-        if (Storage.getInstance().getLutemon(opponentLutemon.getId()) != null) {
-            opponentLutemon.getStats().incrementBattles();
-            if (!playerWon) {
-                opponentLutemon.getStats().incrementWins();
-                opponentLutemon.getStats().incrementExperience(); // Bonus experience for winning
-                System.out.println("Opponent " + opponentLutemon.getName() + " gained 1 experience point for winning");
-            }
+        boolean opponentStored = storage.getLutemon(opponentLutemon.getId()) != null;
+        if (opponentStored) {
+            transaction.update(opponentLutemon, stats -> {
+                stats.incrementBattles();
+                if (!playerWon) {
+                    stats.incrementWins();
+                    stats.incrementExperience(); // Bonus experience for winning
+                }
+            });
         }
 
-        // Save the game to persist statistics
-        battleScreen.getGame().saveGame();
+        transaction.move(playerLutemon.getId(), playerLocation);
+        transaction.statistics(StatisticsManager::incrementTotalBattles);
+        transaction.commit();
+
+        if (playerWon) {
+            System.out.println("Player " + playerLutemon.getName() + " gained 1 experience point for winning");
+        } else if (opponentStored) {
+            System.out.println("Opponent " + opponentLutemon.getName() + " gained 1 experience point for winning");
+        }
     }
 
     /**
@@ -243,9 +243,8 @@ public class CreateLutemonDialog extends Window {
 
         // Add Lutemon to storage
         if (lutemon != null) {
+            // The home list picks the new Lutemon up from the storage ADDED event
             Storage.getInstance().addLutemon(lutemon);
-            homeScreen.updateLutemonList();
-            homeScreen.getGame().saveGame();
             remove(); // Close dialog
         }
     }
@@ -0,0 +1,253 @@
+package com.main.lutemon.ui.dialogs;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.graphics.Color;
+import com.badlogic.gdx.graphics.GL20;
+import com.badlogic.gdx.graphics.g2d.Batch;
+import com.badlogic.gdx.graphics.g2d.BitmapFont;
+import com.badlogic.gdx.graphics.g2d.GlyphLayout;
+import com.badlogic.gdx.graphics.glutils.ShapeRenderer;
+import com.badlogic.gdx.scenes.scene2d.InputEvent;
+import com.badlogic.gdx.scenes.scene2d.Stage;
+import com.badlogic.gdx.scenes.scene2d.ui.Dialog;
+import com.badlogic.gdx.scenes.scene2d.ui.Label;
+import com.badlogic.gdx.scenes.scene2d.ui.Skin;
+import com.badlogic.gdx.scenes.scene2d.ui.Table;
+import com.badlogic.gdx.scenes.scene2d.ui.TextButton;
+import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
+import com.badlogic.gdx.utils.Align;
+import com.main.lutemon.utils.Constants;
+import com.main.lutemon.utils.StatisticsHistory;
+import com.main.lutemon.utils.StatisticsManager;
+
+import java.util.List;
+
+/**
+ * Dialog to display battles, wins and training sessions over time.
+ * Reads the hourly or daily rollups of the statistics history, so no events are scanned.
+ */
+public class HistoryChartDialog extends Dialog {
+    private static final Color BATTLES_COLOR = new Color(0.3f, 0.5f, 0.9f, 1);
+    private static final Color WINS_COLOR = new Color(0.2f, 0.8f, 0.2f, 1);
+    private static final Color TRAINING_COLOR = new Color(1.0f, 0.6f, 0.2f, 1);
+
+    private final ShapeRenderer shapeRenderer;
+    private final String chartType;
+    private final BitmapFont font;
+    private final GlyphLayout glyphLayout;
+
+    // Totals per bucket, oldest first; buckets without events are zero
+    private final int[] battles;
+    private final int[] wins;
+    private final int[] training;
+
+    // Chart dimensions and positioning
+    private final float chartWidth;
+    private final float chartHeight;
+    private final float chartX;
+    private final float chartY;
+    private final float maxBarHeight;
+    private final int maxValue;
+
+    /**
+     * Creates a new history chart dialog.
+     *
+     * @param skin The skin to use for the dialog
+     * @param chartType The type of chart to display ("daily" for the last 30 days or "hourly" for the last 48 hours)
+     */
+    public HistoryChartDialog(Skin skin, String chartType) {
+        super("", skin);
+        this.chartType = chartType;
+
+        // Set size to 90% of the screen
+        float width = Gdx.graphics.getWidth() * 0.9f;
+        float height = Gdx.graphics.getHeight() * 0.9f;
+        setSize(width, height);
+        setPosition((Gdx.graphics.getWidth() - width) / 2, (Gdx.graphics.getHeight() - height) / 2);
+
+        shapeRenderer = new ShapeRenderer();
+        font = skin.getFont("default-font");
+        glyphLayout = new GlyphLayout();
+
+        // Read the rollups of the period, ending with the current bucket
+        boolean hourly = "hourly".equals(chartType);
+        StatisticsHistory.Resolution resolution = hourly
+            ? StatisticsHistory.Resolution.HOUR : StatisticsHistory.Resolution.DAY;
+        int buckets = hourly ? 48 : 30;
+        battles = new int[buckets];
+        wins = new int[buckets];
+        training = new int[buckets];
+        long end = resolution.bucketOf(System.currentTimeMillis()) + resolution.getMillis();
+        long start = end - buckets * resolution.getMillis();
+        StatisticsHistory history = StatisticsManager.getInstance().getHistory();
+        if (history != null) {
+            List<StatisticsHistory.Rollup> rollups = history.getRollups(resolution, start, end);
+            for (StatisticsHistory.Rollup rollup : rollups) {
+                int index = (int) ((rollup.getStart() - start) / resolution.getMillis());
+                battles[index] = rollup.getBattles();
+                wins[index] = rollup.getWins();
+                training[index] = rollup.getTrainingSessions();
+            }
+        }
+
+        // Calculate chart dimensions
+        float padding = Constants.getPadding();
+        chartWidth = width * 0.6f;
+        chartHeight = height * 0.4f;
+        chartX = padding * 8;
+        chartY = height * 0.35f;
+        maxBarHeight = chartHeight * 0.8f;
+
+        int max = 1;
+        for (int i = 0; i < buckets; i++) {
+            max = Math.max(max, Math.max(battles[i], training[i]));
+        }
+        maxValue = max;
+
+        createUI(skin);
+    }
+
+    private void createUI(Skin skin) {
+        Table contentTable = new Table();
+        contentTable.setFillParent(true);
+        contentTable.top().pad(20);
+
+        Label titleLabel = new Label(getChartTitle(), skin);
+        titleLabel.setFontScale(1.1f);
+        titleLabel.setAlignment(Align.left);
+        contentTable.add(titleLabel).expandX().fillX().pad(20).left().row();
+
+        // Add a spacer for the chart area
+        contentTable.add().height(chartHeight + 100).row();
+
+        // Legend - positioned in the top-right corner
+        Table legendTable = new Table();
+        legendTable.top().right().pad(50, 10, 10, 10);
+        legendTable.setBackground(skin.newDrawable("white", new Color(0.1f, 0.1f, 0.1f, 0.7f)));
+
+        Label legendTitle = new Label("Legend:", skin);
+        legendTitle.setFontScale(0.9f);
+        legendTable.add(legendTitle).colspan(2).pad(5).left().row();
+        addLegendEntry(skin, legendTable, BATTLES_COLOR, "Battles (" + sum(battles) + ")");
+        addLegendEntry(skin, legendTable, WINS_COLOR, "Wins (" + sum(wins) + ")");
+        addLegendEntry(skin, legendTable, TRAINING_COLOR, "Training (" + sum(training) + ")");
+
+        Table legendContainer = new Table();
+        legendContainer.setFillParent(true);
+        legendContainer.top().right().pad(60);
+        legendContainer.add(legendTable);
+        addActor(legendContainer);
+
+        // Close button at the bottom
+        TextButton closeButton = new TextButton("Close", skin);
+        closeButton.addListener(new ClickListener() {
+            @Override
+            public void clicked(InputEvent event, float x, float y) {
+                hide();
+            }
+        });
+        contentTable.add(closeButton).pad(20).width(300).height(60);
+
+        add(contentTable).expandX().fill();
+    }
+
+    private void addLegendEntry(Skin skin, Table legendTable, Color color, String text) {
+        Table colorBox = new Table();
+        colorBox.setBackground(skin.newDrawable("white", color));
+        legendTable.add(colorBox).size(15).pad(3);
+
+        Label label = new Label(text, skin);
+        label.setFontScale(0.8f);
+        legendTable.add(label).pad(3).left().row();
+    }
+
+    private static int sum(int[] values) {
+        int total = 0;
+        for (int value : values) {
+            total += value;
+        }
+        return total;
+    }
+
+    private String getChartTitle() {
+        return "hourly".equals(chartType) ? "Activity over the Last 48 Hours" : "Activity over the Last 30 Days";
+    }
+
+    @Override
+    public void draw(Batch batch, float parentAlpha) {
+        // Draw the dialog background and UI
+        super.draw(batch, parentAlpha);
+
+        // End the batch to use ShapeRenderer
+        batch.end();
+
+        Gdx.gl.glEnable(GL20.GL_BLEND);
+        Gdx.gl.glBlendFunc(GL20.GL_SRC_ALPHA, GL20.GL_ONE_MINUS_SRC_ALPHA);
+        shapeRenderer.setProjectionMatrix(getStage().getCamera().combined);
+
+        // Chart background and bars; each bucket has a battle bar with its wins inside, and a training bar
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Filled);
+        shapeRenderer.setColor(0.1f, 0.1f, 0.1f, 0.7f);
+        shapeRenderer.rect(chartX - 10, chartY - 10, chartWidth + 20, chartHeight + 20);
+
+        float slotWidth = chartWidth / battles.length;
+        float barWidth = slotWidth * 0.4f;
+        for (int i = 0; i < battles.length; i++) {
+            float x = chartX + i * slotWidth + slotWidth * 0.1f;
+            shapeRenderer.setColor(BATTLES_COLOR);
+            shapeRenderer.rect(x, chartY, barWidth, (float) battles[i] / maxValue * maxBarHeight);
+            shapeRenderer.setColor(WINS_COLOR);
+            shapeRenderer.rect(x, chartY, barWidth, (float) wins[i] / maxValue * maxBarHeight);
+            shapeRenderer.setColor(TRAINING_COLOR);
+            shapeRenderer.rect(x + barWidth, chartY, barWidth, (float) training[i] / maxValue * maxBarHeight);
+        }
+        shapeRenderer.end();
+
+        // Draw chart axes
+        shapeRenderer.begin(ShapeRenderer.ShapeType.Line);
+        shapeRenderer.setColor(Color.WHITE);
+        shapeRenderer.line(chartX, chartY, chartX + chartWidth, chartY);
+        shapeRenderer.line(chartX, chartY, chartX, chartY + chartHeight);
+        shapeRenderer.end();
+
+        // Restart batch for the axis titles
+        batch.begin();
+
+        float oldScale = font.getScaleX();
+        font.getData().setScale(1.5f);
+        font.draw(batch, "Max: " + maxValue, chartX - 10, chartY + chartHeight + 40);
+        String xAxisTitle = "hourly".equals(chartType) ? "Hours (UTC)" : "Days (UTC)";
+        font.draw(batch, xAxisTitle, chartX + 10, chartY - 20);
+        font.getData().setScale(oldScale);
+
+        Gdx.gl.glDisable(GL20.GL_BLEND);
+    }
+
+    /**
+     * Shows the dialog on the given stage.
+     *
+     * @param stage The stage to show the dialog on
+     * @return This dialog for chaining
+     */
+    @Override
+    public Dialog show(Stage stage) {
+        stage.addActor(this);
+        return this;
+    }
+
+    @Override
+    public void hide() {
+        super.hide();
+        remove();
+    }
+
+    @Override
+    public boolean remove() {
+        boolean result = super.remove();
+        if (result) {
+            // Dispose of resources
+            shapeRenderer.dispose();
+        }
+        return result;
+    }
+}
@@ -19,20 +19,20 @@ import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.utils.Align;
 import com.main.lutemon.model.lutemon.Lutemon;
 import com.main.lutemon.model.lutemon.LutemonType;
+import com.main.lutemon.model.storage.PerformanceAggregates;
 import com.main.lutemon.model.storage.Storage;
 import com.main.lutemon.utils.Constants;
 import com.main.lutemon.utils.StatisticsManager;
 
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 
 /**
  * Dialog to display statistics in chart format.
  */
 public class StatisticsChartDialog extends Dialog {
     private final ShapeRenderer shapeRenderer;
-    private final Map<Integer, StatisticsManager.LutemonPerformance> performanceMap;
+    private final PerformanceAggregates performance;
     private final List<Lutemon> lutemons;
     private final String chartType;
     private final BitmapFont font;
@@ -72,8 +72,8 @@ public class StatisticsChartDialog extends Dialog {
         font = skin.getFont("default-font");
         glyphLayout = new GlyphLayout();
 
-        // Get lutemon performance data
-        performanceMap = StatisticsManager.getInstance().getLutemonPerformanceStats();
+        // Get lutemon performance data, kept up to date by storage
+        performance = StatisticsManager.getInstance().getRosterPerformance();
         lutemons = new ArrayList<>(Storage.getInstance().getAllLutemons());
 
         // Calculate chart dimensions
@@ -178,10 +178,10 @@ public class StatisticsChartDialog extends Dialog {
 
         for (int i = 0; i < count; i++) {
             Lutemon lutemon = lutemons.get(i);
-            StatisticsManager.LutemonPerformance performance = performanceMap.get(lutemon.getId());
-            if (performance == null) continue;
+            StatisticsManager.LutemonPerformance lutemonPerformance = performance.get(lutemon.getId());
+            if (lutemonPerformance == null) continue;
 
-            int value = getValueForLutemon(lutemon, performance);
+            int value = getValueForLutemon(lutemon, lutemonPerformance);
             if (value > max) {
                 max = value;
             }
@@ -288,10 +288,10 @@ public class StatisticsChartDialog extends Dialog {
         int count = lutemons.size();
         for (int i = 0; i < count; i++) {
             Lutemon lutemon = lutemons.get(i);
-            StatisticsManager.LutemonPerformance performance = performanceMap.get(lutemon.getId());
-            if (performance == null) continue;
+            StatisticsManager.LutemonPerformance lutemonPerformance = performance.get(lutemon.getId());
+            if (lutemonPerformance == null) continue;
 
-            int value = getValueForLutemon(lutemon, performance);
+            int value = getValueForLutemon(lutemon, lutemonPerformance);
             float barHeight = (float) value / maxValue * maxBarHeight;
 
             // Calculate bar position - start from the left
@@ -315,10 +315,10 @@ public class StatisticsChartDialog extends Dialog {
         count = lutemons.size();
         for (int i = 0; i < count; i++) {
             Lutemon lutemon = lutemons.get(i);
-            StatisticsManager.LutemonPerformance performance = performanceMap.get(lutemon.getId());
-            if (performance == null) continue;
+            StatisticsManager.LutemonPerformance lutemonPerformance = performance.get(lutemon.getId());
+            if (lutemonPerformance == null) continue;
 
-            int value = getValueForLutemon(lutemon, performance);
+            int value = getValueForLutemon(lutemon, lutemonPerformance);
             float barHeight = (float) value / maxValue * maxBarHeight;
 
             // Calculate bar position - start from the left
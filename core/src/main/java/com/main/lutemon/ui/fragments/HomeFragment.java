@@ -4,22 +4,37 @@ import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.graphics.Color;
 import com.badlogic.gdx.graphics.Pixmap;
 import com.badlogic.gdx.graphics.Texture;
+import com.badlogic.gdx.graphics.g2d.Batch;
 import com.badlogic.gdx.graphics.g2d.TextureRegion;
 import com.badlogic.gdx.scenes.scene2d.InputEvent;
+import com.badlogic.gdx.scenes.scene2d.Stage;
 import com.badlogic.gdx.scenes.scene2d.ui.*;
 import com.badlogic.gdx.scenes.scene2d.utils.ClickListener;
 import com.badlogic.gdx.scenes.scene2d.utils.TextureRegionDrawable;
 import com.main.lutemon.model.lutemon.*;
 import com.main.lutemon.model.storage.Storage;
 import com.main.lutemon.model.storage.Storage.Location;
+import com.main.lutemon.model.storage.StorageEvent;
+import com.main.lutemon.model.storage.StorageListener;
 import com.main.lutemon.screens.HomeScreen;
 import com.main.lutemon.ui.components.AnimatedAvatar;
 import com.main.lutemon.utils.Constants;
 import com.main.lutemon.utils.ProfileManager;
 
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
-
-public class HomeFragment extends Table {
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Lists the Lutemons at HOME.
+ * The list is built once and then patched row by row from {@link Storage} change events,
+ * so a refresh only costs as much as the number of changes since the last frame.
+ */
+public class HomeFragment extends Table implements StorageListener {
     private final HomeScreen screen;
     private final ScrollPane scrollPane;
     private final Table lutemonTable;
@@ -27,6 +42,15 @@ public class HomeFragment extends Table {
     private final float width;
     private final float height;
 
+    // Rows currently shown, keyed by Lutemon ID
+    private final Map<Integer, LutemonRow> rows = new LinkedHashMap<>();
+
+    // Events received from storage, applied on the render thread in act()
+    private final List<StorageEvent> pendingEvents = new ArrayList<>();
+
+    // Row backgrounds are shared between all rows of the same type
+    private final Map<LutemonType, TextureRegionDrawable> backgrounds = new EnumMap<>(LutemonType.class);
+
     public HomeFragment(HomeScreen screen, Skin skin, float width, float height) {
         this.screen = screen;
         this.skin = skin;
@@ -54,62 +78,178 @@ public class HomeFragment extends Table {
         createDefaultLutemons();
     }
 
+    @Override
+    public void onStorageChanged(List<StorageEvent> events) {
+        synchronized (pendingEvents) {
+            pendingEvents.addAll(events);
+        }
+    }
+
+    @Override
+    protected void setStage(Stage stage) {
+        super.setStage(stage);
+
+        // Only listen while on screen so discarded fragments don't keep receiving events
+        if (stage != null) {
+            Storage.getInstance().addListener(this);
+        } else {
+            Storage.getInstance().removeListener(this);
+        }
+    }
+
+    @Override
+    public void act(float delta) {
+        applyPendingEvents();
+        super.act(delta);
+    }
+
+    /**
+     * Applies the storage changes received since the last frame to the affected rows only.
+     */
+    private void applyPendingEvents() {
+        List<StorageEvent> events;
+        synchronized (pendingEvents) {
+            if (pendingEvents.isEmpty()) {
+                return;
+            }
+            events = new ArrayList<>(pendingEvents);
+            pendingEvents.clear();
+        }
+
+        Set<Integer> changedStats = new LinkedHashSet<>();
+        for (StorageEvent event : events) {
+            int id = event.getLutemonId();
+            switch (event.getType()) {
+                case CLEARED:
+                    // Everything is gone, any earlier events no longer matter
+                    removeAllRows();
+                    changedStats.clear();
+                    break;
+                case ADDED:
+                case MOVED:
+                    if (event.getTo() == Location.HOME) {
+                        addRow(id);
+                    } else {
+                        removeRow(id);
+                    }
+                    break;
+                case REMOVED:
+                    removeRow(id);
+                    changedStats.remove(id);
+                    break;
+                case STATS_CHANGED:
+                    changedStats.add(id);
+                    break;
+            }
+        }
+
+        for (int id : changedStats) {
+            LutemonRow row = rows.get(id);
+            Lutemon lutemon = Storage.getInstance().getLutemon(id);
+            if (row != null && lutemon != null) {
+                row.updateStats(lutemon);
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the whole list from storage.
+     * Incremental changes are picked up automatically, so this is only needed after a layout change.
+     */
     public void updateLutemonList() {
-        lutemonTable.clear();
+        // Drop queued events, the rebuild below already reflects them
+        synchronized (pendingEvents) {
+            pendingEvents.clear();
+        }
+
+        removeAllRows();
         lutemonTable.top().left();  // Ensure alignment to top-left
 
         List<Lutemon> lutemons = Storage.getInstance().getLutemonsAtLocation(Storage.Location.HOME);
         Gdx.app.log("HomeFragment", "Updating lutemon list with " + lutemons.size() + " lutemons at HOME");
 
-        // Also log all lutemons in storage for debugging
-        List<Lutemon> allLutemons = Storage.getInstance().getAllLutemons();
-        Gdx.app.log("HomeFragment", "Total lutemons in storage: " + allLutemons.size());
-        for (Lutemon lutemon : allLutemons) {
-            Gdx.app.log("HomeFragment", "Lutemon in storage: " + lutemon.getName() +
-                      ", Location: " + Storage.getInstance().getLutemonLocation(lutemon.getId()));
+        for (Lutemon lutemon : lutemons) {
+            addRow(lutemon);
         }
 
-        float padding = Constants.getPadding();
-        float rowHeight = height * 0.45f;
+        lutemonTable.setSize(width, height);
+
+        scrollPane.setScrollY(0);
+        scrollPane.updateVisualScroll();
+    }
 
-        // Add headers
-//        Table headerRow = new Table();
-//        headerRow.add(new Label("Name", skin, "default")).width(width * 0.4f).left().pad(padding);
-//        headerRow.add(new Label("Stats", skin, "default")).width(width * 0.6f).left().pad(padding);
-//        lutemonTable.add(headerRow).expandX().fillX().pad(5).row();
+    private void addRow(int id) {
+        Lutemon lutemon = Storage.getInstance().getLutemon(id);
+        if (lutemon != null) {
+            addRow(lutemon);
+        }
+    }
 
-        // Add separator
-//        Table separator = new Table();
-//        separator.setBackground(createColoredBackground(new Color(1, 1, 1, 0.3f)));
-//        lutemonTable.add(separator).height(2).expandX().fillX().pad(2).row();
+    private void addRow(Lutemon lutemon) {
+        if (rows.containsKey(lutemon.getId())) {
+            rows.get(lutemon.getId()).updateStats(lutemon);
+            return;
+        }
 
-        // Debug the table structure
-        Gdx.app.log("HomeFragment", "Added headers to lutemonTable");
+        LutemonRow row = new LutemonRow(lutemon);
+        rows.put(lutemon.getId(), row);
+        lutemonTable.add(row.table).expandX().fillX().height(height * 0.45f).pad(5).row();
+    }
 
-        // Set fixed column widths for consistent alignment
-        float avatarColumnWidth = width * 0.2f;
-        float nameColumnWidth = width * 0.4f;
-        float statsColumnWidth = width * 0.4f;
+    private void removeRow(int id) {
+        LutemonRow row = rows.remove(id);
+        if (row != null) {
+            // The cell keeps its height and padding after its actor is gone, so it has to go as well
+            Cell<Table> cell = lutemonTable.getCell(row.table);
+            lutemonTable.removeActor(row.table);
+            if (cell != null) {
+                lutemonTable.getCells().removeValue(cell, true);
+            }
+            lutemonTable.invalidate();
+        }
+    }
 
-        for (Lutemon lutemon : lutemons) {
-            // Debug each Lutemon
-            Gdx.app.log("HomeFragment", "Adding Lutemon: " + lutemon.getName());
+    private void removeAllRows() {
+        rows.clear();
+        lutemonTable.clear();
+    }
 
-            Table lutemonRow = new Table();
-            lutemonRow.setBackground(createLutemonBackground(lutemon));
+    /**
+     * A single Lutemon row. Keeps references to the stat labels so they can be updated in place.
+     * Stats are only filled in once the row is first drawn, so rows scrolled out of view never
+     * force a freshly loaded Lutemon to restore its stats.
+     */
+    private class LutemonRow {
+        private final int lutemonId;
+        private final Table table;
+        private final Label nameLabel;
+        private final Label healthLabel;
+        private final Label attackDefenseLabel;
+        private final Label experienceLabel;
+        private boolean statsShown;
+
+        LutemonRow(Lutemon lutemon) {
+            lutemonId = lutemon.getId();
+            float padding = Constants.getPadding();
+
+            // Set fixed column widths for consistent alignment
+            float avatarColumnWidth = width * 0.2f;
+            float nameColumnWidth = width * 0.4f;
+            float statsColumnWidth = width * 0.4f;
+
+            table = new Table() {
+                @Override
+                public void draw(Batch batch, float parentAlpha) {
+                    if (!statsShown) {
+                        showStats();
+                    }
+                    super.draw(batch, parentAlpha);
+                }
+            };
+            table.setBackground(createLutemonBackground(lutemon));
 
             // Avatar column
             Table avatarContainer = new Table();
-
-            // Create placeholder image with darker gray
-//            Pixmap pixmap = new Pixmap(1, 1, Pixmap.Format.RGBA8888);
-//            pixmap.setColor(0.3f, 0.3f, 0.3f, 1);
-//            pixmap.fill();
-//            TextureRegionDrawable placeholder = new TextureRegionDrawable(new TextureRegion(new Texture(pixmap)));
-//            pixmap.dispose();
-//
-//            Image avatarImage = new Image(placeholder);
-//            avatarContainer.add(avatarImage).size(height * 0.18f).pad(padding);  // Square image, 20% of height
             float avatarSize = height * 0.8f; // 20% of fragment height
             int avatarPaddingBottom = 180;
 
@@ -131,39 +271,44 @@ public class HomeFragment extends Table {
             AnimatedAvatar avatar = new AnimatedAvatar(lutemon.getType().toString(), avatarSize);
             avatarContainer.add(avatar).size(avatarSize).pad(10, 5, avatarPaddingBottom, 5);
 
-            lutemonRow.add(avatarContainer).width(avatarColumnWidth).top().pad(padding);
+            table.add(avatarContainer).width(avatarColumnWidth).top().pad(padding);
 
             // Name column
-            Label nameLabel = new Label(lutemon.getName(), skin);
-            lutemonRow.add(nameLabel).width(nameColumnWidth).left().pad(padding);
+            nameLabel = new Label(lutemon.getName(), skin);
+            table.add(nameLabel).width(nameColumnWidth).left().pad(padding);
 
             // Stats column
             Table statsTable = new Table();
             statsTable.defaults().left().padBottom(5);
 
-            // Get the stats
-            int currentHealth = lutemon.getStats().getCurrentHealth();
-            int maxHealth = lutemon.getStats().getMaxHealth();
-            int attack = lutemon.getStats().getAttack();
-            int defense = lutemon.getStats().getDefense();
-            int experience = lutemon.getStats().getExperience();
-
-            Gdx.app.log("HomeFragment", "Lutemon stats - HP: " + currentHealth + "/" + maxHealth +
-                      ", ATK: " + attack + ", DEF: " + defense + ", EXP: " + experience);
-
-            statsTable.add(new Label("HP: " + currentHealth + "/" + maxHealth, skin)).row();
-            statsTable.add(new Label("ATK: " + attack + " DEF: " + defense, skin)).row();
-            statsTable.add(new Label("EXP: " + experience, skin));
+            healthLabel = new Label("", skin);
+            attackDefenseLabel = new Label("", skin);
+            experienceLabel = new Label("", skin);
+            statsTable.add(healthLabel).row();
+            statsTable.add(attackDefenseLabel).row();
+            statsTable.add(experienceLabel);
 
-            lutemonRow.add(statsTable).width(statsColumnWidth).left().pad(padding);
-
-            lutemonTable.add(lutemonRow).expandX().fillX().height(rowHeight).pad(5).row();
+            table.add(statsTable).width(statsColumnWidth).left().pad(padding);
         }
 
-        lutemonTable.setSize(width, height);
+        private void showStats() {
+            statsShown = true;
+            Lutemon lutemon = Storage.getInstance().getLutemon(lutemonId);
+            if (lutemon != null) {
+                updateStats(lutemon);
+            }
+        }
 
-        scrollPane.setScrollY(0);
-        scrollPane.updateVisualScroll();
+        void updateStats(Lutemon lutemon) {
+            nameLabel.setText(lutemon.getName());
+            if (!statsShown) {
+                // Filled in when the row is first drawn
+                return;
+            }
+            healthLabel.setText("HP: " + lutemon.getStats().getCurrentHealth() + "/" + lutemon.getStats().getMaxHealth());
+            attackDefenseLabel.setText("ATK: " + lutemon.getStats().getAttack() + " DEF: " + lutemon.getStats().getDefense());
+            experienceLabel.setText("EXP: " + lutemon.getStats().getExperience());
+        }
     }
 
     private void createDefaultLutemons() {
@@ -198,32 +343,32 @@ public class HomeFragment extends Table {
             // Verify Lutemons were added
             Gdx.app.log("HomeFragment", "Created " +
                 storage.getLutemonsAtLocation(Storage.Location.HOME).size() + " default Lutemons");
-
-            // Save the game to persist the default Lutemons
-            screen.getGame().saveGame();
         } else {
             Gdx.app.log("HomeFragment", "No default Lutemons needed");
 
             List<Lutemon> existingLutemons = storage.getAllLutemons();
             Gdx.app.log("HomeFragment", "Found " + existingLutemons.size() + " existing Lutemons");
 
-            // Make sure all lutemons are at HOME location
-            for (Lutemon lutemon : existingLutemons) {
-                Location currentLocation = storage.getLutemonLocation(lutemon.getId());
-                if (currentLocation != Storage.Location.HOME) {
-                    Gdx.app.log("HomeFragment", "Moving Lutemon " + lutemon.getName() + " from " +
-                              currentLocation + " to HOME");
-                    storage.moveToLocation(lutemon.getId(), Storage.Location.HOME);
-                }
-            }
+            // Make sure all lutemons are at HOME location, in one batch
+            int moved = storage.moveWhere(lutemon -> true, Storage.Location.HOME);
+            Gdx.app.log("HomeFragment", "Moved " + moved + " Lutemons back to HOME");
         }
 
         updateLutemonList();
     }
 
     private TextureRegionDrawable createLutemonBackground(Lutemon lutemon) {
+        TextureRegionDrawable background = backgrounds.get(lutemon.getType());
+        if (background == null) {
+            background = createColoredBackground(getLutemonColor(lutemon.getType()));
+            backgrounds.put(lutemon.getType(), background);
+        }
+        return background;
+    }
+
+    private Color getLutemonColor(LutemonType type) {
         Color color;
-        switch (lutemon.getType()) {
+        switch (type) {
             case WHITE:
                 color = new Color(1, 1, 1, 0.3f);
                 break;
@@ -242,7 +387,7 @@ public class HomeFragment extends Table {
             default:
                 color = new Color(0.5f, 0.5f, 0.5f, 0.3f);
         }
-        return createColoredBackground(color);
+        return color;
     }
 
     private TextureRegionDrawable createColoredBackground(Color color) {
@@ -0,0 +1,51 @@
+package com.main.lutemon.utils;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Replaces files so that a crash or a killed process leaves either the old contents or the new ones,
+ * never a partly written file.
+ *
+ * <p>The data is written to a temporary file next to the target, synced to disk and then renamed over
+ * the target. Renaming within a directory is atomic on Android, Linux and macOS. Where the platform
+ * cannot rename over an existing file, the old file is deleted first; callers that keep a backup can
+ * still recover from a crash between the two steps.
+ */
+final class AtomicFileWriter {
+    static final String TEMP_SUFFIX = ".tmp";
+
+    private AtomicFileWriter() {
+    }
+
+    /**
+     * Replaces the contents of a file.
+     *
+     * @param file The file to write, which must be on the local file system
+     * @param data The new contents
+     * @throws IOException If the file could not be written; the old contents are then left in place
+     */
+    static void write(FileHandle file, byte[] data) throws IOException {
+        File target = file.file();
+        File temp = new File(target.getPath() + TEMP_SUFFIX);
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write(data);
+            out.flush();
+            out.getFD().sync();
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+
+        if (!temp.renameTo(target)) {
+            // Windows does not rename over an existing file
+            target.delete();
+            if (!temp.renameTo(target)) {
+                throw new IOException("Could not replace " + target.getPath());
+            }
+        }
+    }
+}
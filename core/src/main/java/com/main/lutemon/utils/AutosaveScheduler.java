@@ -0,0 +1,108 @@
+package com.main.lutemon.utils;
+
+import com.badlogic.gdx.Gdx;
+
+/**
+ * Saves the current profile in the background while it has unsaved changes, instead of the UI saving
+ * after each action. Changes are tracked by {@link ProfileManager#hasUnsavedChanges()}, so an idle session
+ * does no I/O at all. A busy one writes at most one batch of changed Lutemons per save; while more are
+ * waiting, the next batch follows shortly instead of after the full interval.
+ *
+ * <p>Driven from the render thread by {@link #update(float)}. {@link #flush()} writes everything that is
+ * left and should be called when the game is paused, since the process may be killed afterwards.
+ */
+public class AutosaveScheduler {
+    public static final float DEFAULT_INTERVAL_SECONDS = 30f;
+    public static final int DEFAULT_BATCH_SIZE = 1_000;
+    // Delay before the next batch while changed Lutemons are still waiting to be saved
+    private static final float BACKLOG_INTERVAL_SECONDS = 1f;
+
+    private final ProfileManager profileManager;
+    private float intervalSeconds = DEFAULT_INTERVAL_SECONDS;
+    private int batchSize = DEFAULT_BATCH_SIZE;
+    private float secondsUntilSave = DEFAULT_INTERVAL_SECONDS;
+    private boolean saving;
+
+    /**
+     * Creates a scheduler saving the current profile of a profile manager.
+     *
+     * @param profileManager The profile manager
+     */
+    public AutosaveScheduler(ProfileManager profileManager) {
+        if (profileManager == null) {
+            throw new IllegalArgumentException("Profile manager cannot be null");
+        }
+        this.profileManager = profileManager;
+    }
+
+    /**
+     * Sets how long changes may stay unsaved while the game is running.
+     *
+     * @param seconds The time between saves, in seconds
+     */
+    public void setInterval(float seconds) {
+        if (!(seconds > 0)) {
+            throw new IllegalArgumentException("Autosave interval must be positive");
+        }
+        intervalSeconds = seconds;
+        secondsUntilSave = Math.min(secondsUntilSave, seconds);
+    }
+
+    public float getInterval() {
+        return intervalSeconds;
+    }
+
+    /**
+     * Sets the largest number of changed Lutemons written by one save.
+     *
+     * @param batchSize The batch size
+     */
+    public void setBatchSize(int batchSize) {
+        if (batchSize <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    /**
+     * Advances the clock and starts a save once one is due and there is something to save.
+     * Called every frame on the render thread.
+     *
+     * @param deltaSeconds The time since the last frame, in seconds
+     */
+    public void update(float deltaSeconds) {
+        secondsUntilSave -= deltaSeconds;
+        if (saving || secondsUntilSave > 0) {
+            return;
+        }
+        secondsUntilSave = intervalSeconds;
+        if (!profileManager.hasUnsavedChanges()) {
+            return;
+        }
+
+        saving = true;
+        profileManager.saveChangesAsync(batchSize, success -> {
+            saving = false;
+            if (success && profileManager.hasUnsavedChanges()) {
+                secondsUntilSave = Math.min(secondsUntilSave, BACKLOG_INTERVAL_SECONDS);
+            }
+        });
+    }
+
+    /**
+     * Writes every unsaved change and waits until it is on disk. Does nothing if there are none.
+     * Called when the game is paused or closed.
+     */
+    public void flush() {
+        if (profileManager.hasUnsavedChanges()) {
+            boolean saved = profileManager.saveCurrentProfile();
+            Gdx.app.log("AutosaveScheduler", "Saved unsaved changes: " + saved);
+        }
+        profileManager.awaitPendingSaves();
+        secondsUntilSave = intervalSeconds;
+    }
+}
@@ -0,0 +1,48 @@
+package com.main.lutemon.utils;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.main.lutemon.model.profile.Profile;
+import com.main.lutemon.model.storage.StorageSnapshot;
+
+import java.io.IOException;
+
+/**
+ * Keeps each profile in a {@link ProfileBinaryCodec} file. The version being replaced is kept as a
+ * backup, unless it is damaged itself, so even a file damaged after it was written can be recovered.
+ * This is the default backend.
+ */
+public final class BinaryFileBackend extends FileBackend {
+    public static final String NAME = "binary";
+
+    /**
+     * Creates a backend keeping profiles in a directory.
+     *
+     * @param directory The directory, created on the first save if needed
+     */
+    public BinaryFileBackend(FileHandle directory) {
+        super(directory, BINARY_EXTENSION, JSON_EXTENSION);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    byte[] encode(Profile profile, StorageSnapshot snapshot, ProfileCompression compression) {
+        return snapshot != null
+            ? ProfileBinaryCodec.encode(profile, snapshot, compression)
+            : ProfileBinaryCodec.encode(profile, compression);
+    }
+
+    @Override
+    void write(FileHandle file, byte[] data) throws IOException {
+        if (file.exists()) {
+            byte[] previousData = file.readBytes();
+            if (ProfileBinaryCodec.isIntact(previousData)) {
+                AtomicFileWriter.write(file.sibling(file.name() + BACKUP_SUFFIX), previousData);
+            }
+        }
+        AtomicFileWriter.write(file, data);
+    }
+}
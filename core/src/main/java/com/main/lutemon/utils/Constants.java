@@ -44,6 +44,10 @@ public class Constants {
     // Save/Load
     public static final String SAVE_FILE = "lutemon_save.json";
 
+    // Settings, kept in the game's preferences
+    public static final String PREFERENCES_NAME = "lutemon";
+    public static final String PERSISTENCE_PREFERENCE = "persistence";
+
     /**
      * Get the current screen width
      * @return The width of the current screen
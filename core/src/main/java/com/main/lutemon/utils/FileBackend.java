@@ -0,0 +1,158 @@
+package com.main.lutemon.utils;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.main.lutemon.model.profile.Profile;
+import com.main.lutemon.model.storage.StorageSnapshot;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Keeps each profile in its own file in a directory. Files are replaced atomically.
+ *
+ * <p>Both file formats can be read by either file backend. A profile saved in the other format is
+ * listed and loaded as usual and moved to this backend's format by its next save, so switching
+ * between file backends, or upgrading from the JSON profiles of older versions of the game, loses nothing.
+ */
+abstract class FileBackend implements PersistenceBackend {
+    static final String BINARY_EXTENSION = ProfileBinaryCodec.EXTENSION;
+    static final String JSON_EXTENSION = ".json";
+    // Appended to a profile's file name for the last intact version before the current one
+    static final String BACKUP_SUFFIX = ".bak";
+
+    private final FileHandle directory;
+    private final String extension;
+    private final String otherExtension;
+    // One reader per thread, so profiles can be read in parallel and each thread still reuses its buffers
+    private final ThreadLocal<ProfileJsonReader> jsonReaders = ThreadLocal.withInitial(ProfileJsonReader::new);
+
+    FileBackend(FileHandle directory, String extension, String otherExtension) {
+        this.directory = directory;
+        this.extension = extension;
+        this.otherExtension = otherExtension;
+    }
+
+    /**
+     * Encodes a profile in this backend's format.
+     */
+    abstract byte[] encode(Profile profile, StorageSnapshot snapshot, ProfileCompression compression)
+        throws IOException;
+
+    /**
+     * Replaces the contents of a profile file.
+     */
+    abstract void write(FileHandle file, byte[] data) throws IOException;
+
+    @Override
+    public void save(Profile profile, StorageSnapshot snapshot, ProfileCompression compression) throws IOException {
+        if (!directory.exists()) {
+            directory.mkdirs();
+        }
+        byte[] data = encode(profile, snapshot, compression);
+        write(directory.child(profile.getName() + extension), data);
+
+        // The copy in the other format is out of date now
+        directory.child(profile.getName() + otherExtension).delete();
+        directory.child(profile.getName() + otherExtension + BACKUP_SUFFIX).delete();
+    }
+
+    @Override
+    public Profile load(String name, ProfileJournal.LutemonFactory factory) throws IOException {
+        FileHandle file = directory.child(name + extension);
+        if (!file.exists()) {
+            file = directory.child(name + otherExtension);
+            if (!file.exists()) {
+                throw new IOException("No saved profile named " + name);
+            }
+        }
+        return file.name().endsWith(JSON_EXTENSION) ? readJson(file, name, factory) : readBinary(file, factory);
+    }
+
+    @Override
+    public boolean exists(String name) {
+        return directory.child(name + extension).exists() || directory.child(name + otherExtension).exists();
+    }
+
+    @Override
+    public boolean delete(String name) {
+        boolean deleted = directory.child(name + extension).delete();
+        deleted |= directory.child(name + otherExtension).delete();
+        directory.child(name + extension + BACKUP_SUFFIX).delete();
+        directory.child(name + otherExtension + BACKUP_SUFFIX).delete();
+        return deleted;
+    }
+
+    @Override
+    public Set<String> list() {
+        Set<String> names = new LinkedHashSet<>();
+        if (!directory.isDirectory()) {
+            return names;
+        }
+        for (FileHandle file : directory.list(extension)) {
+            names.add(file.nameWithoutExtension());
+        }
+        for (FileHandle file : directory.list(otherExtension)) {
+            names.add(file.nameWithoutExtension());
+        }
+        return names;
+    }
+
+    @Override
+    public boolean needsRewrite(String name) {
+        return !directory.child(name + extension).exists() && directory.child(name + otherExtension).exists();
+    }
+
+    /**
+     * Reads a binary profile. A damaged file is detected by its checksum and the backup is read instead;
+     * replaying the journal afterwards brings back the changes journaled since the backup was written.
+     */
+    private Profile readBinary(FileHandle file, ProfileJournal.LutemonFactory factory) throws IOException {
+        try {
+            return ProfileBinaryCodec.decode(file.readBytes(), factory);
+        } catch (IOException e) {
+            FileHandle backupFile = file.sibling(file.name() + BACKUP_SUFFIX);
+            if (!backupFile.exists()) {
+                throw e;
+            }
+            try {
+                return ProfileBinaryCodec.decode(backupFile.readBytes(), factory);
+            } catch (IOException backupDamaged) {
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Reads a JSON profile. A file that fails its checksum or is not valid JSON is taken as damaged and the
+     * backup is read instead, as for binary profiles.
+     */
+    private Profile readJson(FileHandle file, String name, ProfileJournal.LutemonFactory factory) throws IOException {
+        try {
+            return readJsonFile(file, name, factory);
+        } catch (IOException e) {
+            FileHandle backupFile = file.sibling(file.name() + BACKUP_SUFFIX);
+            if (!backupFile.exists()) {
+                throw e;
+            }
+            try {
+                return readJsonFile(backupFile, name, factory);
+            } catch (IOException backupDamaged) {
+                throw e;
+            }
+        }
+    }
+
+    private Profile readJsonFile(FileHandle file, String name, ProfileJournal.LutemonFactory factory)
+            throws IOException {
+        if (JsonFileBackend.isDamaged(file)) {
+            throw new IOException("Profile checksum mismatch");
+        }
+        try (Reader reader = new InputStreamReader(file.read(), StandardCharsets.UTF_8)) {
+            return jsonReaders.get().read(reader, name, factory);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.main.lutemon.utils;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.badlogic.gdx.utils.JsonWriter;
+import com.main.lutemon.model.lutemon.Lutemon;
+import com.main.lutemon.model.profile.Profile;
+import com.main.lutemon.model.storage.StorageSnapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Keeps each profile in a JSON file, readable and editable with any text editor and by older versions
+ * of the game. Slower and several times larger than {@link BinaryFileBackend}, and compression is not
+ * applied. The JSON is written as a stream, straight from the Lutemons being saved.
+ *
+ * <p>Like a binary profile, the file ends with a CRC32 of everything before it, here as the last field,
+ * and the version being replaced is kept as a backup unless it is damaged itself. A damaged file is
+ * detected by its checksum, or by not being valid JSON, and the backup is read instead. A file without
+ * the checksum field, such as one written by an older version of the game, is read as it is; remove
+ * the field after editing a file by hand.
+ */
+public final class JsonFileBackend extends FileBackend {
+    public static final String NAME = "json";
+
+    // The last field of a profile file: ,"checksum":"<CRC32 as 8 hex digits>"}
+    private static final String TRAILER_PREFIX = ",\"checksum\":\"";
+    private static final String TRAILER_SUFFIX = "\"}";
+    private static final int TRAILER_LENGTH = TRAILER_PREFIX.length() + 8 + TRAILER_SUFFIX.length();
+    private static final int BUFFER_SIZE = 8192;
+
+    /**
+     * Creates a backend keeping profiles in a directory.
+     *
+     * @param directory The directory, created on the first save if needed
+     */
+    public JsonFileBackend(FileHandle directory) {
+        super(directory, JSON_EXTENSION, BINARY_EXTENSION);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    byte[] encode(Profile profile, StorageSnapshot snapshot, ProfileCompression compression) throws IOException {
+        SavedLutemons lutemons = snapshot != null ? SavedLutemons.of(snapshot) : SavedLutemons.of(profile.getLutemons());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256 + lutemons.size() * 128);
+        CheckedOutputStream checked = new CheckedOutputStream(bytes, new CRC32());
+        JsonWriter writer = new JsonWriter(new OutputStreamWriter(checked, StandardCharsets.UTF_8));
+        writer.setOutputType(JsonWriter.OutputType.json);
+
+        writer.object();
+        writer.set("schemaVersion", Profile.SCHEMA_VERSION);
+        writer.set("name", profile.getName());
+        writer.set("creationDate", profile.getCreationDate().getTime());
+        writer.set("lastPlayedDate", profile.getLastPlayedDate().getTime());
+        writer.set("journalSequence", profile.getJournalSequence());
+        writer.set("totalLutemonsCreated",
+            snapshot != null ? snapshot.getTotalLutemonsCreated() : profile.getTotalLutemonsCreated());
+        writer.set("totalBattles", snapshot != null ? snapshot.getTotalBattles() : profile.getTotalBattles());
+        writer.set("totalTrainingSessions",
+            snapshot != null ? snapshot.getTotalTrainingSessions() : profile.getTotalTrainingSessions());
+
+        writer.array("lutemons");
+        for (int i = 0; i < lutemons.size(); i++) {
+            Lutemon lutemon = lutemons.lutemon(i);
+            writer.object();
+            writer.set("type", lutemon.getType().name());
+            writer.set("name", lutemon.getName());
+            writer.set("id", lutemon.getId());
+            writer.object("stats");
+            writer.set("experience", lutemons.experience(i));
+            writer.set("currentHealth", lutemons.currentHealth(i));
+            writer.set("trainingDays", lutemons.trainingDays(i));
+            writer.set("battles", lutemons.battles(i));
+            writer.set("wins", lutemons.wins(i));
+            writer.pop();
+            writer.pop();
+        }
+        writer.pop();
+
+        writer.flush();
+        writer.set("checksum", String.format("%08x", checked.getChecksum().getValue()));
+        writer.pop();
+        writer.close();
+        return bytes.toByteArray();
+    }
+
+    @Override
+    void write(FileHandle file, byte[] data) throws IOException {
+        if (file.exists() && Boolean.TRUE.equals(checksumMatches(file))) {
+            AtomicFileWriter.write(file.sibling(file.name() + BACKUP_SUFFIX), file.readBytes());
+        }
+        AtomicFileWriter.write(file, data);
+    }
+
+    /**
+     * Checks whether a JSON profile file fails its checksum.
+     *
+     * @param file The file to check
+     * @return True if the file has a checksum field and it does not match, false if it matches or is missing
+     * @throws IOException If the file could not be read
+     */
+    static boolean isDamaged(FileHandle file) throws IOException {
+        return Boolean.FALSE.equals(checksumMatches(file));
+    }
+
+    /**
+     * Reads a JSON profile file as a stream and compares its checksum field with the CRC32 of everything
+     * before the field.
+     *
+     * @return Whether the checksum matches, or null if the file does not end with a checksum field
+     */
+    private static Boolean checksumMatches(FileHandle file) throws IOException {
+        long length = file.length();
+        if (length < TRAILER_LENGTH) {
+            return null;
+        }
+        CRC32 crc = new CRC32();
+        byte[] buffer = new byte[BUFFER_SIZE];
+        byte[] trailer = new byte[TRAILER_LENGTH];
+        try (InputStream in = file.read()) {
+            long remaining = length - TRAILER_LENGTH;
+            while (remaining > 0) {
+                int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+                if (read < 0) {
+                    return null;
+                }
+                crc.update(buffer, 0, read);
+                remaining -= read;
+            }
+            int filled = 0;
+            while (filled < TRAILER_LENGTH) {
+                int read = in.read(trailer, filled, TRAILER_LENGTH - filled);
+                if (read < 0) {
+                    return null;
+                }
+                filled += read;
+            }
+        }
+
+        String text = new String(trailer, StandardCharsets.UTF_8);
+        if (!text.startsWith(TRAILER_PREFIX) || !text.endsWith(TRAILER_SUFFIX)) {
+            return null;
+        }
+        try {
+            String checksum = text.substring(TRAILER_PREFIX.length(), TRAILER_LENGTH - TRAILER_SUFFIX.length());
+            return Long.parseLong(checksum, 16) == crc.getValue();
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
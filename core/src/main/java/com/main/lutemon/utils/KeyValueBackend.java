@@ -0,0 +1,136 @@
+package com.main.lutemon.utils;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.main.lutemon.model.profile.Profile;
+import com.main.lutemon.model.storage.StorageSnapshot;
+
+import java.io.IOException;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Keeps all profiles in one embedded {@link LogKeyValueStore}, keyed by profile name, with each value a
+ * {@link ProfileBinaryCodec} profile. A save appends the new version and syncs it, so it never rewrites
+ * other profiles or the version being replaced, and a torn write falls back to that version on the next start.
+ *
+ * <p>Profiles saved by the file backends are listed and loaded from their files as usual, and moved
+ * into the store by their next save, which deletes the files. Switching to this backend from a file
+ * backend so loses nothing.
+ */
+public final class KeyValueBackend implements PersistenceBackend {
+    public static final String NAME = "key-value";
+    static final String STORE_FILE = "profiles.kv";
+
+    private final FileHandle directory;
+    // Reads the profiles of the file backends that are not in the store yet
+    private final FileBackend files;
+    private LogKeyValueStore store;
+
+    /**
+     * Creates a backend keeping profiles in a store file in a directory.
+     *
+     * @param directory The directory, created on the first save if needed
+     */
+    public KeyValueBackend(FileHandle directory) {
+        this.directory = directory;
+        this.files = new BinaryFileBackend(directory);
+    }
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void save(Profile profile, StorageSnapshot snapshot, ProfileCompression compression) throws IOException {
+        byte[] data = snapshot != null
+            ? ProfileBinaryCodec.encode(profile, snapshot, compression)
+            : ProfileBinaryCodec.encode(profile, compression);
+        store(true).put(profile.getName(), data);
+
+        // The profile's files are out of date now
+        if (files.exists(profile.getName())) {
+            files.delete(profile.getName());
+        }
+    }
+
+    @Override
+    public Profile load(String name, ProfileJournal.LutemonFactory factory) throws IOException {
+        LogKeyValueStore store = store(false);
+        byte[] data = store != null ? store.get(name) : null;
+        if (data == null) {
+            if (files.exists(name)) {
+                return files.load(name, factory);
+            }
+            throw new IOException("No saved profile named " + name);
+        }
+        return ProfileBinaryCodec.decode(data, factory);
+    }
+
+    @Override
+    public boolean exists(String name) {
+        LogKeyValueStore store = openQuietly();
+        return (store != null && store.contains(name)) || files.exists(name);
+    }
+
+    @Override
+    public boolean delete(String name) {
+        LogKeyValueStore store = openQuietly();
+        boolean deleted = files.delete(name);
+        try {
+            return (store != null && store.remove(name)) || deleted;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Set<String> list() {
+        LogKeyValueStore store = openQuietly();
+        Set<String> names = store != null ? store.keys() : new LinkedHashSet<String>();
+        names.addAll(files.list());
+        return names;
+    }
+
+    @Override
+    public boolean needsRewrite(String name) {
+        LogKeyValueStore store = openQuietly();
+        return (store == null || !store.contains(name)) && files.exists(name);
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (store != null) {
+            store.close();
+            store = null;
+        }
+    }
+
+    /**
+     * Opens the store on first use.
+     *
+     * @param create Whether to create the store file if there is none yet
+     * @return The store, or null if there is none and create is false
+     */
+    private synchronized LogKeyValueStore store(boolean create) throws IOException {
+        if (store == null) {
+            FileHandle file = directory.child(STORE_FILE);
+            if (!LogKeyValueStore.exists(file.file())) {
+                if (!create) {
+                    return null;
+                }
+                directory.mkdirs();
+            }
+            store = LogKeyValueStore.open(file.file());
+        }
+        return store;
+    }
+
+    private LogKeyValueStore openQuietly() {
+        try {
+            return store(false);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+}
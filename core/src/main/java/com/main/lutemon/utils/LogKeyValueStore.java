@@ -0,0 +1,354 @@
+package com.main.lutemon.utils;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.CRC32;
+
+/**
+ * A small embedded key-value store kept in a single append-only file.
+ *
+ * <p>Each record is {@code <key length> <value length> <key> <value> <crc32>}, with the lengths and the
+ * checksum as big-endian ints, the key in UTF-8 and a value length of -1 for a deleted key. Every write
+ * appends one record and is synced to disk before it returns, so it is durable once it returns. Opening the
+ * store reads every record and keeps the position of each key's newest value in memory; a record cut
+ * short or failing its checksum ends the log and is cut off, so a crash loses at most the write in progress
+ * and the key keeps its previous value.
+ *
+ * <p>Overwritten and deleted values stay in the file until it has grown past
+ * {@link #COMPACTION_THRESHOLD} bytes and less than half of it is live, when the live records are copied
+ * to a new file that atomically replaces the old one. Where the platform cannot rename over an existing
+ * file, the old log is moved aside and only deleted once the new one is in place; opening the store
+ * finishes or undoes a replacement a crash interrupted.
+ */
+final class LogKeyValueStore implements Closeable {
+    static final long COMPACTION_THRESHOLD = 1 << 20;
+    private static final int HEADER_SIZE = 8;
+    private static final int CHECKSUM_SIZE = 4;
+    private static final int MAX_KEY_LENGTH = 1 << 16;
+    private static final int DELETED = -1;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+    // Appended to the file name of the old log while a compacted one replaces it
+    static final String OLD_SUFFIX = ".old";
+
+    private final File file;
+    // Position and length of each key's newest value, and the size of the record holding it
+    private final Map<String, long[]> index = new LinkedHashMap<>();
+    private RandomAccessFile randomAccessFile;
+    private FileChannel channel;
+    private long end;
+    private long liveBytes;
+
+    private LogKeyValueStore(File file) {
+        this.file = file;
+    }
+
+    /**
+     * Opens a store, creating its file if it does not exist.
+     *
+     * @param file The file
+     * @return The store
+     * @throws IOException If the file could not be opened or read
+     */
+    static LogKeyValueStore open(File file) throws IOException {
+        File old = oldFile(file);
+        if (old.exists()) {
+            // A compaction was interrupted while replacing the log; the new one is only complete once renamed
+            if (file.exists()) {
+                old.delete();
+            } else if (!old.renameTo(file)) {
+                throw new IOException("Could not restore " + file.getPath());
+            }
+        }
+        LogKeyValueStore store = new LogKeyValueStore(file);
+        store.load();
+        return store;
+    }
+
+    /**
+     * Checks whether a store was created in a file, including one whose compaction was interrupted.
+     *
+     * @param file The file
+     * @return True if {@link #open} reads an existing store
+     */
+    static boolean exists(File file) {
+        return file.exists() || oldFile(file).exists();
+    }
+
+    private static File oldFile(File file) {
+        return new File(file.getPath() + OLD_SUFFIX);
+    }
+
+    /**
+     * Reads the value of a key.
+     *
+     * @param key The key
+     * @return The value, or null if the key has none
+     * @throws IOException If the value could not be read
+     */
+    synchronized byte[] get(String key) throws IOException {
+        long[] entry = index.get(key);
+        if (entry == null) {
+            return null;
+        }
+        byte[] value = new byte[(int) entry[1]];
+        readFully(ByteBuffer.wrap(value), entry[0]);
+        return value;
+    }
+
+    /**
+     * Sets the value of a key. The value is on disk when this returns.
+     *
+     * @param key The key
+     * @param value The value
+     * @throws IOException If the value could not be written; the key then keeps its previous value
+     */
+    synchronized void put(String key, byte[] value) throws IOException {
+        append(key, value);
+        compactIfSparse();
+    }
+
+    /**
+     * Deletes a key. The deletion is on disk when this returns.
+     *
+     * @param key The key
+     * @return True if the key had a value
+     * @throws IOException If the deletion could not be written
+     */
+    synchronized boolean remove(String key) throws IOException {
+        if (!index.containsKey(key)) {
+            return false;
+        }
+        append(key, null);
+        compactIfSparse();
+        return true;
+    }
+
+    synchronized boolean contains(String key) {
+        return index.containsKey(key);
+    }
+
+    /**
+     * Gets the keys that have a value, in the order they were first written.
+     *
+     * @return A copy of the keys
+     */
+    synchronized Set<String> keys() {
+        return new LinkedHashSet<>(index.keySet());
+    }
+
+    /**
+     * Gets the size of the file, including values that have been overwritten or deleted.
+     *
+     * @return The size in bytes
+     */
+    synchronized long fileSize() {
+        return end;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (randomAccessFile != null) {
+            randomAccessFile.close();
+            randomAccessFile = null;
+            channel = null;
+        }
+    }
+
+    /**
+     * Opens the file and indexes its records, cutting off a damaged tail.
+     */
+    private void load() throws IOException {
+        randomAccessFile = new RandomAccessFile(file, "rw");
+        channel = randomAccessFile.getChannel();
+        index.clear();
+        liveBytes = 0;
+
+        long length = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        ByteBuffer copyBuffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+        while (position + HEADER_SIZE + CHECKSUM_SIZE <= length) {
+            header.clear();
+            readFully(header, position);
+            int keyLength = header.getInt(0);
+            int valueLength = header.getInt(4);
+            if (keyLength < 0 || keyLength > MAX_KEY_LENGTH || valueLength < DELETED) {
+                break;
+            }
+            long recordSize = recordSize(keyLength, valueLength);
+            if (position + recordSize > length) {
+                break;
+            }
+
+            long checksumPosition = position + recordSize - CHECKSUM_SIZE;
+            ByteBuffer checksum = ByteBuffer.allocate(CHECKSUM_SIZE);
+            readFully(checksum, checksumPosition);
+            if (checksum(position, checksumPosition - position, copyBuffer) != checksum.getInt(0)) {
+                break;
+            }
+
+            byte[] keyBytes = new byte[keyLength];
+            readFully(ByteBuffer.wrap(keyBytes), position + HEADER_SIZE);
+            index(new String(keyBytes, StandardCharsets.UTF_8), position, keyLength, valueLength);
+            position += recordSize;
+        }
+
+        if (position < length) {
+            // A write was interrupted; its record is dropped so the next one starts on a record boundary
+            channel.truncate(position);
+            channel.force(true);
+        }
+        end = position;
+    }
+
+    private void append(String key, byte[] value) throws IOException {
+        ensureOpen();
+        byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+        if (keyBytes.length > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Key is too long: " + key);
+        }
+        int valueLength = value != null ? value.length : DELETED;
+        long recordSize = recordSize(keyBytes.length, valueLength);
+        if (recordSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Value is too large: " + valueLength + " bytes");
+        }
+
+        ByteBuffer record = ByteBuffer.allocate((int) recordSize);
+        record.putInt(keyBytes.length).putInt(valueLength).put(keyBytes);
+        if (value != null) {
+            record.put(value);
+        }
+        CRC32 crc = new CRC32();
+        crc.update(record.array(), 0, record.position());
+        record.putInt((int) crc.getValue());
+        record.flip();
+
+        long position = end;
+        try {
+            while (record.hasRemaining()) {
+                position += channel.write(record, position);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            // Whatever was written past the last record is ignored, and cut off on the next open
+            channel.truncate(end);
+            throw e;
+        }
+        index(key, end, keyBytes.length, valueLength);
+        end = position;
+    }
+
+    private void index(String key, long position, int keyLength, int valueLength) {
+        long[] previous = index.remove(key);
+        if (previous != null) {
+            liveBytes -= previous[2];
+        }
+        if (valueLength != DELETED) {
+            long recordSize = recordSize(keyLength, valueLength);
+            index.put(key, new long[]{position + HEADER_SIZE + keyLength, valueLength, recordSize});
+            liveBytes += recordSize;
+        }
+    }
+
+    /**
+     * Copies the live records to a new file once most of the file is overwritten or deleted values.
+     */
+    private void compactIfSparse() throws IOException {
+        if (end < COMPACTION_THRESHOLD || liveBytes * 2 >= end) {
+            return;
+        }
+
+        File temp = new File(file.getPath() + AtomicFileWriter.TEMP_SUFFIX);
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            FileChannel target = out.getChannel();
+            for (long[] entry : index.values()) {
+                long recordStart = entry[0] - (entry[2] - entry[1] - CHECKSUM_SIZE);
+                long position = recordStart;
+                long remaining = entry[2];
+                while (remaining > 0) {
+                    long copied = channel.transferTo(position, remaining, target);
+                    if (copied <= 0) {
+                        throw new EOFException("Could not copy record at " + position);
+                    }
+                    position += copied;
+                    remaining -= copied;
+                }
+            }
+            out.getFD().sync();
+        } catch (IOException e) {
+            temp.delete();
+            throw e;
+        }
+
+        close();
+        try {
+            if (!temp.renameTo(file)) {
+                // Windows does not rename over an existing file; the old log is kept until the new one is in place
+                File old = oldFile(file);
+                old.delete();
+                if (!file.renameTo(old)) {
+                    temp.delete();
+                    throw new IOException("Could not replace " + file.getPath());
+                }
+                if (!temp.renameTo(file)) {
+                    temp.delete();
+                    if (!old.renameTo(file)) {
+                        throw new IOException("Could not restore " + file.getPath());
+                    }
+                    throw new IOException("Could not replace " + file.getPath());
+                }
+                old.delete();
+            }
+        } finally {
+            // Without the log in place the store stays closed, so the old log is not replaced by an empty one
+            if (file.exists()) {
+                load();
+            }
+        }
+    }
+
+    private int checksum(long position, long length, ByteBuffer buffer) throws IOException {
+        CRC32 crc = new CRC32();
+        while (length > 0) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), length));
+            readFully(buffer, position);
+            crc.update(buffer.array(), 0, buffer.limit());
+            position += buffer.limit();
+            length -= buffer.limit();
+        }
+        return (int) crc.getValue();
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        ensureOpen();
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new EOFException("Unexpected end of " + file.getName());
+            }
+            position += read;
+        }
+    }
+
+    private void ensureOpen() throws IOException {
+        if (channel == null) {
+            throw new IOException(file.getName() + " is closed");
+        }
+    }
+
+    private static long recordSize(int keyLength, int valueLength) {
+        return (long) HEADER_SIZE + keyLength + Math.max(valueLength, 0) + CHECKSUM_SIZE;
+    }
+}
@@ -0,0 +1,86 @@
+package com.main.lutemon.utils;
+
+import com.main.lutemon.model.profile.Profile;
+import com.main.lutemon.model.storage.StorageSnapshot;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Where saved profiles are kept. {@link ProfileManager} reads and writes whole profiles through the
+ * backend chosen at startup with {@link ProfileManager#useBackend}. Its journal, manifest and
+ * memory-mapped stores are files in the profiles directory whichever backend is used.
+ *
+ * <p>Every backend must pass the checks in PersistenceBackendBenchmark, in the test sources, which
+ * also compares how fast they are and what a write interrupted by a crash leaves behind.
+ */
+public interface PersistenceBackend extends Closeable {
+    /**
+     * Gets the name the backend is chosen by.
+     *
+     * @return The name, such as "binary"
+     */
+    String getName();
+
+    /**
+     * Saves a profile, replacing any saved version of it.
+     *
+     * @param profile The profile; its name, dates and journal sequence are always saved
+     * @param snapshot The snapshot to save the Lutemons and totals from, or null to save those of the profile
+     * @param compression How to compress the profile, used by backends that store binary profiles
+     * @throws IOException If the profile could not be saved; the previously saved version is then kept
+     */
+    void save(Profile profile, StorageSnapshot snapshot, ProfileCompression compression) throws IOException;
+
+    /**
+     * Reads a saved profile.
+     *
+     * @param name The name of the profile
+     * @param factory Creates the Lutemons, which may defer their stats
+     * @return The profile
+     * @throws IOException If there is no such profile or it could not be read
+     */
+    Profile load(String name, ProfileJournal.LutemonFactory factory) throws IOException;
+
+    /**
+     * Checks whether a profile is saved.
+     *
+     * @param name The name of the profile
+     * @return True if the profile is saved
+     */
+    boolean exists(String name);
+
+    /**
+     * Deletes a saved profile.
+     *
+     * @param name The name of the profile
+     * @return True if the profile was deleted, false if it was not saved
+     */
+    boolean delete(String name);
+
+    /**
+     * Lists the names of the saved profiles without reading them.
+     *
+     * @return The names
+     */
+    Set<String> list();
+
+    /**
+     * Checks whether a profile is saved in a format this backend only reads, such as one written by an
+     * older version of the game or by another backend, so that it should be saved again soon.
+     *
+     * @param name The name of the profile
+     * @return True if the profile should be rewritten
+     */
+    boolean needsRewrite(String name);
+
+    /**
+     * Releases any file the backend keeps open. The backend opens it again if it is used afterwards.
+     *
+     * @throws IOException If a file could not be closed
+     */
+    @Override
+    default void close() throws IOException {
+    }
+}
@@ -0,0 +1,379 @@
+package com.main.lutemon.utils;
+
+import com.main.lutemon.model.lutemon.Lutemon;
+import com.main.lutemon.model.lutemon.LutemonType;
+import com.main.lutemon.model.profile.Profile;
+import com.main.lutemon.model.storage.StorageSnapshot;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * Compact binary encoding of a saved profile.
+ *
+ * <p>Layout, all integers as unsigned LEB128 varints unless noted:
+ * <pre>
+ * "LUTP" magic (4 bytes), format version (1 byte)
+ * schema version, {@link ProfileCompression} method (1 byte)
+ * length of the uncompressed body, only if compressed
+ * body, compressed if a method is set:
+ * profile name, creation date, last played date, journal sequence,
+ * total Lutemons created, total battles, total training sessions
+ * string table: count, then each Lutemon name once
+ * Lutemons: count, then for each one
+ *     ID as zigzag delta from the previous ID, type ordinal, name index,
+ *     experience, current health, training days, battles, wins
+ * CRC32 of everything above (4 bytes, big endian)
+ * </pre>
+ * Strings are a varint byte length followed by UTF-8. Signed values are zigzag encoded. The CRC32
+ * covers the stored bytes, so damage is found without decompressing.
+ *
+ * <p>Profiles are always written in format version 3. Older formats are still read: version 1 has
+ * neither schema version nor compression method, version 2 only the method; both have schema version 2.
+ * Profiles of an older schema are upgraded by {@link ProfileMigrations}.
+ */
+public final class ProfileBinaryCodec {
+    public static final String EXTENSION = ".lutp";
+    static final int FORMAT_VERSION = 3;
+    // Formats without a schema version, uncompressed and compressed
+    static final int LEGACY_FORMAT_VERSION = 1;
+    static final int LEGACY_COMPRESSED_FORMAT_VERSION = 2;
+    // Schema of the profiles saved in the legacy formats
+    private static final int LEGACY_SCHEMA_VERSION = 2;
+    private static final byte[] MAGIC = {'L', 'U', 'T', 'P'};
+    private static final LutemonType[] TYPES = LutemonType.values();
+
+    private ProfileBinaryCodec() {
+    }
+
+    /**
+     * Encodes a profile and its Lutemons without compression.
+     *
+     * @param profile The profile to encode
+     * @return The encoded bytes
+     */
+    public static byte[] encode(Profile profile) {
+        return encode(profile, ProfileCompression.NONE);
+    }
+
+    /**
+     * Encodes a profile and its Lutemons.
+     *
+     * @param profile The profile to encode
+     * @param compression How to compress the body
+     * @return The encoded bytes
+     */
+    public static byte[] encode(Profile profile, ProfileCompression compression) {
+        return encode(profile, profile.getTotalLutemonsCreated(), profile.getTotalBattles(),
+            profile.getTotalTrainingSessions(), SavedLutemons.of(profile.getLutemons()), compression);
+    }
+
+    /**
+     * Encodes a profile with the Lutemons and totals of a storage snapshot. Values are read straight
+     * from the snapshot, so nothing is copied and no Lutemons are created.
+     *
+     * @param profile The profile to take the name, dates and journal sequence from
+     * @param snapshot The snapshot to take the Lutemons and totals from
+     * @param compression How to compress the body
+     * @return The encoded bytes
+     */
+    public static byte[] encode(Profile profile, StorageSnapshot snapshot, ProfileCompression compression) {
+        return encode(profile, snapshot.getTotalLutemonsCreated(), snapshot.getTotalBattles(),
+            snapshot.getTotalTrainingSessions(), SavedLutemons.of(snapshot), compression);
+    }
+
+    private static byte[] encode(Profile profile, int totalLutemonsCreated, int totalBattles,
+                                 int totalTrainingSessions, SavedLutemons records, ProfileCompression compression) {
+        int count = records.size();
+        Output out = new Output(64 + count * 12);
+        out.bytes(MAGIC);
+        out.raw(FORMAT_VERSION);
+        out.unsigned(Profile.SCHEMA_VERSION);
+        out.raw(compression.getMethod());
+        int headerLength = out.size;
+        out.string(profile.getName());
+        out.signed(profile.getCreationDate().getTime());
+        out.signed(profile.getLastPlayedDate().getTime());
+        out.signed(profile.getJournalSequence());
+        out.signed(totalLutemonsCreated);
+        out.signed(totalBattles);
+        out.signed(totalTrainingSessions);
+
+        // Names repeat a lot, so each one is stored once
+        Map<String, Integer> nameIndexes = new HashMap<>();
+        List<String> names = new ArrayList<>();
+        int[] lutemonNames = new int[count];
+        for (int i = 0; i < count; i++) {
+            String name = records.lutemon(i).getName();
+            Integer index = nameIndexes.get(name);
+            if (index == null) {
+                index = names.size();
+                nameIndexes.put(name, index);
+                names.add(name);
+            }
+            lutemonNames[i] = index;
+        }
+        out.unsigned(names.size());
+        for (String name : names) {
+            out.string(name);
+        }
+
+        out.unsigned(count);
+        int previousId = 0;
+        for (int i = 0; i < count; i++) {
+            Lutemon lutemon = records.lutemon(i);
+            out.signed((long) lutemon.getId() - previousId);
+            previousId = lutemon.getId();
+            out.raw(lutemon.getType().ordinal());
+            out.unsigned(lutemonNames[i]);
+            out.signed(records.experience(i));
+            out.signed(records.currentHealth(i));
+            out.signed(records.trainingDays(i));
+            out.signed(records.battles(i));
+            out.signed(records.wins(i));
+        }
+
+        if (compression.isCompressed()) {
+            int bodyLength = out.size - headerLength;
+            byte[] body = compression.compress(out.buffer, headerLength, bodyLength);
+            out = new Output(body.length + 16);
+            out.bytes(MAGIC);
+            out.raw(FORMAT_VERSION);
+            out.unsigned(Profile.SCHEMA_VERSION);
+            out.raw(compression.getMethod());
+            out.unsigned(bodyLength);
+            out.bytes(body);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(out.buffer, 0, out.size);
+        long checksum = crc.getValue();
+        out.raw((int) (checksum >>> 24));
+        out.raw((int) (checksum >>> 16));
+        out.raw((int) (checksum >>> 8));
+        out.raw((int) checksum);
+        return Arrays.copyOf(out.buffer, out.size);
+    }
+
+    /**
+     * Decodes a profile. Lutemons are created through the factory, which may defer their stats.
+     * The profile keeps the schema version it was saved with.
+     *
+     * @param data The encoded bytes
+     * @param factory Creates the Lutemons
+     * @return The decoded profile
+     * @throws IOException If the data is damaged or written by a newer version of the game
+     */
+    public static Profile decode(byte[] data, ProfileJournal.LutemonFactory factory) throws IOException {
+        if (!isBinary(data) || data.length < MAGIC.length + 5) {
+            throw new IOException("Not a binary profile");
+        }
+        // Checked before anything is parsed, so a truncated or damaged file is rejected right away
+        if (!isIntact(data)) {
+            throw new IOException("Profile checksum mismatch");
+        }
+        int end = data.length - 4;
+
+        Input in = new Input(data, MAGIC.length, end);
+        int version = in.raw();
+        int schemaVersion = LEGACY_SCHEMA_VERSION;
+        int method = ProfileCompression.METHOD_NONE;
+        if (version == FORMAT_VERSION) {
+            schemaVersion = (int) in.unsigned();
+            method = in.raw();
+        } else if (version == LEGACY_COMPRESSED_FORMAT_VERSION) {
+            method = in.raw();
+        } else if (version != LEGACY_FORMAT_VERSION) {
+            throw new IOException("Unsupported profile format version " + version);
+        }
+        if (method != ProfileCompression.METHOD_NONE) {
+            long bodyLength = in.unsigned();
+            if (bodyLength > Integer.MAX_VALUE - 8) {
+                throw new IOException("Invalid profile length " + bodyLength);
+            }
+            byte[] body = ProfileCompression.decompress(method, data, in.position, end - in.position, (int) bodyLength);
+            in = new Input(body, 0, body.length);
+        }
+        ProfileJournal.LutemonFactory records = ProfileMigrations.reading(schemaVersion, factory);
+
+        Profile profile = new Profile(in.string());
+        profile.setSchemaVersion(schemaVersion);
+        profile.setCreationDate(new Date(in.signed()));
+        profile.setLastPlayedDate(new Date(in.signed()));
+        profile.setJournalSequence(in.signed());
+        profile.setTotalLutemonsCreated((int) in.signed());
+        profile.setTotalBattles((int) in.signed());
+        profile.setTotalTrainingSessions((int) in.signed());
+
+        String[] names = new String[in.count()];
+        for (int i = 0; i < names.length; i++) {
+            names[i] = in.string();
+        }
+
+        int count = in.count();
+        List<Lutemon> lutemons = new ArrayList<>();
+        int id = 0;
+        for (int i = 0; i < count; i++) {
+            id += (int) in.signed();
+            int type = in.raw();
+            long name = in.unsigned();
+            if (type >= TYPES.length || name >= names.length) {
+                throw new IOException("Invalid Lutemon record " + i);
+            }
+            int experience = (int) in.signed();
+            int currentHealth = (int) in.signed();
+            int trainingDays = (int) in.signed();
+            int battles = (int) in.signed();
+            int wins = (int) in.signed();
+            Lutemon lutemon = records.create(TYPES[type].name(), id, names[(int) name], experience, currentHealth,
+                trainingDays, battles, wins);
+            if (lutemon != null) {
+                lutemons.add(lutemon);
+            }
+        }
+        profile.setLutemons(lutemons);
+        return profile;
+    }
+
+    /**
+     * Checks whether data is a complete binary profile, without decoding it.
+     *
+     * @param data The data to check
+     * @return True if the data has the binary profile magic and a matching checksum
+     */
+    public static boolean isIntact(byte[] data) {
+        if (!isBinary(data) || data.length < MAGIC.length + 5) {
+            return false;
+        }
+        int end = data.length - 4;
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, end);
+        return readChecksum(data, end) == crc.getValue();
+    }
+
+    /**
+     * Checks whether data starts like a binary profile.
+     *
+     * @param data The data to check
+     * @return True if the data has the binary profile magic
+     */
+    public static boolean isBinary(byte[] data) {
+        if (data == null || data.length < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; i++) {
+            if (data[i] != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long readChecksum(byte[] data, int offset) {
+        return ((data[offset] & 0xffL) << 24) | ((data[offset + 1] & 0xffL) << 16) |
+            ((data[offset + 2] & 0xffL) << 8) | (data[offset + 3] & 0xffL);
+    }
+
+    private static final class Output {
+        byte[] buffer;
+        int size;
+
+        Output(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void raw(int value) {
+            if (size == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        void bytes(byte[] values) {
+            if (size + values.length > buffer.length) {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + values.length));
+            }
+            System.arraycopy(values, 0, buffer, size, values.length);
+            size += values.length;
+        }
+
+        void unsigned(long value) {
+            while ((value & ~0x7fL) != 0) {
+                raw((int) ((value & 0x7f) | 0x80));
+                value >>>= 7;
+            }
+            raw((int) value);
+        }
+
+        void signed(long value) {
+            unsigned((value << 1) ^ (value >> 63));
+        }
+
+        void string(String value) {
+            byte[] utf8 = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+            unsigned(utf8.length);
+            bytes(utf8);
+        }
+    }
+
+    private static final class Input {
+        private final byte[] data;
+        private final int end;
+        int position;
+
+        Input(byte[] data, int position, int end) {
+            this.data = data;
+            this.position = position;
+            this.end = end;
+        }
+
+        int raw() throws IOException {
+            if (position >= end) {
+                throw new IOException("Unexpected end of profile");
+            }
+            return data[position++] & 0xff;
+        }
+
+        long unsigned() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = raw();
+                value |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        long signed() throws IOException {
+            long value = unsigned();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        /**
+         * Reads a count or length. Every counted item takes at least a byte, so it can never exceed what is left.
+         */
+        int count() throws IOException {
+            long value = unsigned();
+            if (value > end - position) {
+                throw new IOException("Invalid count " + value);
+            }
+            return (int) value;
+        }
+
+        String string() throws IOException {
+            int length = count();
+            String value = new String(data, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,547 @@
+package com.main.lutemon.utils;
+
+import com.main.lutemon.model.lutemon.Lutemon;
+import com.main.lutemon.model.lutemon.LutemonType;
+import com.main.lutemon.model.profile.Profile;
+import com.main.lutemon.model.storage.StorageSnapshot;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * A portable archive of one or more profiles, for moving them to another device.
+ *
+ * <p>Layout: "LUTB" magic (4 bytes) and format version (1 byte), then a deflate stream of profile
+ * sections ended by a 0 byte. Each section is, with integers as LEB128 varints as in
+ * {@link ProfileBinaryCodec}:
+ * <pre>
+ * 1 (1 byte)
+ * profile name, creation date, last played date,
+ * total Lutemons created, total battles, total training sessions, Lutemon count
+ * Lutemons: for each one
+ *     ID as zigzag delta from the previous ID, type ordinal, name,
+ *     experience, current health, training days, battles, wins
+ * CRC32 of the section (4 bytes, big endian)
+ * </pre>
+ *
+ * <p>Both sides go through a buffer of {@value #BUFFER_SIZE} bytes, so a profile is written as its
+ * Lutemons are visited and read back in batches, without ever holding a whole roster or a whole
+ * bundle in memory. Names are written in full; the deflate stream takes care of repeated ones.
+ */
+public final class ProfileBundle {
+    public static final String EXTENSION = ".lutb";
+    static final int FORMAT_VERSION = 1;
+    static final int BUFFER_SIZE = 64 * 1024;
+    private static final byte[] MAGIC = {'L', 'U', 'T', 'B'};
+    private static final int END = 0;
+    private static final int PROFILE = 1;
+    private static final int MAX_STRING_LENGTH = 1 << 16;
+    private static final LutemonType[] TYPES = LutemonType.values();
+
+    private ProfileBundle() {
+    }
+
+    /**
+     * Writes profiles to a bundle one after another. A profile is started with {@link #beginProfile},
+     * followed by exactly as many {@link #lutemon} calls as it has Lutemons.
+     *
+     * <p>Write errors from {@link #lutemon} are kept and thrown by {@link #endProfile()}, so records
+     * can be written from callbacks that cannot throw.
+     */
+    public static final class Writer implements Closeable {
+        private final OutputStream out;
+        private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private final CRC32 crc = new CRC32();
+        private int size;
+        private int checked;
+        private int remaining = -1;
+        private int previousId;
+        private IOException failure;
+        private boolean finished;
+
+        /**
+         * Starts a bundle.
+         *
+         * @param destination The stream to write to, closed with the writer
+         * @throws IOException If the header could not be written
+         */
+        public Writer(OutputStream destination) throws IOException {
+            destination.write(MAGIC);
+            destination.write(FORMAT_VERSION);
+            out = new DeflaterOutputStream(destination, deflater, BUFFER_SIZE);
+        }
+
+        /**
+         * Writes a profile with its own Lutemons and totals.
+         *
+         * @param profile The profile to write
+         * @throws IOException If the profile could not be written
+         */
+        public void writeProfile(Profile profile) throws IOException {
+            writeProfile(profile, profile.getTotalLutemonsCreated(), profile.getTotalBattles(),
+                profile.getTotalTrainingSessions(), SavedLutemons.of(profile.getLutemons()));
+        }
+
+        /**
+         * Writes a profile with the Lutemons and totals of a storage snapshot, read straight from it.
+         *
+         * @param profile The profile to take the name and dates from
+         * @param snapshot The snapshot to take the Lutemons and totals from
+         * @throws IOException If the profile could not be written
+         */
+        public void writeProfile(Profile profile, StorageSnapshot snapshot) throws IOException {
+            writeProfile(profile, snapshot.getTotalLutemonsCreated(), snapshot.getTotalBattles(),
+                snapshot.getTotalTrainingSessions(), SavedLutemons.of(snapshot));
+        }
+
+        private void writeProfile(Profile profile, int totalLutemonsCreated, int totalBattles,
+                                  int totalTrainingSessions, SavedLutemons records) throws IOException {
+            int count = records.size();
+            beginProfile(profile, totalLutemonsCreated, totalBattles, totalTrainingSessions, count);
+            for (int i = 0; i < count; i++) {
+                Lutemon lutemon = records.lutemon(i);
+                lutemon(lutemon.getId(), lutemon.getType().ordinal(), lutemon.getName(), records.experience(i),
+                    records.currentHealth(i), records.trainingDays(i), records.battles(i), records.wins(i));
+            }
+            endProfile();
+        }
+
+        /**
+         * Starts a profile section.
+         *
+         * @param profile The profile to take the name and dates from; its Lutemons are not written
+         * @param totalLutemonsCreated The total number of Lutemons created
+         * @param totalBattles The total number of battles
+         * @param totalTrainingSessions The total number of training sessions
+         * @param lutemonCount The number of Lutemons that will follow
+         * @throws IOException If the section could not be written
+         */
+        public void beginProfile(Profile profile, int totalLutemonsCreated, int totalBattles,
+                                 int totalTrainingSessions, int lutemonCount) throws IOException {
+            if (remaining >= 0) {
+                throw new IllegalStateException("Profile " + profile.getName() + " started inside another profile");
+            }
+            if (lutemonCount < 0) {
+                throw new IllegalArgumentException("Lutemon count cannot be negative");
+            }
+            ensureWritable();
+            updateChecksum();
+            crc.reset();
+            raw(PROFILE);
+            string(profile.getName());
+            signed(profile.getCreationDate().getTime());
+            signed(profile.getLastPlayedDate().getTime());
+            signed(totalLutemonsCreated);
+            signed(totalBattles);
+            signed(totalTrainingSessions);
+            unsigned(lutemonCount);
+            remaining = lutemonCount;
+            previousId = 0;
+            rethrowFailure();
+        }
+
+        /**
+         * Writes the next Lutemon of the current profile.
+         *
+         * @param id The ID
+         * @param typeOrdinal The ordinal of the {@link LutemonType}
+         * @param name The name
+         * @param experience The experience
+         * @param currentHealth The current health
+         * @param trainingDays The training days
+         * @param battles The number of battles
+         * @param wins The number of wins
+         */
+        public void lutemon(int id, int typeOrdinal, String name, int experience, int currentHealth,
+                            int trainingDays, int battles, int wins) {
+            if (remaining <= 0) {
+                throw new IllegalStateException(remaining < 0 ? "No profile started" : "More Lutemons than announced");
+            }
+            remaining--;
+            if (failure != null) {
+                return;
+            }
+            try {
+                signed((long) id - previousId);
+                previousId = id;
+                raw(typeOrdinal);
+                string(name);
+                signed(experience);
+                signed(currentHealth);
+                signed(trainingDays);
+                signed(battles);
+                signed(wins);
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+
+        /**
+         * Ends the current profile section with its checksum.
+         *
+         * @throws IOException If anything in the section could not be written
+         */
+        public void endProfile() throws IOException {
+            if (remaining != 0) {
+                throw new IllegalStateException(remaining < 0 ? "No profile started" : remaining + " Lutemons missing");
+            }
+            remaining = -1;
+            rethrowFailure();
+            updateChecksum();
+            long checksum = crc.getValue();
+            raw((int) (checksum >>> 24));
+            raw((int) (checksum >>> 16));
+            raw((int) (checksum >>> 8));
+            raw((int) checksum);
+            checked = size;
+        }
+
+        /**
+         * Ends the bundle and writes everything still buffered. The writer cannot be used afterwards.
+         *
+         * @throws IOException If the bundle could not be written
+         */
+        public void finish() throws IOException {
+            if (finished) {
+                return;
+            }
+            if (remaining >= 0) {
+                throw new IllegalStateException("Profile not ended");
+            }
+            raw(END);
+            flushBuffer();
+            ((DeflaterOutputStream) out).finish();
+            out.flush();
+            finished = true;
+        }
+
+        /**
+         * Closes the stream without ending the bundle, unless {@link #finish()} was called;
+         * a bundle that was not finished is rejected when read.
+         */
+        @Override
+        public void close() throws IOException {
+            try {
+                out.close();
+            } finally {
+                deflater.end();
+            }
+        }
+
+        private void ensureWritable() {
+            if (finished) {
+                throw new IllegalStateException("Bundle already finished");
+            }
+        }
+
+        private void rethrowFailure() throws IOException {
+            if (failure != null) {
+                IOException e = failure;
+                failure = null;
+                throw e;
+            }
+        }
+
+        private void updateChecksum() {
+            crc.update(buffer, checked, size - checked);
+            checked = size;
+        }
+
+        private void flushBuffer() throws IOException {
+            updateChecksum();
+            out.write(buffer, 0, size);
+            size = 0;
+            checked = 0;
+        }
+
+        private void raw(int value) throws IOException {
+            if (size == buffer.length) {
+                flushBuffer();
+            }
+            buffer[size++] = (byte) value;
+        }
+
+        private void unsigned(long value) throws IOException {
+            while ((value & ~0x7fL) != 0) {
+                raw((int) ((value & 0x7f) | 0x80));
+                value >>>= 7;
+            }
+            raw((int) value);
+        }
+
+        private void signed(long value) throws IOException {
+            unsigned((value << 1) ^ (value >> 63));
+        }
+
+        private void string(String value) throws IOException {
+            byte[] utf8 = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+            if (utf8.length > MAX_STRING_LENGTH) {
+                throw new IllegalArgumentException("Name is too long: " + utf8.length + " bytes");
+            }
+            unsigned(utf8.length);
+            int offset = 0;
+            while (offset < utf8.length) {
+                if (size == buffer.length) {
+                    flushBuffer();
+                }
+                int length = Math.min(utf8.length - offset, buffer.length - size);
+                System.arraycopy(utf8, offset, buffer, size, length);
+                size += length;
+                offset += length;
+            }
+        }
+    }
+
+    /**
+     * Reads the profiles of a bundle one after another. {@link #nextProfile()} returns the header of the
+     * next profile, whose Lutemons are then read in batches with {@link #readLutemons} until none are
+     * left. The checksum of a profile is checked as its last Lutemon is read, so a profile is only
+     * known to be intact once every batch has been read.
+     */
+    public static final class Reader implements Closeable {
+        private final InputStream in;
+        private final Inflater inflater = new Inflater();
+        private final byte[] buffer = new byte[BUFFER_SIZE];
+        private final CRC32 crc = new CRC32();
+        private int position;
+        private int limit;
+        private int checked;
+        private int remaining = -1;
+        private int previousId;
+        private boolean ended;
+
+        /**
+         * Opens a bundle.
+         *
+         * @param source The stream to read from, closed with the reader
+         * @throws IOException If the stream is not a bundle or written by a newer version of the game
+         */
+        public Reader(InputStream source) throws IOException {
+            byte[] header = new byte[MAGIC.length + 1];
+            int read = 0;
+            while (read < header.length) {
+                int n = source.read(header, read, header.length - read);
+                if (n < 0) {
+                    throw new IOException("Not a profile bundle");
+                }
+                read += n;
+            }
+            for (int i = 0; i < MAGIC.length; i++) {
+                if (header[i] != MAGIC[i]) {
+                    throw new IOException("Not a profile bundle");
+                }
+            }
+            int version = header[MAGIC.length] & 0xff;
+            if (version > FORMAT_VERSION) {
+                throw new IOException("Unsupported bundle format version " + version);
+            }
+            in = new InflaterInputStream(source, inflater, BUFFER_SIZE);
+        }
+
+        /**
+         * Starts reading the next profile. The Lutemons of the previous one must all have been read.
+         *
+         * @return The profile with its name, dates and totals but no Lutemons, or null at the end of the bundle
+         * @throws IOException If the bundle is damaged
+         */
+        public Profile nextProfile() throws IOException {
+            if (remaining > 0) {
+                throw new IllegalStateException(remaining + " Lutemons of the previous profile not read");
+            }
+            if (ended) {
+                return null;
+            }
+            updateChecksum();
+            crc.reset();
+            int marker = raw();
+            if (marker == END) {
+                ended = true;
+                return null;
+            }
+            if (marker != PROFILE) {
+                throw new IOException("Invalid bundle section " + marker);
+            }
+
+            Profile profile = new Profile(string());
+            profile.setCreationDate(new Date(signed()));
+            profile.setLastPlayedDate(new Date(signed()));
+            profile.setTotalLutemonsCreated((int) signed());
+            profile.setTotalBattles((int) signed());
+            profile.setTotalTrainingSessions((int) signed());
+            long count = unsigned();
+            if (count > Integer.MAX_VALUE) {
+                throw new IOException("Invalid Lutemon count " + count);
+            }
+            remaining = (int) count;
+            previousId = 0;
+            if (remaining == 0) {
+                verifyChecksum();
+            }
+            return profile;
+        }
+
+        /**
+         * Gets the number of Lutemons of the current profile not read yet.
+         *
+         * @return The number of Lutemons left
+         */
+        public int getRemainingLutemons() {
+            return Math.max(remaining, 0);
+        }
+
+        /**
+         * Reads the next Lutemons of the current profile into a list.
+         *
+         * @param into The list to add the Lutemons to
+         * @param max The largest number of Lutemons to read
+         * @param factory Creates the Lutemons
+         * @return The number of Lutemons read, 0 once all of them have been read
+         * @throws IOException If the bundle is damaged
+         */
+        public int readLutemons(List<Lutemon> into, int max, ProfileJournal.LutemonFactory factory) throws IOException {
+            if (into == null || factory == null) {
+                throw new IllegalArgumentException("List and factory cannot be null");
+            }
+            return read(into, max, factory);
+        }
+
+        /**
+         * Reads past the Lutemons of the current profile that are left, checking its checksum.
+         *
+         * @throws IOException If the bundle is damaged
+         */
+        public void skipLutemons() throws IOException {
+            read(null, Integer.MAX_VALUE, null);
+        }
+
+        private int read(List<Lutemon> into, int max, ProfileJournal.LutemonFactory factory) throws IOException {
+            int count = Math.min(max, Math.max(remaining, 0));
+            for (int i = 0; i < count; i++) {
+                previousId += (int) signed();
+                int type = raw();
+                if (type >= TYPES.length) {
+                    throw new IOException("Invalid Lutemon type " + type);
+                }
+                String name = string();
+                int experience = (int) signed();
+                int currentHealth = (int) signed();
+                int trainingDays = (int) signed();
+                int battles = (int) signed();
+                int wins = (int) signed();
+                if (into != null) {
+                    into.add(factory.create(TYPES[type].name(), previousId, name, experience, currentHealth,
+                        trainingDays, battles, wins));
+                }
+            }
+            remaining -= count;
+            if (count > 0 && remaining == 0) {
+                verifyChecksum();
+            }
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                in.close();
+            } finally {
+                inflater.end();
+            }
+        }
+
+        private void verifyChecksum() throws IOException {
+            updateChecksum();
+            long actual = crc.getValue();
+            long expected = 0;
+            for (int i = 0; i < 4; i++) {
+                expected = (expected << 8) | raw();
+                // The trailer is not part of the section, also when a refill happens within it
+                checked = position;
+            }
+            if (expected != actual) {
+                throw new IOException("Bundle checksum mismatch");
+            }
+        }
+
+        private void updateChecksum() {
+            crc.update(buffer, checked, position - checked);
+            checked = position;
+        }
+
+        private void fill() throws IOException {
+            updateChecksum();
+            int n;
+            try {
+                n = in.read(buffer, 0, buffer.length);
+            } catch (EOFException e) {
+                n = -1;
+            }
+            if (n <= 0) {
+                throw new IOException("Unexpected end of bundle");
+            }
+            position = 0;
+            checked = 0;
+            limit = n;
+        }
+
+        private int raw() throws IOException {
+            if (position == limit) {
+                fill();
+            }
+            return buffer[position++] & 0xff;
+        }
+
+        private long unsigned() throws IOException {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                int b = raw();
+                value |= (long) (b & 0x7f) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IOException("Malformed varint");
+        }
+
+        private long signed() throws IOException {
+            long value = unsigned();
+            return (value >>> 1) ^ -(value & 1);
+        }
+
+        private String string() throws IOException {
+            long length = unsigned();
+            if (length > MAX_STRING_LENGTH) {
+                throw new IOException("Invalid name length " + length);
+            }
+            if (limit - position >= length) {
+                String value = new String(buffer, position, (int) length, StandardCharsets.UTF_8);
+                position += (int) length;
+                return value;
+            }
+            byte[] utf8 = new byte[(int) length];
+            int offset = 0;
+            while (offset < utf8.length) {
+                if (position == limit) {
+                    fill();
+                }
+                int n = Math.min(utf8.length - offset, limit - position);
+                System.arraycopy(buffer, position, utf8, offset, n);
+                position += n;
+                offset += n;
+            }
+            return new String(utf8, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,169 @@
+package com.main.lutemon.utils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * How the body of a binary profile is compressed when saved.
+ * Set one with {@link ProfileManager#setCompression}; profiles saved with any of them can always be read.
+ *
+ * <p>Profiles are compressed with plain Deflate at a chosen level. Earlier versions could also prime
+ * Deflate with a preset dictionary of the starter Lutemons, which saved next to nothing because saved
+ * records hold experience and stats the starters do not, so profiles are no longer written that way.
+ * Profiles written that way are still read; the dictionary is part of their format and must never change.
+ */
+public final class ProfileCompression {
+    static final int METHOD_NONE = 0;
+    static final int METHOD_DEFLATE = 1;
+    // Only read, for profiles saved by earlier versions
+    static final int METHOD_DEFLATE_DICTIONARY = 2;
+
+    /** Profiles are saved uncompressed, readable by every version of the game that reads binary profiles. */
+    public static final ProfileCompression NONE = new ProfileCompression(METHOD_NONE, Deflater.NO_COMPRESSION);
+
+    private static final byte[] DICTIONARY = createDictionary();
+
+    private final int method;
+    private final int level;
+
+    private ProfileCompression(int method, int level) {
+        this.method = method;
+        this.level = level;
+    }
+
+    /**
+     * Compresses profiles with Deflate.
+     *
+     * @param level The Deflate level, from 1 (fastest) to 9 (smallest)
+     * @return The compression
+     */
+    public static ProfileCompression deflate(int level) {
+        return new ProfileCompression(METHOD_DEFLATE, checkLevel(level));
+    }
+
+    int getMethod() {
+        return method;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public boolean isCompressed() {
+        return method != METHOD_NONE;
+    }
+
+    /**
+     * Compresses part of an array.
+     *
+     * @param data The array
+     * @param offset The start of the part to compress
+     * @param length The length of the part to compress
+     * @return The compressed bytes
+     */
+    byte[] compress(byte[] data, int offset, int length) {
+        Deflater deflater = new Deflater(level);
+        try {
+            deflater.setInput(data, offset, length);
+            deflater.finish();
+            byte[] buffer = new byte[Math.max(64, length / 2)];
+            int size = 0;
+            while (!deflater.finished()) {
+                if (size == buffer.length) {
+                    buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                }
+                size += deflater.deflate(buffer, size, buffer.length - size);
+            }
+            return Arrays.copyOf(buffer, size);
+        } finally {
+            deflater.end();
+        }
+    }
+
+    /**
+     * Decompresses bytes compressed with the given method.
+     *
+     * @param method The method the bytes were compressed with
+     * @param data The array holding the compressed bytes
+     * @param offset The start of the compressed bytes
+     * @param length The number of compressed bytes
+     * @param uncompressedLength The length of the original bytes
+     * @return The original bytes
+     * @throws IOException If the method is unknown or the bytes are damaged
+     */
+    static byte[] decompress(int method, byte[] data, int offset, int length, int uncompressedLength)
+            throws IOException {
+        if (method != METHOD_DEFLATE && method != METHOD_DEFLATE_DICTIONARY) {
+            throw new IOException("Unsupported profile compression " + method);
+        }
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data, offset, length);
+            byte[] result = new byte[uncompressedLength];
+            int size = 0;
+            while (!inflater.finished()) {
+                // One byte of room past the end, so a stream longer than recorded is caught
+                int read = size < result.length
+                    ? inflater.inflate(result, size, result.length - size) : inflater.inflate(new byte[1]);
+                if (read == 0) {
+                    if (inflater.needsDictionary() && method == METHOD_DEFLATE_DICTIONARY) {
+                        inflater.setDictionary(DICTIONARY);
+                    } else if (inflater.needsInput() || inflater.needsDictionary()) {
+                        break;
+                    }
+                }
+                size += read;
+            }
+            if (size != result.length || !inflater.finished()) {
+                throw new IOException("Compressed profile has the wrong length");
+            }
+            return result;
+        } catch (DataFormatException | IllegalArgumentException e) {
+            throw new IOException("Damaged compressed profile: " + e.getMessage());
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private static int checkLevel(int level) {
+        if (level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("Compression level must be between 1 and 9: " + level);
+        }
+        return level;
+    }
+
+    /**
+     * Builds the preset dictionary of {@link #METHOD_DEFLATE_DICTIONARY}: the string table and Lutemon
+     * records of a profile holding the five starter Lutemons, encoded as {@link ProfileBinaryCodec} does.
+     */
+    private static byte[] createDictionary() {
+        byte[] names = ("\005" + "\015White Warrior" + "\015Green Fighter" + "\014Pink Striker" +
+            "\014Orange Blade" + "\014Black Shadow").getBytes(StandardCharsets.UTF_8);
+        // Count, then ID delta, type, name index, experience, full health, training days, battles and wins
+        byte[] records = {
+            5,
+            2, 0, 0, 0, 40, 0, 0, 0,
+            2, 1, 1, 0, 38, 0, 0, 0,
+            2, 2, 2, 0, 36, 0, 0, 0,
+            2, 3, 3, 0, 34, 0, 0, 0,
+            2, 4, 4, 0, 32, 0, 0, 0,
+        };
+        byte[] dictionary = Arrays.copyOf(names, names.length + records.length);
+        System.arraycopy(records, 0, dictionary, names.length, records.length);
+        return dictionary;
+    }
+
+    @Override
+    public String toString() {
+        switch (method) {
+            case METHOD_DEFLATE:
+                return "deflate-" + level;
+            default:
+                return "none";
+        }
+    }
+}
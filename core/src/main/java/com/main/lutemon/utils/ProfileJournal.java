@@ -0,0 +1,444 @@
+package com.main.lutemon.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.main.lutemon.model.lutemon.Lutemon;
+import com.main.lutemon.model.profile.Profile;
+import com.main.lutemon.model.storage.LutemonVersion;
+import com.main.lutemon.model.storage.Storage;
+import com.main.lutemon.model.storage.StorageEvent;
+import com.main.lutemon.model.storage.StorageListener;
+import com.main.lutemon.model.storage.StorageSnapshot;
+
+import java.io.BufferedReader;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of changes made to a profile since its profile file was last written.
+ * Each save appends one record per changed Lutemon plus one for the totals, so saving costs
+ * O(changes) instead of O(roster). Records hold absolute values, which makes replaying one twice harmless.
+ * Once the journal grows past {@link #COMPACTION_THRESHOLD} bytes it is folded into the profile file.
+ *
+ * <p>Each record is one line: {@code <crc32> <sequence> <kind> <fields...>}, where kind is
+ * {@code L} for a created or changed Lutemon, {@code D} for a deleted one and {@code T} for the totals.
+ * A line whose checksum does not match ends the replay, so a crash loses at most the record being written.
+ */
+public class ProfileJournal implements StorageListener {
+    static final String JOURNAL_EXTENSION = ".journal";
+    static final String COMPACTING_EXTENSION = ".journal.compacting";
+    // Records of the last compaction, kept so the profile backup can be brought up to date
+    static final String BACKUP_EXTENSION = ".journal.bak";
+    static final long COMPACTION_THRESHOLD = 64 * 1024;
+
+    /**
+     * Creates Lutemons from the values stored in a journal record. When reading a profile file, a
+     * factory may return null to only visit the record; no Lutemon is added for it then.
+     */
+    public interface LutemonFactory {
+        Lutemon create(String type, int id, String name, int experience, int currentHealth,
+                       int trainingDays, int battles, int wins);
+    }
+
+    private final FileHandle file;
+    private final FileHandle compacting;
+    private final FileHandle backup;
+    private final Set<Integer> changed = ConcurrentHashMap.newKeySet();
+    private FileOutputStream output;
+    private long sequence;
+
+    private ProfileJournal(FileHandle directory, String profileName, long sequence) {
+        this.file = directory.child(profileName + JOURNAL_EXTENSION);
+        this.compacting = directory.child(profileName + COMPACTING_EXTENSION);
+        this.backup = directory.child(profileName + BACKUP_EXTENSION);
+        this.sequence = sequence;
+    }
+
+    /**
+     * Replays the journal of a profile onto the profile read from its file.
+     * Records already included in the profile file are skipped. When the profile was recovered from its
+     * backup, the records of the last compaction are replayed as well.
+     *
+     * @param directory The profiles directory
+     * @param profile The profile to update
+     * @param factory Creates the Lutemons described by the records
+     * @return The sequence number of the last record applied, or the profile's own if none were
+     */
+    public static long replay(FileHandle directory, Profile profile, LutemonFactory factory) {
+        Map<Integer, Lutemon> lutemons = new LinkedHashMap<>();
+        for (Lutemon lutemon : profile.getLutemons()) {
+            if (lutemon != null) {
+                lutemons.put(lutemon.getId(), lutemon);
+            }
+        }
+
+        long last = applyRecords(directory, profile, lutemons, factory, false);
+        if (last > profile.getJournalSequence()) {
+            Gdx.app.log("ProfileJournal", "Replayed journal records " + (profile.getJournalSequence() + 1) +
+                " to " + last + " for " + profile.getName());
+            profile.setLutemons(new ArrayList<>(lutemons.values()));
+        }
+        return last;
+    }
+
+    /**
+     * Reads the changes the journal of a profile makes to its file, without needing the Lutemons of the
+     * file: the last state of every Lutemon a record was written for. Totals recorded in the journal are
+     * set on the profile, as {@link #replay} does.
+     *
+     * @param directory The profiles directory
+     * @param profile The profile read from its file
+     * @param factory Creates the Lutemons described by the records
+     * @return The changed Lutemons by ID, with null for a removed one
+     */
+    public static Map<Integer, Lutemon> changes(FileHandle directory, Profile profile, LutemonFactory factory) {
+        Map<Integer, Lutemon> changes = new LinkedHashMap<>();
+        applyRecords(directory, profile, changes, factory, true);
+        return changes;
+    }
+
+    private static long applyRecords(FileHandle directory, Profile profile, Map<Integer, Lutemon> lutemons,
+                                     LutemonFactory factory, boolean keepRemovals) {
+        long last = profile.getJournalSequence();
+        for (FileHandle file : new FileHandle[] {
+                directory.child(profile.getName() + BACKUP_EXTENSION),
+                directory.child(profile.getName() + COMPACTING_EXTENSION),
+                directory.child(profile.getName() + JOURNAL_EXTENSION)}) {
+            if (!file.exists()) {
+                continue;
+            }
+            try (BufferedReader reader = file.reader(8192, "UTF-8")) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    String[] record = parse(line);
+                    if (record == null) {
+                        Gdx.app.error("ProfileJournal", "Stopping replay of " + file.name() + " at a damaged record");
+                        break;
+                    }
+                    long recordSequence = Long.parseLong(record[0]);
+                    if (recordSequence <= last) {
+                        continue;
+                    }
+                    apply(record, profile, lutemons, factory, keepRemovals);
+                    last = recordSequence;
+                }
+            } catch (IOException | RuntimeException e) {
+                Gdx.app.error("ProfileJournal", "Error replaying " + file.name() + ": " + e.getMessage());
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Opens the journal of a profile for appending and starts recording storage changes.
+     * Leftovers of an interrupted compaction are merged back in and a damaged last record is cut off.
+     *
+     * @param directory The profiles directory
+     * @param profileName The name of the profile
+     * @param sequence The sequence number of the last record already applied
+     * @return The open journal
+     */
+    public static ProfileJournal open(FileHandle directory, String profileName, long sequence) {
+        ProfileJournal journal = new ProfileJournal(directory, profileName, sequence);
+        synchronized (journal) {
+            journal.mergeCompacting();
+            journal.truncateDamagedTail();
+        }
+        Storage.getInstance().addListener(journal);
+        return journal;
+    }
+
+    /**
+     * Stops recording storage changes and closes the file.
+     */
+    public synchronized void close() {
+        Storage.getInstance().removeListener(this);
+        closeOutput();
+    }
+
+    /**
+     * Deletes the journal files of a profile.
+     *
+     * @param directory The profiles directory
+     * @param profileName The name of the profile
+     */
+    public static void delete(FileHandle directory, String profileName) {
+        directory.child(profileName + JOURNAL_EXTENSION).delete();
+        directory.child(profileName + COMPACTING_EXTENSION).delete();
+        directory.child(profileName + BACKUP_EXTENSION).delete();
+    }
+
+    @Override
+    public void onStorageChanged(List<StorageEvent> events) {
+        for (StorageEvent event : events) {
+            switch (event.getType()) {
+                case ADDED:
+                case REMOVED:
+                case STATS_CHANGED:
+                    changed.add(event.getLutemonId());
+                    break;
+                default:
+                    // Locations are not saved, and storage is only cleared while no journal is open
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Gets the number of Lutemons changed since they were last appended.
+     *
+     * @return The number of changed Lutemons
+     */
+    public int getPendingChangeCount() {
+        return changed.size();
+    }
+
+    /**
+     * Appends a record for every Lutemon changed since the last append, and one for the totals,
+     * then forces them to disk.
+     *
+     * @param profile The profile being saved, for its last played date
+     * @return The number of Lutemon records written
+     * @throws IOException If the journal could not be written
+     */
+    public int append(Profile profile) throws IOException {
+        return append(profile, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Appends records for at most the given number of Lutemons changed since the last append, and one
+     * for the totals, then forces them to disk. The other changed Lutemons are left for the next append.
+     *
+     * @param profile The profile being saved, for its last played date
+     * @param maxLutemons The largest number of Lutemon records to write
+     * @return The number of Lutemon records written
+     * @throws IOException If the journal could not be written
+     */
+    public synchronized int append(Profile profile, int maxLutemons) throws IOException {
+        // Take the IDs before the snapshot, so a change made in between is both saved and recorded again
+        List<Integer> ids = new ArrayList<>(Math.min(changed.size(), maxLutemons));
+        Iterator<Integer> pending = changed.iterator();
+        while (pending.hasNext() && ids.size() < maxLutemons) {
+            ids.add(pending.next());
+            pending.remove();
+        }
+
+        StringBuilder records = new StringBuilder();
+        try (StorageSnapshot snapshot = Storage.getInstance().snapshot()) {
+            for (int id : ids) {
+                LutemonVersion lutemon = snapshot.get(id);
+                if (lutemon == null) {
+                    record(records, "D " + id);
+                } else {
+                    Lutemon live = lutemon.getLutemon();
+                    record(records, "L " + id + " " + live.getType().name() + " " + lutemon.getExperience() + " " +
+                        lutemon.getCurrentHealth() + " " + lutemon.getTrainingDays() + " " + lutemon.getBattles() + " " +
+                        lutemon.getWins() + " " + escape(live.getName()));
+                }
+            }
+            record(records, "T " + snapshot.getTotalLutemonsCreated() + " " + snapshot.getTotalBattles() + " " +
+                snapshot.getTotalTrainingSessions() + " " + profile.getLastPlayedDate().getTime());
+        }
+
+        long length = file.exists() ? file.length() : 0;
+        try {
+            if (output == null) {
+                output = new FileOutputStream(file.file(), true);
+            }
+            output.write(records.toString().getBytes(StandardCharsets.UTF_8));
+            output.flush();
+            output.getFD().sync();
+        } catch (IOException e) {
+            // Keep the changes for the next save and cut off whatever part of them was written
+            changed.addAll(ids);
+            closeOutput();
+            try (RandomAccessFile truncate = new RandomAccessFile(file.file(), "rw")) {
+                truncate.setLength(length);
+            } catch (IOException truncateError) {
+                Gdx.app.error("ProfileJournal", "Error truncating journal: " + truncateError.getMessage());
+            }
+            throw e;
+        }
+        return ids.size();
+    }
+
+    /**
+     * Checks whether the journal has grown enough to be folded into the profile file.
+     *
+     * @return True if the journal should be compacted
+     */
+    public synchronized boolean needsCompaction() {
+        return !compacting.exists() && file.exists() && file.length() > COMPACTION_THRESHOLD;
+    }
+
+    /**
+     * Sets the current journal aside so new records go to a fresh one while the profile file is rewritten.
+     * The profile written afterwards must reflect storage as of this call or later.
+     *
+     * @return The sequence number the rewritten profile includes, or -1 if a compaction is already running
+     */
+    public synchronized long beginCompaction() {
+        if (compacting.exists()) {
+            return -1;
+        }
+        closeOutput();
+        if (file.exists()) {
+            file.moveTo(compacting);
+        }
+        return sequence;
+    }
+
+    /**
+     * Keeps the set aside journal as the backup journal once the profile file containing it was written,
+     * or puts it back in front of the current one if writing failed. Together with the profile backup,
+     * which holds everything before it, the backup journal lets a damaged profile file be recovered.
+     *
+     * @param success Whether the profile file was written
+     */
+    public synchronized void finishCompaction(boolean success) {
+        if (success) {
+            backup.delete();
+            compacting.moveTo(backup);
+        } else {
+            mergeCompacting();
+        }
+    }
+
+    private void record(StringBuilder records, String body) {
+        String line = (++sequence) + " " + body;
+        CRC32 crc = new CRC32();
+        crc.update(line.getBytes(StandardCharsets.UTF_8));
+        records.append(Long.toHexString(crc.getValue())).append(' ').append(line).append('\n');
+    }
+
+    /**
+     * Checks and splits a record line.
+     *
+     * @return The fields after the checksum, starting with the sequence number, or null if the line is damaged
+     */
+    private static String[] parse(String line) {
+        int space = line.indexOf(' ');
+        if (space <= 0) {
+            return null;
+        }
+        String body = line.substring(space + 1);
+        CRC32 crc = new CRC32();
+        crc.update(body.getBytes(StandardCharsets.UTF_8));
+        try {
+            if (Long.parseLong(line.substring(0, space), 16) != crc.getValue()) {
+                return null;
+            }
+        } catch (NumberFormatException e) {
+            return null;
+        }
+        // The name ends a Lutemon record and may itself contain spaces
+        boolean lutemonRecord = body.startsWith("L ", body.indexOf(' ') + 1);
+        return body.split(" ", lutemonRecord ? 10 : -1);
+    }
+
+    private static void apply(String[] record, Profile profile, Map<Integer, Lutemon> lutemons,
+                              LutemonFactory factory, boolean keepRemovals) {
+        switch (record[1]) {
+            case "L": {
+                int id = Integer.parseInt(record[2]);
+                lutemons.put(id, factory.create(record[3], id, unescape(record[9]),
+                    Integer.parseInt(record[4]), Integer.parseInt(record[5]), Integer.parseInt(record[6]),
+                    Integer.parseInt(record[7]), Integer.parseInt(record[8])));
+                break;
+            }
+            case "D":
+                if (keepRemovals) {
+                    lutemons.put(Integer.parseInt(record[2]), null);
+                } else {
+                    lutemons.remove(Integer.parseInt(record[2]));
+                }
+                break;
+            case "T":
+                profile.setTotalLutemonsCreated(Integer.parseInt(record[2]));
+                profile.setTotalBattles(Integer.parseInt(record[3]));
+                profile.setTotalTrainingSessions(Integer.parseInt(record[4]));
+                profile.setLastPlayedDate(new Date(Long.parseLong(record[5])));
+                break;
+            default:
+                Gdx.app.error("ProfileJournal", "Skipping unknown journal record: " + record[1]);
+                break;
+        }
+    }
+
+    /**
+     * Puts the records of an interrupted or failed compaction back in front of the current journal.
+     */
+    private void mergeCompacting() {
+        if (!compacting.exists()) {
+            return;
+        }
+        closeOutput();
+        byte[] newer = file.exists() ? file.readBytes() : new byte[0];
+        compacting.moveTo(file);
+        file.writeBytes(newer, true);
+    }
+
+    /**
+     * Cuts off a record left half written by a crash, so new records are not appended behind it.
+     */
+    private void truncateDamagedTail() {
+        if (!file.exists()) {
+            return;
+        }
+        String contents = file.readString("UTF-8");
+        int valid = 0;
+        int start = 0;
+        while (start < contents.length()) {
+            int end = contents.indexOf('\n', start);
+            if (end < 0 || parse(contents.substring(start, end)) == null) {
+                break;
+            }
+            start = end + 1;
+            valid = start;
+        }
+        if (valid < contents.length()) {
+            Gdx.app.error("ProfileJournal", "Discarding damaged end of " + file.name());
+            file.writeString(contents.substring(0, valid), false, "UTF-8");
+        }
+    }
+
+    private void closeOutput() {
+        if (output != null) {
+            try {
+                output.close();
+            } catch (IOException e) {
+                Gdx.app.error("ProfileJournal", "Error closing journal: " + e.getMessage());
+            }
+            output = null;
+        }
+    }
+
+    private static String escape(String name) {
+        return name.replace("\\", "\\\\").replace("\n", "\\n").replace("\r", "\\r");
+    }
+
+    private static String unescape(String name) {
+        StringBuilder result = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '\\' && i + 1 < name.length()) {
+                char next = name.charAt(++i);
+                result.append(next == 'n' ? '\n' : next == 'r' ? '\r' : next);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
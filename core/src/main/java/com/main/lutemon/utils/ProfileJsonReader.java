@@ -0,0 +1,412 @@
+package com.main.lutemon.utils;
+
+import com.main.lutemon.model.lutemon.Lutemon;
+import com.main.lutemon.model.profile.Profile;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Date;
+
+/**
+ * Reads a JSON profile as a stream of tokens, creating each Lutemon as soon as its element has been read.
+ * Neither the file contents nor a document tree are ever held in memory; apart from the profile being
+ * built, memory use is one read buffer and the longest token, and both are reused between reads.
+ *
+ * <p>Accepts the minimal JSON written by libGDX, where names and simple values are not quoted,
+ * as well as standard JSON. Fields other than the ones the game restores are skipped. A profile
+ * without a schema version has schema version 1; the version is expected before the Lutemons,
+ * where {@link JsonFileBackend} writes it.
+ */
+final class ProfileJsonReader {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final StringBuilder token = new StringBuilder(64);
+    private Reader reader;
+    private int position;
+    private int limit;
+
+    /**
+     * Reads a profile.
+     *
+     * @param reader The JSON to read; it is not closed
+     * @param fallbackName The name to use if the JSON has none
+     * @param factory Creates the Lutemons
+     * @return The profile
+     * @throws IOException If the JSON could not be read or is malformed
+     */
+    synchronized Profile read(Reader reader, String fallbackName, ProfileJournal.LutemonFactory factory)
+            throws IOException {
+        this.reader = reader;
+        position = 0;
+        limit = 0;
+        try {
+            return readProfile(fallbackName, factory);
+        } finally {
+            this.reader = null;
+            token.setLength(0);
+        }
+    }
+
+    private Profile readProfile(String fallbackName, ProfileJournal.LutemonFactory factory) throws IOException {
+        Profile profile = new Profile(fallbackName);
+        profile.setSchemaVersion(1);
+        expect('{');
+        while (hasNext('}')) {
+            String key = readKey();
+            switch (key) {
+                case "schemaVersion":
+                    profile.setSchemaVersion((int) readLong(1));
+                    break;
+                case "name":
+                    String name = readValue();
+                    if (name != null) {
+                        profile.setName(name);
+                    }
+                    break;
+                case "creationDate":
+                    Date creationDate = readDate();
+                    if (creationDate != null) {
+                        profile.setCreationDate(creationDate);
+                    }
+                    break;
+                case "lastPlayedDate":
+                    Date lastPlayedDate = readDate();
+                    if (lastPlayedDate != null) {
+                        profile.setLastPlayedDate(lastPlayedDate);
+                    }
+                    break;
+                case "totalLutemonsCreated":
+                    profile.setTotalLutemonsCreated((int) readLong(0));
+                    break;
+                case "totalBattles":
+                    profile.setTotalBattles((int) readLong(0));
+                    break;
+                case "totalTrainingSessions":
+                    profile.setTotalTrainingSessions((int) readLong(0));
+                    break;
+                case "journalSequence":
+                    profile.setJournalSequence(readLong(0));
+                    break;
+                case "lutemons":
+                    readLutemons(profile, ProfileMigrations.reading(profile.getSchemaVersion(), factory));
+                    break;
+                default:
+                    skipValue();
+                    break;
+            }
+        }
+        return profile;
+    }
+
+    private void readLutemons(Profile profile, ProfileJournal.LutemonFactory factory) throws IOException {
+        if (peek() != '[') {
+            skipValue();
+            return;
+        }
+        position++;
+        while (hasNext(']')) {
+            if (peek() != '{') {
+                skipValue();
+                continue;
+            }
+            position++;
+
+            String type = "WHITE";
+            String name = "Unknown";
+            int id = -1;
+            int experience = 0;
+            int currentHealth = 0;
+            int trainingDays = 0;
+            int battles = 0;
+            int wins = 0;
+            while (hasNext('}')) {
+                String key = readKey();
+                switch (key) {
+                    case "type":
+                        String savedType = readValue();
+                        type = savedType != null ? savedType : type;
+                        break;
+                    case "name":
+                        String savedName = readValue();
+                        name = savedName != null ? savedName : name;
+                        break;
+                    case "id":
+                        id = (int) readLong(-1);
+                        break;
+                    case "stats":
+                        if (peek() != '{') {
+                            skipValue();
+                            break;
+                        }
+                        position++;
+                        while (hasNext('}')) {
+                            String statKey = readKey();
+                            switch (statKey) {
+                                case "experience":
+                                    experience = (int) readLong(0);
+                                    break;
+                                case "currentHealth":
+                                    currentHealth = (int) readLong(0);
+                                    break;
+                                case "trainingDays":
+                                    trainingDays = (int) readLong(0);
+                                    break;
+                                case "battles":
+                                    battles = (int) readLong(0);
+                                    break;
+                                case "wins":
+                                    wins = (int) readLong(0);
+                                    break;
+                                default:
+                                    skipValue();
+                                    break;
+                            }
+                        }
+                        break;
+                    default:
+                        skipValue();
+                        break;
+                }
+            }
+            Lutemon lutemon = factory.create(type, id, name, experience, currentHealth, trainingDays, battles, wins);
+            if (lutemon != null) {
+                profile.getLutemons().add(lutemon);
+            }
+        }
+    }
+
+    /**
+     * Reads a timestamp. Dates written by the default serializer have no fields and are ignored.
+     */
+    private Date readDate() throws IOException {
+        String value = readValue();
+        if (value == null) {
+            return null;
+        }
+        try {
+            return new Date(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private long readLong(long defaultValue) throws IOException {
+        String value = readValue();
+        if (value == null) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            try {
+                return (long) Double.parseDouble(value);
+            } catch (NumberFormatException notNumber) {
+                throw new IOException("Invalid number: " + value);
+            }
+        }
+    }
+
+    /**
+     * Moves to the next element of the object or array being read, or past its closing bracket.
+     *
+     * @param close The closing bracket
+     * @return True if there is another element
+     */
+    private boolean hasNext(char close) throws IOException {
+        int c = peek();
+        while (c == ',') {
+            position++;
+            c = peek();
+        }
+        if (c == close) {
+            position++;
+            return false;
+        }
+        if (c < 0) {
+            throw new IOException("Unexpected end of profile");
+        }
+        return true;
+    }
+
+    private String readKey() throws IOException {
+        String key = readScalar(true);
+        expect(':');
+        return key;
+    }
+
+    /**
+     * Reads a simple value.
+     *
+     * @return The value, or null if it was null, an object or an array
+     */
+    private String readValue() throws IOException {
+        int c = peek();
+        if (c == '{' || c == '[') {
+            skipValue();
+            return null;
+        }
+        return readScalar(false);
+    }
+
+    private void skipValue() throws IOException {
+        int c = peek();
+        if (c == '{') {
+            position++;
+            while (hasNext('}')) {
+                readKey();
+                skipValue();
+            }
+        } else if (c == '[') {
+            position++;
+            while (hasNext(']')) {
+                skipValue();
+            }
+        } else {
+            readScalar(false);
+        }
+    }
+
+    /**
+     * Reads a quoted or unquoted string. An unquoted name ends at a colon; an unquoted value ends at
+     * a comma, a closing bracket or the end of the line.
+     *
+     * @param name True if a name is being read
+     * @return The string, or null for an unquoted null value
+     */
+    private String readScalar(boolean name) throws IOException {
+        int c = peek();
+        if (c < 0) {
+            throw new IOException("Unexpected end of profile");
+        }
+        token.setLength(0);
+        if (c == '"') {
+            position++;
+            readQuoted();
+            return token.toString();
+        }
+
+        while (true) {
+            c = fill() ? buffer[position] : -1;
+            if (c < 0 || c == '\n' || c == '\r'
+                || (name ? c == ':' : (c == ',' || c == '}' || c == ']'))) {
+                break;
+            }
+            position++;
+            if (c == '\\') {
+                readEscape();
+            } else {
+                token.append((char) c);
+            }
+        }
+        int length = token.length();
+        while (length > 0 && Character.isWhitespace(token.charAt(length - 1))) {
+            length--;
+        }
+        if (length == 0) {
+            throw new IOException("Expected a " + (name ? "name" : "value"));
+        }
+        token.setLength(length);
+        return !name && "null".contentEquals(token) ? null : token.toString();
+    }
+
+    private void readQuoted() throws IOException {
+        while (true) {
+            int c = next();
+            if (c == '"') {
+                return;
+            }
+            if (c == '\\') {
+                readEscape();
+            } else {
+                token.append((char) c);
+            }
+        }
+    }
+
+    /**
+     * Reads the character after a backslash. The minimal output escapes unquoted strings as well.
+     */
+    private void readEscape() throws IOException {
+        int c = next();
+        switch (c) {
+            case 'b':
+                token.append('\b');
+                break;
+            case 'f':
+                token.append('\f');
+                break;
+            case 'n':
+                token.append('\n');
+                break;
+            case 'r':
+                token.append('\r');
+                break;
+            case 't':
+                token.append('\t');
+                break;
+            case 'u':
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(next(), 16);
+                    if (digit < 0) {
+                        throw new IOException("Invalid unicode escape");
+                    }
+                    value = (value << 4) | digit;
+                }
+                token.append((char) value);
+                break;
+            default:
+                token.append((char) c);
+                break;
+        }
+    }
+
+    private void expect(char expected) throws IOException {
+        int c = peek();
+        if (c != expected) {
+            throw new IOException("Expected '" + expected + "' but found " + (c < 0 ? "end of profile" : "'" + (char) c + "'"));
+        }
+        position++;
+    }
+
+    /**
+     * Skips whitespace and returns the next character without consuming it.
+     *
+     * @return The character, or -1 at the end of the input
+     */
+    private int peek() throws IOException {
+        while (fill()) {
+            char c = buffer[position];
+            if (!Character.isWhitespace(c)) {
+                return c;
+            }
+            position++;
+        }
+        return -1;
+    }
+
+    private int next() throws IOException {
+        if (!fill()) {
+            throw new IOException("Unexpected end of profile");
+        }
+        return buffer[position++];
+    }
+
+    private boolean fill() throws IOException {
+        if (position < limit) {
+            return true;
+        }
+        position = 0;
+        limit = 0;
+        int read;
+        do {
+            read = reader.read(buffer, 0, buffer.length);
+        } while (read == 0);
+        if (read < 0) {
+            return false;
+        }
+        limit = read;
+        return true;
+    }
+}
@@ -2,7 +2,6 @@ package com.main.lutemon.utils;
 
 import com.badlogic.gdx.Gdx;
 import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.utils.Json;
 import com.main.lutemon.model.lutemon.Lutemon;
 import com.main.lutemon.model.lutemon.LutemonType;
 import com.main.lutemon.model.lutemon.WhiteLutemon;
@@ -10,30 +9,125 @@ import com.main.lutemon.model.lutemon.GreenLutemon;
 import com.main.lutemon.model.lutemon.PinkLutemon;
 import com.main.lutemon.model.lutemon.OrangeLutemon;
 import com.main.lutemon.model.lutemon.BlackLutemon;
+import com.main.lutemon.model.lutemon.stats.LutemonStats;
+import com.main.lutemon.model.lutemon.stats.LutemonStatsCodec;
+import com.main.lutemon.model.lutemon.stats.MappedStatsColumns;
+import com.main.lutemon.model.lutemon.stats.StatsColumns;
 import com.main.lutemon.model.profile.Profile;
+import com.main.lutemon.model.profile.ProfileSummary;
+import com.main.lutemon.model.storage.LutemonVersion;
 import com.main.lutemon.model.storage.Storage;
+import com.main.lutemon.model.storage.StorageEvent;
+import com.main.lutemon.model.storage.StorageSnapshot;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Manages player profiles, including saving and loading profiles.
  */
 public class ProfileManager {
     private static final String PROFILES_DIRECTORY = "profiles";
+    // Files of the memory-mapped store holding the Lutemons of very large profiles
+    private static final String RECORDS_EXTENSION = ".lutm";
+    private static final String NAMES_EXTENSION = ".lutn";
+    // Roster size from which a profile keeps its Lutemons in a memory-mapped store
+    public static final int MAPPED_STORE_THRESHOLD = 100_000;
+    // Lutemons added to storage at a time while importing a profile bundle
+    private static final int IMPORT_BATCH_SIZE = 4096;
     private static volatile ProfileManager instance;
+    // Name of the backend the instance saves profiles with, chosen with useBackend before it is created
+    private static volatile String backendName = BinaryFileBackend.NAME;
     private Profile currentProfile;
-    private final Json json;
 
-    private ProfileManager() {
-        json = new Json();
-        json.setIgnoreUnknownFields(true); // Ignore unknown fields during deserialization
+    // Where whole profiles are saved
+    private final PersistenceBackend backend;
+
+    // Records changes to the current profile between full saves
+    private ProfileJournal journal;
+
+    // Whether the current profile was upgraded from an older schema and not yet saved in full
+    private volatile boolean rewriteRequired;
+
+    // Holds the stats of the current profile's Lutemons in place of the journal, null for most profiles
+    private volatile MappedStatsColumns mappedStore;
+    // The profile being moved to a mapped store by the save thread, null if none
+    private volatile Profile convertingProfile;
+
+    // Summaries of the saved profiles, so they can be listed without reading them
+    private final ProfileManifest manifest;
+
+    // How profile files are compressed when written
+    private volatile ProfileCompression compression = ProfileCompression.NONE;
+
+    // Writes requested saves off the render thread, one at a time
+    private final ExecutorService saveExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "ProfileSaver");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final Object saveLock = new Object();
+    // Callbacks of the save waiting to start, null if there is none; later requests join it
+    private List<SaveCallback> pendingSaveCallbacks;
+    // Most changed Lutemons the save waiting to start may journal
+    private int pendingSaveLimit;
+    private Future<?> lastSave;
+
+    // Reads profiles for listings in parallel; reading is mostly waiting for storage, so a few threads
+    // help even on a single core, and more would only compete for the same disk
+    private static final int SCAN_THREADS = Math.max(2, Math.min(4, Runtime.getRuntime().availableProcessors()));
+    private final ExecutorService scanExecutor = Executors.newFixedThreadPool(SCAN_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "ProfileScanner");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Counts the storage changes that are saved, so unsaved changes can be told apart from an idle profile
+    private final AtomicLong storageChanges = new AtomicLong();
+    // Counts of storage and statistics changes included in the last save, or since the profile was loaded
+    private volatile long savedStorageChanges;
+    private volatile long savedStatisticsChanges;
 
-        // Register the Profile class with the Json serializer
-        json.setTypeName("class");
-        json.addClassTag("profile", Profile.class);
+    /**
+     * Notified on the render thread when a save requested with {@link #saveCurrentProfileAsync} is written.
+     */
+    public interface SaveCallback {
+        /**
+         * Called once the save has been written or has failed.
+         *
+         * @param success True if the profile was saved successfully
+         */
+        void onSaveComplete(boolean success);
+    }
+
+    /**
+     * Receives the summaries of the saved profiles from {@link #scanProfileSummaries} as they are read.
+     * Both methods are called on the render thread.
+     */
+    public interface ProfileScanListener {
+        /**
+         * Called for each saved profile, in the order they become available.
+         *
+         * @param summary The summary of the profile
+         */
+        void onProfileScanned(ProfileSummary summary);
+
+        /**
+         * Called once after the last profile has been delivered.
+         *
+         * @param profileCount The number of profiles delivered
+         */
+        void onScanComplete(int profileCount);
+    }
 
+    private ProfileManager() {
         // Create profiles directory if it doesn't exist
         FileHandle profilesDir = Gdx.files.local(PROFILES_DIRECTORY);
         if (!profilesDir.exists()) {
@@ -43,6 +137,19 @@ public class ProfileManager {
             Gdx.app.log("ProfileManager", "Profiles directory already exists: " + profilesDir.path());
         }
 
+        manifest = new ProfileManifest(profilesDir.child(ProfileManifest.FILE_NAME));
+        backend = createBackend(backendName, profilesDir);
+        Gdx.app.log("ProfileManager", "Persistence backend: " + backend.getName());
+
+        Storage.getInstance().addListener(events -> {
+            for (StorageEvent event : events) {
+                // Locations are not saved
+                if (event.getType() != StorageEvent.Type.MOVED) {
+                    storageChanges.incrementAndGet();
+                }
+            }
+        });
+
         // Print the absolute path to help locate the directory
         String absolutePath = profilesDir.file().getAbsolutePath();
         Gdx.app.log("ProfileManager", "ABSOLUTE PATH TO PROFILES: " + absolutePath);
@@ -60,6 +167,77 @@ public class ProfileManager {
         return instance;
     }
 
+    /**
+     * Chooses the backend profiles are saved with. The choice is made once at startup, before the first
+     * call to {@link #getInstance()}; the binary file backend is used if none is chosen.
+     * See PersistenceBackendBenchmark in the test sources for how the backends compare.
+     *
+     * @param name The name of the backend: "binary", "json" or "key-value"
+     * @throws IllegalArgumentException If there is no backend with that name
+     * @throws IllegalStateException If profiles are already being saved with another backend
+     */
+    public static void useBackend(String name) {
+        synchronized (ProfileManager.class) {
+            createBackend(name, null);
+            if (instance != null && !instance.backend.getName().equals(name)) {
+                throw new IllegalStateException("Profiles are already saved with the " +
+                    instance.backend.getName() + " backend");
+            }
+            backendName = name;
+        }
+    }
+
+    /**
+     * Creates a backend by name.
+     *
+     * @param name The name of the backend
+     * @param directory The directory the backend keeps its files in
+     * @return The backend
+     * @throws IllegalArgumentException If there is no backend with that name
+     */
+    static PersistenceBackend createBackend(String name, FileHandle directory) {
+        if (name == null) {
+            throw new IllegalArgumentException("Backend name cannot be null");
+        }
+        switch (name) {
+            case BinaryFileBackend.NAME:
+                return new BinaryFileBackend(directory);
+            case JsonFileBackend.NAME:
+                return new JsonFileBackend(directory);
+            case KeyValueBackend.NAME:
+                return new KeyValueBackend(directory);
+            default:
+                throw new IllegalArgumentException("Unknown persistence backend: " + name);
+        }
+    }
+
+    /**
+     * Gets the name of the backend profiles are saved with.
+     *
+     * @return The name, such as "binary"
+     */
+    public String getBackendName() {
+        return backend.getName();
+    }
+
+    /**
+     * Sets how profile files are compressed from the next save on. Profiles already saved are read
+     * whichever way they were compressed. See ProfileCompressionBenchmark in the test sources for the trade-offs.
+     *
+     * @param compression The compression to use
+     */
+    public void setCompression(ProfileCompression compression) {
+        if (compression == null) {
+            throw new IllegalArgumentException("Compression cannot be null");
+        }
+        this.compression = compression;
+        Gdx.app.log("ProfileManager", "Profile compression: " + compression);
+    }
+
+    public ProfileCompression getCompression() {
+        return compression;
+    }
+
     /**
      * Creates a new profile with the given name.
      *
@@ -67,10 +245,7 @@ public class ProfileManager {
      * @return The created profile
      */
     public Profile createProfile(String name) {
-        // Validate name
-        if (name == null || name.trim().isEmpty()) {
-            throw new IllegalArgumentException("Profile name cannot be empty");
-        }
+        validateProfileName(name);
 
         // Check if profile already exists
         if (profileExists(name)) {
@@ -79,6 +254,8 @@ public class ProfileManager {
 
         // Reset the game state before creating a new profile
         Gdx.app.log("ProfileManager", "Resetting game state before creating new profile");
+        saveUnsavedChanges();
+        closeProfileFiles();
 
         // Reset storage
         Storage.getInstance().clear();
@@ -94,6 +271,7 @@ public class ProfileManager {
         profile.setLastPlayedDate(new java.util.Date());
 
         currentProfile = profile;
+        rewriteRequired = false;
 
         // Set flags to indicate this is a newly created profile
         profileJustCreated = true;
@@ -101,8 +279,21 @@ public class ProfileManager {
 
         // Save profile
         boolean saved = saveProfile(profile);
+        if (saved) {
+            manifest.put(ProfileSummary.of(profile));
+        }
         Gdx.app.log("ProfileManager", "Created profile: " + name + ", saved: " + saved + ", creation time: " + profile.getCreationDate().getTime());
 
+        // Leftovers of a deleted profile with the same name must not be replayed
+        FileHandle profilesDir = Gdx.files.local(PROFILES_DIRECTORY);
+        ProfileJournal.delete(profilesDir, name);
+        profilesDir.child(name + RECORDS_EXTENSION).delete();
+        profilesDir.child(name + NAMES_EXTENSION).delete();
+        StatisticsHistory.delete(StatisticsHistory.directoryOf(profilesDir.file(), name));
+        journal = ProfileJournal.open(profilesDir, name, profile.getJournalSequence());
+        openHistory(profilesDir, name);
+        markSaved();
+
         return profile;
     }
 
@@ -113,10 +304,7 @@ public class ProfileManager {
      * @return The loaded profile
      */
     public Profile loadProfile(String name) {
-        // Validate name
-        if (name == null || name.trim().isEmpty()) {
-            throw new IllegalArgumentException("Profile name cannot be empty");
-        }
+        validateProfileName(name);
 
         // Check if profile exists
         if (!profileExists(name)) {
@@ -124,37 +312,47 @@ public class ProfileManager {
         }
 
         try {
-            // Load profile
-            FileHandle file = Gdx.files.local(PROFILES_DIRECTORY + "/" + name + ".json");
-            Gdx.app.log("ProfileManager", "Loading profile from: " + file.path());
-            String profileData = file.readString();
-            Gdx.app.log("ProfileManager", "Profile data: " + profileData);
+            // Saves of the previous profile must finish before anything is read: they may be writing
+            // the very files read below, and they must finish before it stops being current
+            saveUnsavedChanges();
+            awaitPendingSaves();
 
-            // Create profile from JSON data
-            Profile profile = createProfileFromJson(name, profileData);
+            // Load profile from the backend, in whichever format it was saved
+            Profile profile = backend.load(name, this::restoreLutemon);
 
             // Validate profile
             if (profile == null) {
                 throw new IllegalStateException("Failed to deserialize profile");
             }
+            // A profile of an older schema is upgraded once here and saved in full by its next save
+            boolean upgraded = ProfileMigrations.upgrade(profile);
+
+            // Apply the changes journaled since the profile file was last written.
+            // A profile with a memory-mapped store has no journal, its store is always current.
+            FileHandle profilesDir = Gdx.files.local(PROFILES_DIRECTORY);
+            boolean mapped = hasMappedStore(name);
+            long journalSequence = mapped ? 0 : ProfileJournal.replay(profilesDir, profile, this::restoreLutemon);
 
             Gdx.app.log("ProfileManager", "Profile loaded: " + profile.getName());
 
             // Set as current profile
             currentProfile = profile;
+            rewriteRequired = upgraded;
 
             // Set flags to indicate this is a loaded profile, not a new one
             profileJustCreated = false;
             profileJustLoaded = true;
 
-            // Only update last played date, preserve creation date
+            // Only update last played date, preserve creation date.
+            // It is persisted once the background hydration below has finished, because the
+            // Lutemons in the profile are still stubs until then.
             java.util.Date originalCreationDate = profile.getCreationDate();
             profile.updateLastPlayedDate();
             profile.setCreationDate(originalCreationDate); // Restore original creation date
-            saveProfile(profile);
 
             // Completely reset the game state before loading the profile
             Gdx.app.log("ProfileManager", "Resetting game state before loading profile");
+            closeProfileFiles();
 
             // Reset storage
             Storage.getInstance().clear();
@@ -163,9 +361,6 @@ public class ProfileManager {
             StatisticsManager statsManager = StatisticsManager.getInstance();
             statsManager.reset();
 
-            // Dump the entire profile JSON for debugging
-            Gdx.app.log("ProfileManager", "Profile JSON data: " + profileData);
-
             // Check if the profile has lutemons
             if (profile.getLutemons() != null) {
                 Gdx.app.log("ProfileManager", "Profile has lutemons list: " + (profile.getLutemons() != null));
@@ -175,42 +370,37 @@ public class ProfileManager {
             }
 
             // Load Lutemons into Storage
-            if (profile.getLutemons() != null && !profile.getLutemons().isEmpty()) {
+            boolean hydrating = false;
+            if (mapped) {
+                loadMappedStore(profile);
+
+                // Attach the Lutemons to storage off the render thread, then persist the last played date
+                hydrateInBackground(profile);
+                hydrating = true;
+            } else if (profile.getLutemons() != null && !profile.getLutemons().isEmpty()) {
                 Gdx.app.log("ProfileManager", "Loading " + profile.getLutemons().size() + " Lutemons from profile");
                 for (Lutemon lutemon : profile.getLutemons()) {
                     if (lutemon != null) {
-                        Gdx.app.log("ProfileManager", "Loading Lutemon: " + lutemon.getName() + ", Type: " + lutemon.getType());
                         Storage.getInstance().addLutemonWithoutStats(lutemon);
                     } else {
                         Gdx.app.log("ProfileManager", "Found null Lutemon in profile");
                     }
                 }
+                Gdx.app.log("ProfileManager", "Loaded " + Storage.getInstance().getAllLutemons().size() +
+                    " Lutemons into storage, stats pending: " + Storage.getInstance().getPendingHydrationCount());
 
-                // Verify lutemons were loaded correctly
-                List<Lutemon> loadedLutemons = Storage.getInstance().getAllLutemons();
-                Gdx.app.log("ProfileManager", "Verified " + loadedLutemons.size() + " Lutemons in storage after loading");
-                for (Lutemon lutemon : loadedLutemons) {
-                    Gdx.app.log("ProfileManager", "Verified Lutemon: " + lutemon.getName() + ", Type: " + lutemon.getType() + ", Location: " + Storage.getInstance().getLutemonLocation(lutemon.getId()));
-                }
+                // Apply the remaining deferred stats off the render thread, then persist the last played date
+                hydrateInBackground(profile);
+                hydrating = true;
             } else {
                 Gdx.app.log("ProfileManager", "No Lutemons to load from profile");
+            }
 
-                // Try to create default lutemons for this profile if it has none
-                if (profile.getTotalLutemonsCreated() > 0) {
-                    Gdx.app.log("ProfileManager", "Profile has totalLutemonsCreated > 0 but no lutemons list. Creating default lutemons.");
-
-                    // Create default lutemons
-                    Storage storage = Storage.getInstance();
-                    storage.addLutemonWithoutStats(new WhiteLutemon(storage.getNextId(), "White Warrior"));
-                    storage.addLutemonWithoutStats(new GreenLutemon(storage.getNextId(), "Green Fighter"));
-                    storage.addLutemonWithoutStats(new PinkLutemon(storage.getNextId(), "Pink Striker"));
-                    storage.addLutemonWithoutStats(new OrangeLutemon(storage.getNextId(), "Orange Blade"));
-                    storage.addLutemonWithoutStats(new BlackLutemon(storage.getNextId(), "Black Shadow"));
-
-                    // Save the profile with the new lutemons
-                    saveCurrentProfile();
-                }
+            // Record changes from here on, so the Lutemons just loaded are not journaled again
+            if (!mapped) {
+                journal = ProfileJournal.open(profilesDir, profile.getName(), journalSequence);
             }
+            openHistory(profilesDir, profile.getName());
 
             // Load statistics
             Gdx.app.log("ProfileManager", "Setting statistics: " +
@@ -229,6 +419,14 @@ public class ProfileManager {
                 ", Battles: " + statsManager.getTotalBattles() +
                 ", Training sessions: " + statsManager.getTotalTrainingSessions());
 
+            // Loading is not a change; changes made from here on are
+            markSaved();
+
+            // Without deferred stats there is nothing to wait for, persist the last played date right away
+            if (!hydrating) {
+                saveCurrentProfileAsync(null);
+            }
+
             return profile;
         } catch (Exception e) {
             Gdx.app.error("ProfileManager", "Error loading profile: " + e.getMessage());
@@ -237,8 +435,64 @@ public class ProfileManager {
         }
     }
 
+    /**
+     * Puts the Lutemons of a profile's memory-mapped store into storage. Their stats stay in the
+     * store and are read and written in place, so nothing has to be decoded; each Lutemon only
+     * becomes a view of its record when hydrated.
+     *
+     * @param profile The profile being loaded, whose Lutemon list is replaced with the stored Lutemons
+     * @throws java.io.IOException If the store could not be opened
+     */
+    private void loadMappedStore(Profile profile) throws java.io.IOException {
+        long start = System.currentTimeMillis();
+        MappedStatsColumns store = MappedStatsColumns.open(recordsFile(profile.getName()), namesFile(profile.getName()));
+        Storage storage = Storage.getInstance();
+        storage.setStatsColumns(store);
+        mappedStore = store;
+
+        List<Lutemon> lutemons = new ArrayList<>(store.size());
+        store.forEachRecord((slot, id, type, name) -> {
+            Lutemon lutemon = createLutemon(typeName(type), id, name);
+            lutemon.deferStats(stats -> stats.adopt(store, slot));
+            lutemons.add(lutemon);
+        });
+        for (Lutemon lutemon : lutemons) {
+            storage.addLutemonWithoutStats(lutemon);
+        }
+        profile.setLutemons(lutemons);
+        Gdx.app.log("ProfileManager", "Loaded " + lutemons.size() + " Lutemons from mapped store in " +
+            (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Applies the deferred stats of every stored Lutemon on a background thread.
+     * Lutemons needed earlier by the UI are hydrated on first access instead.
+     * Once done, the profile is saved on the render thread to record the last played date.
+     *
+     * @param profile The profile that was loaded
+     */
+    private void hydrateInBackground(final Profile profile) {
+        Thread hydrationThread = new Thread(() -> {
+            long start = System.currentTimeMillis();
+            int hydrated = Storage.getInstance().hydrateAll();
+            Gdx.app.log("ProfileManager", "Hydrated " + hydrated + " Lutemons in background in " +
+                (System.currentTimeMillis() - start) + " ms");
+
+            Gdx.app.postRunnable(() -> {
+                // Skip if another profile was loaded in the meantime
+                if (currentProfile == profile) {
+                    saveCurrentProfileAsync(null);
+                }
+            });
+        }, "LutemonHydration");
+        hydrationThread.setDaemon(true);
+        hydrationThread.start();
+    }
+
     /**
      * Saves the current profile.
+     * Changes are appended to the profile's journal, which is folded into the profile file
+     * in the background once it has grown large enough.
      *
      * @return True if the profile was saved successfully, false otherwise
      */
@@ -250,145 +504,496 @@ public class ProfileManager {
 
         // Update profile data
         currentProfile.updateLastPlayedDate();
+        convertIfLarge();
+        return writeCurrentProfile(Integer.MAX_VALUE);
+    }
 
-        // Get all lutemons from storage
-        List<Lutemon> allLutemons = Storage.getInstance().getAllLutemons();
-        Gdx.app.log("ProfileManager", "Saving " + allLutemons.size() + " Lutemons to profile");
-
-        // Create a deep copy of the lutemons to avoid reference issues
-        List<Lutemon> lutemonsCopy = new ArrayList<>();
+    /**
+     * Saves the current profile on a background thread, so the render thread never waits for the write.
+     * A save requested while another one is still waiting to start is merged into it; the merged save
+     * writes the state at the time it starts and notifies every caller.
+     *
+     * @param callback Notified on the render thread when the save is done, may be null
+     */
+    public void saveCurrentProfileAsync(SaveCallback callback) {
+        saveChangesAsync(Integer.MAX_VALUE, callback);
+    }
 
-        // Log each lutemon being saved
-        for (Lutemon lutemon : allLutemons) {
-            Gdx.app.log("ProfileManager", "Saving Lutemon: " + lutemon.getName() + ", Type: " + lutemon.getType());
+    /**
+     * Saves the changes to the current profile on a background thread like {@link #saveCurrentProfileAsync},
+     * journaling at most the given number of changed Lutemons. The others stay unsaved for a later save,
+     * so a save never grows with how busy the session has been. Saves merged together use the largest limit.
+     *
+     * @param maxLutemons The largest number of changed Lutemons to write
+     * @param callback Notified on the render thread when the save is done, may be null
+     */
+    public void saveChangesAsync(int maxLutemons, SaveCallback callback) {
+        if (maxLutemons <= 0) {
+            throw new IllegalArgumentException("Batch size must be positive");
+        }
+        if (currentProfile == null) {
+            Gdx.app.error("ProfileManager", "No current profile to save");
+            if (callback != null) {
+                callback.onSaveComplete(false);
+            }
+            return;
+        }
+        currentProfile.updateLastPlayedDate();
+        convertIfLarge();
 
-            // Create a new lutemon of the same type
-            Lutemon copy = null;
-            switch (lutemon.getType()) {
-                case WHITE:
-                    copy = new WhiteLutemon(lutemon.getId(), lutemon.getName());
-                    break;
-                case GREEN:
-                    copy = new GreenLutemon(lutemon.getId(), lutemon.getName());
-                    break;
-                case PINK:
-                    copy = new PinkLutemon(lutemon.getId(), lutemon.getName());
-                    break;
-                case ORANGE:
-                    copy = new OrangeLutemon(lutemon.getId(), lutemon.getName());
-                    break;
-                case BLACK:
-                    copy = new BlackLutemon(lutemon.getId(), lutemon.getName());
-                    break;
+        synchronized (saveLock) {
+            if (pendingSaveCallbacks != null) {
+                if (callback != null) {
+                    pendingSaveCallbacks.add(callback);
+                }
+                pendingSaveLimit = Math.max(pendingSaveLimit, maxLutemons);
+                return;
             }
+            pendingSaveCallbacks = new ArrayList<>();
+            pendingSaveLimit = maxLutemons;
+            if (callback != null) {
+                pendingSaveCallbacks.add(callback);
+            }
+            lastSave = saveExecutor.submit(this::runQueuedSave);
+        }
+    }
 
-            if (copy != null) {
-                // Copy the stats from the original lutemon
-                com.main.lutemon.model.lutemon.stats.LutemonStats originalStats = lutemon.getStats();
+    /**
+     * Moves the current profile to a memory-mapped store once it has grown large enough. The store is
+     * built on the save thread; only moving the stats into it happens on the render thread, which is
+     * the thread that changes them, and the store is then completed on the save thread again.
+     */
+    private void convertIfLarge() {
+        final Profile profile = currentProfile;
+        if (mappedStore != null || convertingProfile != null
+                || Storage.getInstance().getLutemonCount() < MAPPED_STORE_THRESHOLD) {
+            return;
+        }
+        convertingProfile = profile;
+        synchronized (saveLock) {
+            lastSave = saveExecutor.submit(() -> {
+                final MappedStatsColumns store = buildMappedStore(profile);
+                Gdx.app.postRunnable(() -> {
+                    if (store == null || currentProfile != profile || mappedStore != null) {
+                        // A store that was never marked ready is replaced by the next one
+                        if (store != null) {
+                            store.close();
+                        }
+                        convertingProfile = null;
+                        return;
+                    }
+                    final boolean columnar = Storage.getInstance().isColumnarStats();
+                    Storage.getInstance().adoptStatsColumns(store);
+                    synchronized (saveLock) {
+                        lastSave = saveExecutor.submit(() -> {
+                            if (!finishMappedStore(profile, store)) {
+                                Gdx.app.postRunnable(() -> revertMappedStore(store, columnar));
+                            }
+                            convertingProfile = null;
+                        });
+                    }
+                });
+            });
+        }
+    }
 
-                // Log the original stats
-                Gdx.app.log("ProfileManager", "Original Lutemon stats for " + lutemon.getName() +
-                          ": Experience=" + originalStats.getExperience() +
-                          ", Battles=" + originalStats.getBattles() +
-                          ", Wins=" + originalStats.getWins() +
-                          ", TrainingDays=" + originalStats.getTrainingDays());
+    /**
+     * Moves the Lutemons of the current profile into a memory-mapped store of fixed-size records.
+     * From then on stats are read and written in place in the store, saving only flushes the changed
+     * pages and rewrites a small profile file without Lutemons, and loading skips decoding and
+     * hydration. The profile's journal is no longer used. Profiles switch to a store automatically,
+     * in the background, when saved with {@value #MAPPED_STORE_THRESHOLD} or more Lutemons.
+     *
+     * @return True if the current profile uses a memory-mapped store
+     */
+    public boolean convertToMappedStore() {
+        Profile profile = currentProfile;
+        if (profile == null || mappedStore != null) {
+            return mappedStore != null;
+        }
+        // Saves already queued go to the journal, which is retired below
+        awaitPendingSaves();
+        if (mappedStore != null) {
+            return true;
+        }
 
-                // Add experience points
-                int experience = originalStats.getExperience();
-                if (experience > 0) {
-                    copy.addExperience(experience);
-                }
+        Storage storage = Storage.getInstance();
+        boolean columnar = storage.isColumnarStats();
+        MappedStatsColumns store = buildMappedStore(profile);
+        if (store == null) {
+            return false;
+        }
+        storage.adoptStatsColumns(store);
+        if (!finishMappedStore(profile, store)) {
+            revertMappedStore(store, columnar);
+            return false;
+        }
+        return true;
+    }
 
-                // Set battle stats
-                int battles = originalStats.getBattles();
-                int wins = originalStats.getWins();
-                int trainingDays = originalStats.getTrainingDays();
+    /**
+     * Creates a mapped store with a described slot for every Lutemon of a storage snapshot. The values
+     * are left for {@link Storage#adoptStatsColumns}, which copies the current ones.
+     *
+     * @param profile The profile to build the store for
+     * @return The store, not yet ready, or null if it could not be created
+     */
+    private MappedStatsColumns buildMappedStore(Profile profile) {
+        MappedStatsColumns store = null;
+        long start = System.currentTimeMillis();
+        try (StorageSnapshot snapshot = Storage.getInstance().snapshot()) {
+            store = MappedStatsColumns.create(recordsFile(profile.getName()), namesFile(profile.getName()));
+            for (LutemonVersion version : snapshot.getAll()) {
+                Lutemon lutemon = version.getLutemon();
+                int slot = store.allocate(lutemon.getId());
+                store.describe(slot, lutemon.getType().ordinal(), lutemon.getName());
+            }
+            Gdx.app.log("ProfileManager", "Built a mapped store of " + store.size() + " Lutemons for " +
+                profile.getName() + " in " + (System.currentTimeMillis() - start) + " ms");
+            return store;
+        } catch (java.io.IOException | RuntimeException e) {
+            Gdx.app.error("ProfileManager", "Error creating mapped store: " + e.getMessage());
+            if (store != null) {
+                store.close();
+            }
+            recordsFile(profile.getName()).delete();
+            namesFile(profile.getName()).delete();
+            return null;
+        }
+    }
 
-                // Log the stats we're about to copy
-                Gdx.app.log("ProfileManager", "Copying stats to Lutemon " + copy.getName() +
-                          ": Battles=" + battles +
-                          ", Wins=" + wins +
-                          ", TrainingDays=" + trainingDays);
+    /**
+     * Marks a store holding the current profile's stats ready and makes it the profile's store. The
+     * profile file then drops its Lutemons and the journal is no longer needed.
+     *
+     * @param profile The profile the store was built for
+     * @param store The store, already adopted by storage
+     * @return True if the store is in use, false if it could not be completed
+     */
+    private boolean finishMappedStore(Profile profile, MappedStatsColumns store) {
+        // Held like a save, so no save runs while the profile changes from its journal to the store
+        synchronized (this) {
+            if (currentProfile != profile) {
+                store.close();
+                return true;
+            }
+            try {
+                store.markReady();
+            } catch (java.io.IOException e) {
+                Gdx.app.error("ProfileManager", "Error completing mapped store: " + e.getMessage());
+                return false;
+            }
+            mappedStore = store;
+            Gdx.app.log("ProfileManager", "Moved " + store.size() + " Lutemons of " + profile.getName() +
+                " to a mapped store");
+
+            if (writeCurrentProfile(Integer.MAX_VALUE) && journal != null) {
+                journal.close();
+                journal = null;
+                ProfileJournal.delete(Gdx.files.local(PROFILES_DIRECTORY), profile.getName());
+            }
+            return true;
+        }
+    }
 
-                for (int i = 0; i < battles; i++) {
-                    copy.getStats().incrementBattles();
-                }
+    /**
+     * Moves the stats back out of a store that could not be completed, on the thread that changes them.
+     */
+    private void revertMappedStore(MappedStatsColumns store, boolean columnar) {
+        Storage storage = Storage.getInstance();
+        storage.setStatsColumns(null);
+        storage.setColumnarStats(columnar);
+        store.close();
+    }
 
-                for (int i = 0; i < wins; i++) {
-                    copy.getStats().incrementWins();
-                }
+    /**
+     * Checks whether the current profile has changes that are not saved yet: Lutemons added, removed or
+     * with changed stats, changed statistics totals, changed Lutemons left over by a bounded save, or
+     * statistics history events not written yet.
+     * Cheap enough to call every frame; an idle profile reports false and needs no save.
+     *
+     * @return True if the current profile should be saved
+     */
+    public boolean hasUnsavedChanges() {
+        if (currentProfile == null) {
+            return false;
+        }
+        ProfileJournal journal = this.journal;
+        StatisticsHistory history = StatisticsManager.getInstance().getHistory();
+        return storageChanges.get() != savedStorageChanges
+            || StatisticsManager.getInstance().getChangeCount() != savedStatisticsChanges
+            || (journal != null && journal.getPendingChangeCount() > 0)
+            || (history != null && history.getPendingEventCount() > 0);
+    }
 
-                for (int i = 0; i < trainingDays; i++) {
-                    copy.getStats().incrementTrainingDays();
-                }
+    /**
+     * Treats the current state as saved, for a profile that has just been created or loaded.
+     */
+    private void markSaved() {
+        savedStorageChanges = storageChanges.get();
+        savedStatisticsChanges = StatisticsManager.getInstance().getChangeCount();
+    }
+
+    /**
+     * Saves the changes to the current profile, if it has any, before another profile replaces it.
+     */
+    private void saveUnsavedChanges() {
+        if (hasUnsavedChanges()) {
+            saveCurrentProfile();
+        }
+    }
+
+    /**
+     * Waits until every save requested with {@link #saveCurrentProfileAsync} has been written.
+     * Called before the current profile is replaced or the game exits. Work queued by the saves
+     * themselves, such as the last step of a move to a mapped store, is waited for as well.
+     */
+    public void awaitPendingSaves() {
+        Future<?> waited = null;
+        while (true) {
+            Future<?> save;
+            synchronized (saveLock) {
+                save = lastSave;
+            }
+            if (save == null || save == waited) {
+                return;
+            }
+            try {
+                save.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (ExecutionException e) {
+                Gdx.app.error("ProfileManager", "Error in background save: " + e.getCause().getMessage());
+            }
+            waited = save;
+        }
+    }
 
-                // Set current health
-                copy.getStats().setCurrentHealth(originalStats.getCurrentHealth());
+    private void runQueuedSave() {
+        // Requests made from here on start a new save, since this one may already have read their changes
+        List<SaveCallback> callbacks;
+        int maxLutemons;
+        synchronized (saveLock) {
+            callbacks = pendingSaveCallbacks;
+            maxLutemons = pendingSaveLimit;
+            pendingSaveCallbacks = null;
+        }
 
-                // Verify the stats were copied correctly
-                Gdx.app.log("ProfileManager", "Verified copied stats for Lutemon " + copy.getName() +
-                          ": Battles=" + copy.getStats().getBattles() +
-                          ", Wins=" + copy.getStats().getWins() +
-                          ", TrainingDays=" + copy.getStats().getTrainingDays());
+        boolean saved;
+        try {
+            saved = writeCurrentProfile(maxLutemons);
+        } catch (RuntimeException e) {
+            Gdx.app.error("ProfileManager", "Error saving profile: " + e.getMessage());
+            saved = false;
+        }
+
+        if (!callbacks.isEmpty()) {
+            final boolean success = saved;
+            Gdx.app.postRunnable(() -> {
+                for (SaveCallback callback : callbacks) {
+                    callback.onSaveComplete(success);
+                }
+            });
+        }
+    }
 
-                lutemonsCopy.add(copy);
-                Gdx.app.log("ProfileManager", "Created copy of Lutemon: " + copy.getName() +
-                          ", Type: " + copy.getType() +
-                          ", Experience: " + copy.getExperience() +
-                          ", Attack: " + copy.getAttack() +
-                          ", Defense: " + copy.getStats().getDefense() +
-                          ", Health: " + copy.getStats().getCurrentHealth() + "/" + copy.getStats().getMaxHealth());
+    /**
+     * Writes the current profile from a storage snapshot, either to its journal or as a full save.
+     * Runs on the render thread for {@link #saveCurrentProfile} and on the save thread otherwise,
+     * never both at once.
+     *
+     * @param maxLutemons The largest number of changed Lutemons to journal
+     * @return True if the profile was saved successfully, false otherwise
+     */
+    private synchronized boolean writeCurrentProfile(int maxLutemons) {
+        // Taken before anything is read, so changes made during the save count as unsaved
+        long storageMark = storageChanges.get();
+        long statisticsMark = StatisticsManager.getInstance().getChangeCount();
+        Profile profile = this.currentProfile;
+        boolean saved = writeCurrentProfile(profile, this.journal, maxLutemons);
+        if (saved) {
+            savedStorageChanges = storageMark;
+            savedStatisticsChanges = statisticsMark;
+
+            // The totals are only counted by the statistics; the profile in use takes them when saved
+            StatisticsManager statistics = StatisticsManager.getInstance();
+            profile.setTotalLutemonsCreated(statistics.getTotalLutemonsCreated());
+            profile.setTotalBattles(statistics.getTotalBattles());
+            profile.setTotalTrainingSessions(statistics.getTotalTrainingSessions());
+        }
+        StatisticsHistory history = StatisticsManager.getInstance().getHistory();
+        if (history != null) {
+            try {
+                history.flush();
+            } catch (java.io.IOException e) {
+                Gdx.app.error("ProfileManager", "Error saving statistics history: " + e.getMessage());
             }
         }
+        return saved;
+    }
 
-        // Set lutemons in profile
-        currentProfile.setLutemons(lutemonsCopy);
-        Gdx.app.log("ProfileManager", "Set " + lutemonsCopy.size() + " Lutemons in profile");
+    private boolean writeCurrentProfile(Profile currentProfile, ProfileJournal journal, int maxLutemons) {
+        if (currentProfile == null) {
+            return false;
+        }
 
-        // Update statistics
-        StatisticsManager statsManager = StatisticsManager.getInstance();
-        currentProfile.setTotalLutemonsCreated(statsManager.getTotalLutemonsCreated());
-        currentProfile.setTotalBattles(statsManager.getTotalBattles());
-        currentProfile.setTotalTrainingSessions(statsManager.getTotalTrainingSessions());
+        MappedStatsColumns mappedStore = this.mappedStore;
+        if (mappedStore != null) {
+            return writeMappedProfile(currentProfile, mappedStore);
+        }
 
-        // Save profile
-        return saveProfile(currentProfile);
+        if (journal == null) {
+            try (StorageSnapshot snapshot = Storage.getInstance().snapshot()) {
+                boolean saved = saveProfile(createSaveHeader(currentProfile), snapshot);
+                if (saved) {
+                    manifest.put(new ProfileSummary(currentProfile.getName(), currentProfile.getCreationDate().getTime(),
+                        currentProfile.getLastPlayedDate().getTime(), Storage.getInstance().getLutemonCount(),
+                        snapshot.getTotalLutemonsCreated(), snapshot.getTotalBattles(), snapshot.getTotalTrainingSessions()));
+                }
+                return saved;
+            }
+        }
+
+        try {
+            int changed = journal.append(currentProfile, maxLutemons);
+            Gdx.app.log("ProfileManager", "Journaled " + changed + " changed Lutemons for " + currentProfile.getName());
+        } catch (java.io.IOException e) {
+            Gdx.app.error("ProfileManager", "Error writing profile journal: " + e.getMessage());
+            return false;
+        }
+        StatisticsManager statistics = StatisticsManager.getInstance();
+        manifest.put(new ProfileSummary(currentProfile.getName(), currentProfile.getCreationDate().getTime(),
+            currentProfile.getLastPlayedDate().getTime(), Storage.getInstance().getLutemonCount(),
+            statistics.getTotalLutemonsCreated(), statistics.getTotalBattles(), statistics.getTotalTrainingSessions()));
+
+        // A profile saved in a format the backend only reads, or with an older schema, is rewritten
+        // by its first compaction
+        boolean legacyFormat = rewriteRequired || backend.needsRewrite(currentProfile.getName());
+        if (journal.needsCompaction() || legacyFormat) {
+            rewriteRequired = false;
+            compactInBackground(journal, currentProfile);
+        }
+        return true;
     }
 
     /**
-     * Saves a profile.
+     * Saves a profile whose Lutemons are in a memory-mapped store: the changed pages of the store are
+     * flushed and the profile file is rewritten with the name, dates and totals only.
      *
      * @param profile The profile to save
+     * @param store The store holding its Lutemons
      * @return True if the profile was saved successfully, false otherwise
      */
-    private boolean saveProfile(Profile profile) {
+    private boolean writeMappedProfile(Profile profile, MappedStatsColumns store) {
         try {
-            // Ensure profiles directory exists
-            FileHandle profilesDir = Gdx.files.local(PROFILES_DIRECTORY);
-            if (!profilesDir.exists()) {
-                profilesDir.mkdirs();
-                Gdx.app.log("ProfileManager", "Creating profiles directory: " + profilesDir.path());
-            }
+            store.force();
+        } catch (java.io.IOException e) {
+            Gdx.app.error("ProfileManager", "Error flushing mapped store: " + e.getMessage());
+            return false;
+        }
 
-            // Log the lutemons being saved
-            if (profile.getLutemons() != null) {
-                Gdx.app.log("ProfileManager", "Saving profile with " + profile.getLutemons().size() + " lutemons");
-                for (Lutemon lutemon : profile.getLutemons()) {
-                    if (lutemon != null) {
-                        Gdx.app.log("ProfileManager", "Saving Lutemon in profile: " + lutemon.getName() +
-                            " (ID: " + lutemon.getId() + ", Type: " + lutemon.getType() + ")");
+        StatisticsManager statistics = StatisticsManager.getInstance();
+        Profile header = createSaveHeader(profile);
+        header.setTotalLutemonsCreated(statistics.getTotalLutemonsCreated());
+        header.setTotalBattles(statistics.getTotalBattles());
+        header.setTotalTrainingSessions(statistics.getTotalTrainingSessions());
+        boolean saved = saveProfile(header);
+        if (saved) {
+            manifest.put(new ProfileSummary(profile.getName(), profile.getCreationDate().getTime(),
+                profile.getLastPlayedDate().getTime(), Storage.getInstance().getLutemonCount(),
+                statistics.getTotalLutemonsCreated(), statistics.getTotalBattles(), statistics.getTotalTrainingSessions()));
+        }
+        return saved;
+    }
+
+    /**
+     * Rewrites the profile file with everything in the journal so far, on the save thread, so it is
+     * waited for like any save before the profile is closed or deleted. New changes keep going to a
+     * fresh journal in the meantime. The rewrite is held like a save and skipped if the journal was
+     * retired before it ran, since the profile file then belongs to a mapped store.
+     *
+     * @param journal The journal of the profile
+     * @param profile The profile to compact
+     */
+    private void compactInBackground(final ProfileJournal journal, final Profile profile) {
+        final long sequence = journal.beginCompaction();
+        if (sequence < 0) {
+            return;
+        }
+        // Taken after the journal was set aside, so it contains at least everything in it
+        final StorageSnapshot snapshot = Storage.getInstance().snapshot();
+
+        synchronized (saveLock) {
+            lastSave = saveExecutor.submit(() -> {
+                synchronized (ProfileManager.this) {
+                    if (mappedStore != null || ProfileManager.this.journal != journal) {
+                        // finishMappedStore deleted the journal, including the part set aside here
+                        snapshot.close();
+                        Gdx.app.log("ProfileManager", "Skipped compacting retired journal of " + profile.getName());
+                        return;
+                    }
+                    boolean saved = false;
+                    try {
+                        Profile header = createSaveHeader(profile);
+                        header.setJournalSequence(sequence);
+                        saved = saveProfile(header, snapshot);
+                    } catch (RuntimeException e) {
+                        Gdx.app.error("ProfileManager", "Error compacting profile: " + e.getMessage());
+                    } finally {
+                        snapshot.close();
+                        journal.finishCompaction(saved);
                     }
+                    Gdx.app.log("ProfileManager", "Compacted profile journal of " + profile.getName() + ": " + saved);
                 }
-            } else {
-                Gdx.app.log("ProfileManager", "Saving profile with no lutemons (null list)");
-            }
+            });
+        }
+    }
 
-            String profileData = json.toJson(profile);
-            Gdx.app.log("ProfileManager", "Profile JSON data: " + profileData);
+    /**
+     * Creates the part of a profile that is saved besides its Lutemons and totals: the name, dates
+     * and journal sequence. Saves take it from here, so the profile in use is never touched by them.
+     *
+     * @param profile The profile to copy from
+     * @return A profile without Lutemons
+     */
+    private Profile createSaveHeader(Profile profile) {
+        Profile header = new Profile(profile.getName());
+        header.setCreationDate(profile.getCreationDate());
+        header.setLastPlayedDate(profile.getLastPlayedDate());
+        header.setJournalSequence(profile.getJournalSequence());
+        header.setLutemons(new ArrayList<>());
+        return header;
+    }
 
-            FileHandle file = Gdx.files.local(PROFILES_DIRECTORY + "/" + profile.getName() + ".json");
-            Gdx.app.log("ProfileManager", "Saving profile to: " + file.path());
-            file.writeString(profileData, false);
+    /**
+     * Saves a profile with the backend. Every backend replaces the saved version atomically, so a crash
+     * while saving never leaves a truncated profile. A copy in a format the backend only reads, such as
+     * the JSON files of older versions of the game, is removed once the new one is written.
+     *
+     * @param profile The profile to save
+     * @return True if the profile was saved successfully, false otherwise
+     */
+    private boolean saveProfile(Profile profile) {
+        return saveProfile(profile, null);
+    }
+
+    /**
+     * Saves a profile with the backend, with the Lutemons and totals of a storage snapshot.
+     * They are encoded straight from the snapshot, without copying any Lutemon.
+     *
+     * @param profile The profile to save; its own Lutemons and totals are saved if there is no snapshot
+     * @param snapshot The snapshot to save the Lutemons and totals from, or null
+     * @return True if the profile was saved successfully, false otherwise
+     */
+    private boolean saveProfile(Profile profile, StorageSnapshot snapshot) {
+        try {
+            boolean migrated = backend.needsRewrite(profile.getName());
+            backend.save(profile, snapshot, compression);
+            if (migrated) {
+                Gdx.app.log("ProfileManager", "Migrated profile to the " + backend.getName() + " backend: " +
+                    profile.getName());
+            }
             Gdx.app.log("ProfileManager", "Profile saved successfully: " + profile.getName());
             return true;
         } catch (Exception e) {
@@ -398,6 +1003,297 @@ public class ProfileManager {
         }
     }
 
+    /**
+     * Reads a saved profile from the backend without loading it, upgraded to the current schema.
+     * The profile journal is not applied.
+     *
+     * @param name The name of the profile
+     * @return The profile
+     * @throws java.io.IOException If the profile could not be read
+     */
+    private Profile readProfile(String name) throws java.io.IOException {
+        Gdx.app.log("ProfileManager", "Reading profile " + name + " from the " + backend.getName() + " backend");
+        Profile profile = backend.load(name, this::restoreLutemon);
+        ProfileMigrations.upgrade(profile);
+        return profile;
+    }
+
+    /**
+     * Reads a saved profile with all of its Lutemons, without loading it: from its memory-mapped store
+     * if it has one, or else with its journaled changes applied.
+     *
+     * @param name The name of the profile
+     * @return The profile
+     * @throws java.io.IOException If the profile could not be read
+     */
+    private Profile readFullProfile(String name) throws java.io.IOException {
+        Profile profile = readProfile(name);
+        if (!hasMappedStore(name)) {
+            ProfileJournal.replay(Gdx.files.local(PROFILES_DIRECTORY), profile, this::restoreLutemon);
+            return profile;
+        }
+
+        MappedStatsColumns store = MappedStatsColumns.open(recordsFile(name), namesFile(name));
+        List<Lutemon> lutemons = new ArrayList<>(store.size());
+        try {
+            store.forEachRecord((slot, id, type, lutemonName) -> {
+                Lutemon lutemon = createLutemon(typeName(type), id, lutemonName);
+                lutemon.getStats().adopt(store, slot);
+                lutemons.add(lutemon);
+            });
+        } finally {
+            // Closed before the values are copied out, so releasing the slots leaves the records alone
+            store.close();
+        }
+        for (Lutemon lutemon : lutemons) {
+            lutemon.getStats().unbind();
+        }
+        profile.setLutemons(lutemons);
+        return profile;
+    }
+
+    private boolean hasMappedStore(String name) {
+        return MappedStatsColumns.isReady(recordsFile(name));
+    }
+
+    private File recordsFile(String name) {
+        return Gdx.files.local(PROFILES_DIRECTORY).child(name + RECORDS_EXTENSION).file();
+    }
+
+    private File namesFile(String name) {
+        return Gdx.files.local(PROFILES_DIRECTORY).child(name + NAMES_EXTENSION).file();
+    }
+
+    /**
+     * Writes every saved profile to a {@link ProfileBundle}, for moving them to another device.
+     *
+     * @param destination The bundle file to write
+     * @return True if every profile was exported, false otherwise
+     */
+    public boolean exportAllProfiles(FileHandle destination) {
+        return exportProfiles(backend.list(), destination);
+    }
+
+    /**
+     * Writes saved profiles to a {@link ProfileBundle} that {@link #importProfiles} reads back.
+     * Lutemons are streamed into the bundle as they are read, without collecting them first: those of
+     * the current profile from a storage snapshot, those of a profile with a memory-mapped store from
+     * the store, and those of any other profile from its saved data with the journaled changes applied.
+     *
+     * @param names The names of the profiles
+     * @param destination The bundle file to write
+     * @return True if every profile was exported, false otherwise; a failed export leaves no bundle behind
+     */
+    public boolean exportProfiles(java.util.Collection<String> names, FileHandle destination) {
+        for (String name : names) {
+            if (!profileExists(name)) {
+                throw new IllegalArgumentException("Profile with name '" + name + "' does not exist");
+            }
+        }
+        long start = System.currentTimeMillis();
+        try (ProfileBundle.Writer writer = new ProfileBundle.Writer(destination.write(false))) {
+            for (String name : names) {
+                writeToBundle(name, writer);
+            }
+            writer.finish();
+        } catch (java.io.IOException | RuntimeException e) {
+            Gdx.app.error("ProfileManager", "Error exporting profiles: " + e.getMessage());
+            destination.delete();
+            return false;
+        }
+        Gdx.app.log("ProfileManager", "Exported " + names.size() + " profiles to " + destination.path() + " in " +
+            (System.currentTimeMillis() - start) + " ms");
+        return true;
+    }
+
+    private void writeToBundle(String name, ProfileBundle.Writer writer) throws java.io.IOException {
+        Profile current = currentProfile;
+        if (current != null && current.getName().equals(name)) {
+            try (StorageSnapshot snapshot = Storage.getInstance().snapshot()) {
+                writer.writeProfile(current, snapshot);
+            }
+            return;
+        }
+        if (!hasMappedStore(name)) {
+            writeSavedToBundle(name, writer);
+            return;
+        }
+
+        Profile header = readProfile(name);
+        MappedStatsColumns store = MappedStatsColumns.open(recordsFile(name), namesFile(name));
+        try {
+            writer.beginProfile(header, header.getTotalLutemonsCreated(), header.getTotalBattles(),
+                header.getTotalTrainingSessions(), store.size());
+            store.forEachRecord((slot, id, type, lutemonName) -> writer.lutemon(id, type, lutemonName,
+                store.get(StatsColumns.EXPERIENCE, slot), store.get(StatsColumns.CURRENT_HEALTH, slot),
+                store.get(StatsColumns.TRAINING_DAYS, slot), store.get(StatsColumns.BATTLES, slot),
+                store.get(StatsColumns.WINS, slot)));
+            writer.endProfile();
+        } finally {
+            store.close();
+        }
+    }
+
+    /**
+     * Streams a profile saved by the backend into a bundle with its journal replayed. The saved data is
+     * visited three times, creating no Lutemons: for the header, to count the records that are left once
+     * the journaled changes are applied, and to write them. Only the journaled Lutemons are created.
+     */
+    private void writeSavedToBundle(String name, ProfileBundle.Writer writer) throws java.io.IOException {
+        int[] saved = new int[1];
+        Profile header = backend.load(name, (type, id, lutemonName, experience, currentHealth, trainingDays,
+                                             battles, wins) -> {
+            saved[0]++;
+            return null;
+        });
+        if (saved[0] == 0) {
+            // Nothing to stream, and migrating an old empty profile may add its starter Lutemons
+            writer.writeProfile(readFullProfile(name));
+            return;
+        }
+        java.util.Map<Integer, Lutemon> changes =
+            ProfileJournal.changes(Gdx.files.local(PROFILES_DIRECTORY), header, this::restoreLutemon);
+
+        // Changed Lutemons that are also saved are written in their place, the others after the saved ones
+        java.util.Set<Integer> changedSaved = new java.util.HashSet<>();
+        int[] removed = new int[1];
+        backend.load(name, (type, id, lutemonName, experience, currentHealth, trainingDays, battles, wins) -> {
+            if (changes.containsKey(id) && changedSaved.add(id) && changes.get(id) == null) {
+                removed[0]++;
+            }
+            return null;
+        });
+        int added = 0;
+        for (java.util.Map.Entry<Integer, Lutemon> change : changes.entrySet()) {
+            if (change.getValue() != null && !changedSaved.contains(change.getKey())) {
+                added++;
+            }
+        }
+
+        writer.beginProfile(header, header.getTotalLutemonsCreated(), header.getTotalBattles(),
+            header.getTotalTrainingSessions(), saved[0] - removed[0] + added);
+        backend.load(name, (type, id, lutemonName, experience, currentHealth, trainingDays, battles, wins) -> {
+            if (!changes.containsKey(id)) {
+                writer.lutemon(id, typeOrdinal(type), lutemonName, experience, currentHealth, trainingDays,
+                    battles, wins);
+            } else if (changes.get(id) != null) {
+                writeToBundle(changes.get(id), writer);
+            }
+            return null;
+        });
+        for (java.util.Map.Entry<Integer, Lutemon> change : changes.entrySet()) {
+            if (change.getValue() != null && !changedSaved.contains(change.getKey())) {
+                writeToBundle(change.getValue(), writer);
+            }
+        }
+        writer.endProfile();
+    }
+
+    private static void writeToBundle(Lutemon lutemon, ProfileBundle.Writer writer) {
+        LutemonStats stats = lutemon.getStats();
+        writer.lutemon(lutemon.getId(), lutemon.getType().ordinal(), lutemon.getName(), stats.getExperience(),
+            stats.getCurrentHealth(), stats.getTrainingDays(), stats.getBattles(), stats.getWins());
+    }
+
+    /**
+     * Adds the profiles of a bundle written by {@link #exportProfiles}. Each profile is read straight
+     * into storage, {@value #IMPORT_BATCH_SIZE} Lutemons at a time, and saved once all of it has been read
+     * and found intact, so neither the bundle nor a whole roster is ever held besides storage itself.
+     * Profiles named like an existing profile are skipped. A damaged profile is not saved and ends the
+     * import, since nothing after it can be trusted. The current profile, if any, is loaded again at the end.
+     *
+     * @param source The bundle file
+     * @return The names of the imported profiles
+     */
+    public List<String> importProfiles(FileHandle source) {
+        String previous = currentProfile != null ? currentProfile.getName() : null;
+        saveUnsavedChanges();
+        closeProfileFiles();
+        currentProfile = null;
+
+        List<String> imported = new ArrayList<>();
+        long start = System.currentTimeMillis();
+        try (ProfileBundle.Reader reader = new ProfileBundle.Reader(source.read())) {
+            List<Lutemon> batch = new ArrayList<>(IMPORT_BATCH_SIZE);
+            Profile profile;
+            while ((profile = reader.nextProfile()) != null) {
+                if (!isValidProfileName(profile.getName())) {
+                    Gdx.app.error("ProfileManager", "Skipping imported profile with invalid name '" + profile.getName() + "'");
+                    reader.skipLutemons();
+                } else if (profileExists(profile.getName())) {
+                    Gdx.app.log("ProfileManager", "Skipping imported profile " + profile.getName() + ", it already exists");
+                    reader.skipLutemons();
+                } else if (importProfile(profile, reader, batch)) {
+                    imported.add(profile.getName());
+                }
+            }
+        } catch (java.io.IOException | RuntimeException e) {
+            Gdx.app.error("ProfileManager", "Error importing profiles: " + e.getMessage());
+        } finally {
+            closeProfileFiles();
+            currentProfile = null;
+            Storage.getInstance().clear();
+            StatisticsManager.getInstance().reset();
+            markSaved();
+        }
+        Gdx.app.log("ProfileManager", "Imported " + imported.size() + " profiles from " + source.path() + " in " +
+            (System.currentTimeMillis() - start) + " ms");
+
+        if (previous != null) {
+            try {
+                loadProfile(previous);
+            } catch (IllegalArgumentException e) {
+                Gdx.app.error("ProfileManager", "Error reloading profile after import: " + e.getMessage());
+            }
+        }
+        return imported;
+    }
+
+    /**
+     * Reads the Lutemons of one profile of a bundle into storage in batches and saves the profile.
+     * Storage then holds the imported profile; nothing is saved if it turns out to be damaged.
+     *
+     * @param profile The profile as read from the bundle, without Lutemons
+     * @param reader The bundle, positioned at the profile's Lutemons
+     * @param batch An empty list to read each batch into
+     * @return True if the profile was saved, false otherwise
+     * @throws java.io.IOException If the bundle is damaged
+     */
+    private boolean importProfile(Profile profile, ProfileBundle.Reader reader, List<Lutemon> batch)
+            throws java.io.IOException {
+        String name = profile.getName();
+        int count = reader.getRemainingLutemons();
+        Storage storage = Storage.getInstance();
+        storage.clear();
+        StatisticsManager statistics = StatisticsManager.getInstance();
+        statistics.reset();
+        try {
+            while (reader.readLutemons(batch, IMPORT_BATCH_SIZE, this::restoreLutemon) > 0) {
+                storage.addLutemonsWithoutStats(batch);
+                batch.clear();
+            }
+        } finally {
+            batch.clear();
+        }
+        statistics.setTotalLutemonsCreated(profile.getTotalLutemonsCreated());
+        statistics.setTotalBattles(profile.getTotalBattles());
+        statistics.setTotalTrainingSessions(profile.getTotalTrainingSessions());
+
+        // Leftovers of a deleted profile with the same name must not be replayed
+        FileHandle profilesDir = Gdx.files.local(PROFILES_DIRECTORY);
+        ProfileJournal.delete(profilesDir, name);
+        profilesDir.child(name + RECORDS_EXTENSION).delete();
+        profilesDir.child(name + NAMES_EXTENSION).delete();
+        StatisticsHistory.delete(StatisticsHistory.directoryOf(profilesDir.file(), name));
+
+        currentProfile = profile;
+        boolean saved = count >= MAPPED_STORE_THRESHOLD ? convertToMappedStore() : writeCurrentProfile(Integer.MAX_VALUE);
+        closeProfileFiles();
+        currentProfile = null;
+        Gdx.app.log("ProfileManager", "Imported profile " + name + " with " + count + " Lutemons, saved: " + saved);
+        return saved;
+    }
+
     /**
      * Checks if a profile with the given name exists.
      *
@@ -405,14 +1301,13 @@ public class ProfileManager {
      * @return True if the profile exists, false otherwise
      */
     public boolean profileExists(String name) {
-        FileHandle file = Gdx.files.local(PROFILES_DIRECTORY + "/" + name + ".json");
-        boolean exists = file.exists();
-        Gdx.app.log("ProfileManager", "Checking if profile exists: " + file.path() + ", exists: " + exists);
+        boolean exists = backend.exists(name);
+        Gdx.app.log("ProfileManager", "Checking if profile exists: " + name + ", exists: " + exists);
         return exists;
     }
 
     /**
-     * Gets a list of all available profiles.
+     * Gets a list of all available profiles. The profiles are read in parallel on the scanning threads.
      *
      * @return A list of all available profiles
      */
@@ -421,43 +1316,148 @@ public class ProfileManager {
 
         FileHandle profilesDir = Gdx.files.local(PROFILES_DIRECTORY);
         Gdx.app.log("ProfileManager", "Looking for profiles in directory: " + profilesDir.path());
+        if (!profilesDir.isDirectory()) {
+            Gdx.app.error("ProfileManager", "Profiles directory does not exist");
+            return profiles;
+        }
 
-        if (profilesDir.exists()) {
-            Gdx.app.log("ProfileManager", "Profiles directory exists");
-            if (profilesDir.isDirectory()) {
-                Gdx.app.log("ProfileManager", "Profiles directory is a directory");
-                FileHandle[] files = profilesDir.list(".json");
-                Gdx.app.log("ProfileManager", "Found " + files.length + " profile files");
+        java.util.Set<String> names = backend.list();
+        Gdx.app.log("ProfileManager", "Found " + names.size() + " profile files");
+        List<Future<Profile>> reads = new ArrayList<>(names.size());
+        for (String name : names) {
+            reads.add(scanExecutor.submit(() -> readFullProfile(name)));
+        }
 
-                for (FileHandle file : files) {
-                    Gdx.app.log("ProfileManager", "Processing profile file: " + file.name());
-                    try {
-                        String profileData = file.readString();
-                        Gdx.app.log("ProfileManager", "Profile data: " + profileData);
-
-                        // Create a new profile manually from the JSON data
-                        String fileName = file.nameWithoutExtension();
-                        Profile profile = createProfileFromJson(fileName, profileData);
-
-                        if (profile != null) {
-                            profiles.add(profile);
-                            Gdx.app.log("ProfileManager", "Successfully loaded profile: " + profile.getName());
-                        } else {
-                            Gdx.app.error("ProfileManager", "Failed to create profile from file: " + file.name());
-                        }
-                    } catch (Exception e) {
-                        Gdx.app.error("ProfileManager", "Error loading profile from file: " + file.name() + " - " + e.getMessage());
-                        e.printStackTrace();
-                    }
-                }
-            } else {
-                Gdx.app.error("ProfileManager", "Profiles directory is not a directory");
+        // Collected in listing order, whichever read finishes first
+        java.util.Iterator<String> pendingNames = names.iterator();
+        for (Future<Profile> read : reads) {
+            String name = pendingNames.next();
+            try {
+                profiles.add(read.get());
+                Gdx.app.log("ProfileManager", "Successfully loaded profile: " + name);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (ExecutionException e) {
+                Gdx.app.error("ProfileManager", "Error loading profile from file: " + name + " - " + e.getCause().getMessage());
             }
-        } else {
+        }
+        return profiles;
+    }
+
+    /**
+     * Gets the summaries of all available profiles from the profile manifest.
+     * Only profiles missing from the manifest are read, in parallel, so this is cheap however many
+     * profiles there are. {@link #scanProfileSummaries} gets the same summaries without waiting for them.
+     *
+     * @return The summaries of all available profiles
+     */
+    public List<ProfileSummary> getProfileSummaries() {
+        FileHandle profilesDir = Gdx.files.local(PROFILES_DIRECTORY);
+        if (!profilesDir.isDirectory()) {
             Gdx.app.error("ProfileManager", "Profiles directory does not exist");
+            return new ArrayList<>();
         }
 
-        return profiles;
+        java.util.Set<String> names = backend.list();
+        java.util.Map<String, ProfileSummary> known = manifest.known(names);
+        java.util.Map<String, Future<ProfileSummary>> reads = new java.util.HashMap<>();
+        for (String name : names) {
+            if (!known.containsKey(name)) {
+                reads.put(name, scanExecutor.submit(() -> summarize(name)));
+            }
+        }
+
+        List<ProfileSummary> summaries = new ArrayList<>(names.size());
+        List<ProfileSummary> added = new ArrayList<>(reads.size());
+        for (String name : names) {
+            ProfileSummary summary = known.get(name);
+            if (summary == null) {
+                try {
+                    summary = reads.get(name).get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (ExecutionException e) {
+                    summary = null;
+                }
+                if (summary == null) {
+                    continue;
+                }
+                added.add(summary);
+            }
+            summaries.add(summary);
+        }
+        manifest.putAll(added);
+        return summaries;
+    }
+
+    /**
+     * Lists the summaries of all available profiles without blocking the caller. Summaries in the
+     * profile manifest are delivered first; profiles missing from it are read in parallel on a few
+     * scanning threads and each is delivered as soon as it has been read.
+     *
+     * @param listener Receives the summaries on the render thread
+     */
+    public void scanProfileSummaries(final ProfileScanListener listener) {
+        scanExecutor.execute(() -> {
+            FileHandle profilesDir = Gdx.files.local(PROFILES_DIRECTORY);
+            java.util.Set<String> names = profilesDir.isDirectory()
+                ? backend.list() : java.util.Collections.<String>emptySet();
+            java.util.Map<String, ProfileSummary> known = manifest.known(names);
+            List<String> missing = new ArrayList<>();
+            for (String name : names) {
+                if (!known.containsKey(name)) {
+                    missing.add(name);
+                }
+            }
+
+            Gdx.app.postRunnable(() -> {
+                for (ProfileSummary summary : known.values()) {
+                    listener.onProfileScanned(summary);
+                }
+                if (missing.isEmpty()) {
+                    listener.onScanComplete(known.size());
+                }
+            });
+            if (missing.isEmpty()) {
+                return;
+            }
+
+            AtomicInteger remaining = new AtomicInteger(missing.size());
+            AtomicInteger found = new AtomicInteger(known.size());
+            List<ProfileSummary> added = java.util.Collections.synchronizedList(new ArrayList<>());
+            for (String name : missing) {
+                scanExecutor.execute(() -> {
+                    ProfileSummary summary = summarize(name);
+                    if (summary != null) {
+                        added.add(summary);
+                        found.incrementAndGet();
+                        Gdx.app.postRunnable(() -> listener.onProfileScanned(summary));
+                    }
+                    if (remaining.decrementAndGet() == 0) {
+                        manifest.putAll(added);
+                        int count = found.get();
+                        Gdx.app.postRunnable(() -> listener.onScanComplete(count));
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Reads a profile to summarize it.
+     *
+     * @param name The name of the profile
+     * @return The summary, or null if the profile could not be read
+     */
+    private ProfileSummary summarize(String name) {
+        try {
+            return ProfileSummary.of(readFullProfile(name));
+        } catch (Exception e) {
+            Gdx.app.error("ProfileManager", "Error reading profile " + name + ": " + e.getMessage());
+            return null;
+        }
     }
 
     /**
@@ -467,30 +1467,78 @@ public class ProfileManager {
      * @return True if the profile was deleted successfully, false otherwise
      */
     public boolean deleteProfile(String name) {
-        // Validate name
-        if (name == null || name.trim().isEmpty()) {
-            throw new IllegalArgumentException("Profile name cannot be empty");
-        }
+        validateProfileName(name);
 
         // Check if profile exists
         if (!profileExists(name)) {
             throw new IllegalArgumentException("Profile with name '" + name + "' does not exist");
         }
 
-        // Delete profile
-        FileHandle file = Gdx.files.local(PROFILES_DIRECTORY + "/" + name + ".json");
-        Gdx.app.log("ProfileManager", "Deleting profile: " + file.path());
-        boolean success = file.delete();
+        // Stop using the profile first, so no save recreates it and its mapped files can be deleted
+        if (currentProfile != null && currentProfile.getName().equals(name)) {
+            closeProfileFiles();
+            currentProfile = null;
+        } else {
+            // A compaction of the profile may still be writing its files
+            awaitPendingSaves();
+        }
+
+        // Delete profile and the files kept beside it
+        FileHandle profilesDir = Gdx.files.local(PROFILES_DIRECTORY);
+        Gdx.app.log("ProfileManager", "Deleting profile: " + name);
+        boolean success = backend.delete(name);
         Gdx.app.log("ProfileManager", "Profile deleted: " + success);
 
-        // If the deleted profile was the current profile, set current profile to null
-        if (success && currentProfile != null && currentProfile.getName().equals(name)) {
-            currentProfile = null;
+        if (success) {
+            ProfileJournal.delete(profilesDir, name);
+            profilesDir.child(name + RECORDS_EXTENSION).delete();
+            profilesDir.child(name + NAMES_EXTENSION).delete();
+            StatisticsHistory.delete(StatisticsHistory.directoryOf(profilesDir.file(), name));
+            manifest.remove(name);
         }
 
         return success;
     }
 
+    private void closeProfileFiles() {
+        // A save still waiting would otherwise write the next profile's state to this one
+        awaitPendingSaves();
+        if (journal != null) {
+            journal.close();
+            journal = null;
+        }
+        MappedStatsColumns store = mappedStore;
+        if (store != null) {
+            // Closed first, so moving the stats out of it below leaves the records alone
+            store.close();
+            mappedStore = null;
+            Storage.getInstance().setStatsColumns(null);
+        }
+        StatisticsManager statistics = StatisticsManager.getInstance();
+        StatisticsHistory history = statistics.getHistory();
+        if (history != null) {
+            statistics.setHistory(null);
+            try {
+                history.close();
+            } catch (java.io.IOException e) {
+                Gdx.app.error("ProfileManager", "Error closing statistics history: " + e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Opens the statistics history of the current profile. The profile works without one if it cannot
+     * be opened, its events are then not recorded.
+     */
+    private void openHistory(FileHandle profilesDir, String name) {
+        try {
+            StatisticsManager.getInstance().setHistory(
+                StatisticsHistory.open(StatisticsHistory.directoryOf(profilesDir.file(), name)));
+        } catch (java.io.IOException e) {
+            Gdx.app.error("ProfileManager", "Error opening statistics history of " + name + ": " + e.getMessage());
+        }
+    }
+
     /**
      * Gets the current profile.
      *
@@ -546,245 +1594,106 @@ public class ProfileManager {
     }
 
     /**
-     * Creates a profile from JSON data.
+     * Creates a loaded Lutemon whose saved stats are applied on first access.
      *
-     * @param fileName The name of the file (used as fallback for profile name)
-     * @param jsonData The JSON data
-     * @return The created profile, or null if creation failed
+     * @param type The name of the {@link LutemonType}
+     * @param id The saved ID
+     * @param name The saved name
+     * @param experience The saved experience
+     * @param currentHealth The saved current health, or 0 to keep full health
+     * @param trainingDays The saved number of training days
+     * @param battles The saved number of battles
+     * @param wins The saved number of wins
+     * @return The Lutemon
      */
-    private Profile createProfileFromJson(String fileName, String jsonData) {
-        try {
-            // Create a new profile with the file name
-            Profile profile = new Profile(fileName);
-
-            // Parse the JSON data
-            com.badlogic.gdx.utils.JsonValue jsonValue = new com.badlogic.gdx.utils.JsonReader().parse(jsonData);
+    Lutemon restoreLutemon(String type, int id, String name, int experience, int currentHealth,
+                                   int trainingDays, int battles, int wins) {
+        Lutemon lutemon = createLutemon(type, id, name);
 
-            // Extract profile data
-            if (jsonValue.has("name")) {
-                profile.setName(jsonValue.getString("name"));
-            }
+        // Apply the stats on first access instead of replaying them now
+        if (experience > 0 || battles > 0 || wins > 0 || trainingDays > 0 || currentHealth > 0) {
+            lutemon.deferStats(stats -> LutemonStatsCodec.restore(stats, experience, currentHealth, trainingDays, battles, wins));
+        }
+        return lutemon;
+    }
 
-            // Extract dates if available
-            if (jsonValue.has("creationDate")) {
-                try {
-                    long timestamp = Long.parseLong(jsonValue.getString("creationDate"));
-                    profile.setCreationDate(new java.util.Date(timestamp));
-                } catch (Exception e) {
-                    Gdx.app.error("ProfileManager", "Error parsing creation date: " + e.getMessage());
-                }
-            }
+    /**
+     * Creates a Lutemon of a saved type with its base stats. Expects the current upper-case type names,
+     * which saves of older schema versions have once migrated; any other name is logged and gives a
+     * White Lutemon.
+     *
+     * @param type The saved type name, such as "WHITE"
+     * @param id The saved ID
+     * @param name The saved name
+     * @return The Lutemon
+     */
+    private Lutemon createLutemon(String type, int id, String name) {
+        // Get a temporary ID for the Lutemon
+        // The actual ID will be assigned when added to storage
+        int tempId = id >= 0 ? id : 0;
+
+        Lutemon lutemon;
+        switch (type) {
+            case "WHITE":
+                lutemon = new WhiteLutemon(tempId, name);
+                break;
+            case "GREEN":
+                lutemon = new GreenLutemon(tempId, name);
+                break;
+            case "PINK":
+                lutemon = new PinkLutemon(tempId, name);
+                break;
+            case "ORANGE":
+                lutemon = new OrangeLutemon(tempId, name);
+                break;
+            case "BLACK":
+                lutemon = new BlackLutemon(tempId, name);
+                break;
+            default:
+                Gdx.app.error("ProfileManager", "Unknown Lutemon type: " + type + ", defaulting to White");
+                lutemon = new WhiteLutemon(tempId, name);
+                break;
+        }
+        lutemon.setId(id);
+        return lutemon;
+    }
 
-            if (jsonValue.has("lastPlayedDate")) {
-                try {
-                    long timestamp = Long.parseLong(jsonValue.getString("lastPlayedDate"));
-                    profile.setLastPlayedDate(new java.util.Date(timestamp));
-                } catch (Exception e) {
-                    Gdx.app.error("ProfileManager", "Error parsing last played date: " + e.getMessage());
-                }
-            }
+    /**
+     * Checks a profile name. Names become file names in the profiles directory, so a name must not be
+     * empty, contain a path separator, or contain "..".
+     *
+     * @param name The name to check
+     * @throws IllegalArgumentException If the name is not a valid profile name
+     */
+    private static void validateProfileName(String name) {
+        if (name == null || name.trim().isEmpty()) {
+            throw new IllegalArgumentException("Profile name cannot be empty");
+        }
+        if (name.indexOf('/') >= 0 || name.indexOf('\\') >= 0 || name.contains("..")) {
+            throw new IllegalArgumentException("Profile name '" + name + "' cannot contain '/', '\\' or '..'");
+        }
+    }
 
-            // Extract statistics
-            if (jsonValue.has("totalLutemonsCreated")) {
-                profile.setTotalLutemonsCreated(jsonValue.getInt("totalLutemonsCreated"));
-            }
-
-            if (jsonValue.has("totalBattles")) {
-                profile.setTotalBattles(jsonValue.getInt("totalBattles"));
-            }
-
-            if (jsonValue.has("totalTrainingSessions")) {
-                profile.setTotalTrainingSessions(jsonValue.getInt("totalTrainingSessions"));
-            }
-
-            // Extract Lutemons if available
-            if (jsonValue.has("lutemons")) {
-                Gdx.app.log("ProfileManager", "Found lutemons field in JSON");
-                com.badlogic.gdx.utils.JsonValue lutemonsArray = jsonValue.get("lutemons");
-                if (lutemonsArray != null) {
-                    Gdx.app.log("ProfileManager", "Lutemons array is not null");
-                    if (lutemonsArray.isArray()) {
-                        Gdx.app.log("ProfileManager", "Lutemons field is an array with " + lutemonsArray.size + " elements");
-
-                        for (com.badlogic.gdx.utils.JsonValue lutemonJson : lutemonsArray) {
-                            try {
-                                // Create a new Lutemon from the JSON data
-                                // Log the lutemon JSON data
-                                Gdx.app.log("ProfileManager", "Parsing Lutemon JSON: " + lutemonJson.toString());
-
-                                String type = lutemonJson.getString("type", "White");
-                                String name = lutemonJson.getString("name", "Unknown");
-                                int id = lutemonJson.getInt("id", -1);
-
-                                // Extract stats if available
-                                int experience = 0;
-                                int attack = 0;
-                                int defense = 0;
-                                int maxHealth = 0;
-                                int currentHealth = 0;
-                                int level = 1;
-                                int trainingDays = 0;
-                                int battles = 0;
-                                int wins = 0;
-                                int losses = 0;
-
-                                Gdx.app.log("ProfileManager", "Extracting stats for Lutemon: " + name);
-
-                                // Check if stats are available in the JSON
-                                if (lutemonJson.has("stats")) {
-                                    com.badlogic.gdx.utils.JsonValue statsJson = lutemonJson.get("stats");
-                                    if (statsJson != null) {
-                                        Gdx.app.log("ProfileManager", "Found stats for Lutemon: " + name);
-
-                                        if (statsJson.has("experience")) {
-                                            experience = statsJson.getInt("experience", 0);
-                                        }
-                                        if (statsJson.has("attack")) {
-                                            attack = statsJson.getInt("attack", 0);
-                                        }
-                                        if (statsJson.has("defense")) {
-                                            defense = statsJson.getInt("defense", 0);
-                                        }
-                                        if (statsJson.has("maxHealth")) {
-                                            maxHealth = statsJson.getInt("maxHealth", 0);
-                                        }
-                                        if (statsJson.has("currentHealth")) {
-                                            currentHealth = statsJson.getInt("currentHealth", 0);
-                                        }
-                                        if (statsJson.has("level")) {
-                                            level = statsJson.getInt("level", 1);
-                                        }
-                                        if (statsJson.has("trainingDays")) {
-                                            trainingDays = statsJson.getInt("trainingDays", 0);
-                                            Gdx.app.log("ProfileManager", "Found trainingDays for Lutemon " + name + ": " + trainingDays);
-                                        } else {
-                                            Gdx.app.log("ProfileManager", "No trainingDays found for Lutemon " + name);
-                                        }
-                                        if (statsJson.has("battles")) {
-                                            battles = statsJson.getInt("battles", 0);
-                                        }
-                                        if (statsJson.has("wins")) {
-                                            wins = statsJson.getInt("wins", 0);
-                                        }
-                                        if (statsJson.has("losses")) {
-                                            losses = statsJson.getInt("losses", 0);
-                                        }
-                                    }
-                                }
-
-                                Gdx.app.log("ProfileManager", "Parsed Lutemon data - Type: " + type + ", Name: " + name + ", ID: " + id +
-                                          ", Experience: " + experience);
-
-                                // Get a temporary ID for the Lutemon
-                                // The actual ID will be assigned when added to storage
-                                int tempId = id >= 0 ? id : 0;
-
-                                Lutemon lutemon = null;
-                                switch (type) {
-                                    case "WHITE":
-                                    case "White":
-                                        lutemon = new WhiteLutemon(tempId, name);
-                                        break;
-                                    case "GREEN":
-                                    case "Green":
-                                        lutemon = new GreenLutemon(tempId, name);
-                                        break;
-                                    case "PINK":
-                                    case "Pink":
-                                        lutemon = new PinkLutemon(tempId, name);
-                                        break;
-                                    case "ORANGE":
-                                    case "Orange":
-                                        lutemon = new OrangeLutemon(tempId, name);
-                                        break;
-                                    case "BLACK":
-                                    case "Black":
-                                        lutemon = new BlackLutemon(tempId, name);
-                                        break;
-                                    default:
-                                        Gdx.app.error("ProfileManager", "Unknown Lutemon type: " + type + ", defaulting to White");
-                                        lutemon = new WhiteLutemon(tempId, name);
-                                        break;
-                                }
-
-                                if (lutemon != null) {
-                                    lutemon.setId(id);
-
-                                    // Apply the stats to the lutemon
-                                    if (experience > 0) {
-                                        // Add experience points
-                                        lutemon.addExperience(experience);
-                                        Gdx.app.log("ProfileManager", "Applied experience to Lutemon: " + experience);
-                                    }
-
-                                    // Set other stats if they were loaded
-                                    com.main.lutemon.model.lutemon.stats.LutemonStats stats = lutemon.getStats();
-
-                                    // Always log the stats we're about to apply
-                                    Gdx.app.log("ProfileManager", "Applying stats to Lutemon " + lutemon.getName() +
-                                              ": Battles=" + battles + ", Wins=" + wins + ", TrainingDays=" + trainingDays);
-
-                                    // Set battle stats
-                                    if (battles > 0) {
-                                        for (int i = 0; i < battles; i++) {
-                                            stats.incrementBattles();
-                                        }
-                                        Gdx.app.log("ProfileManager", "Applied " + battles + " battles to Lutemon " + lutemon.getName());
-                                    }
-
-                                    // Set win stats
-                                    if (wins > 0) {
-                                        for (int i = 0; i < wins; i++) {
-                                            stats.incrementWins();
-                                        }
-                                        Gdx.app.log("ProfileManager", "Applied " + wins + " wins to Lutemon " + lutemon.getName());
-                                    }
-
-                                    // Set training days
-                                    if (trainingDays > 0) {
-                                        for (int i = 0; i < trainingDays; i++) {
-                                            stats.incrementTrainingDays();
-                                        }
-                                        Gdx.app.log("ProfileManager", "Applied " + trainingDays + " training days to Lutemon " + lutemon.getName());
-                                    }
-
-                                    // Verify the stats were applied correctly
-                                    Gdx.app.log("ProfileManager", "Verified stats for Lutemon " + lutemon.getName() +
-                                              ": Battles=" + stats.getBattles() +
-                                              ", Wins=" + stats.getWins() +
-                                              ", TrainingDays=" + stats.getTrainingDays());
-
-                                    // Set health if it was loaded
-                                    if (currentHealth > 0) {
-                                        lutemon.getStats().setCurrentHealth(currentHealth);
-                                        Gdx.app.log("ProfileManager", "Set current health for Lutemon: " + currentHealth);
-                                    }
-
-                                    profile.getLutemons().add(lutemon);
-                                    Gdx.app.log("ProfileManager", "Added Lutemon to profile: " + lutemon.getName() +
-                                              " (ID: " + lutemon.getId() + ", Type: " + lutemon.getType() +
-                                              ", Experience: " + lutemon.getExperience() +
-                                              ", Attack: " + lutemon.getAttack() +
-                                              ", Defense: " + lutemon.getStats().getDefense() +
-                                              ", Health: " + lutemon.getStats().getCurrentHealth() + "/" + lutemon.getStats().getMaxHealth() + ")");
-                                }
-                            } catch (Exception e) {
-                                Gdx.app.error("ProfileManager", "Error parsing Lutemon: " + e.getMessage());
-                                e.printStackTrace();
-                            }
-                        }
-                    }
-                }
+    private static boolean isValidProfileName(String name) {
+        try {
+            validateProfileName(name);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
 
-                return profile;
-            }
-        } catch (Exception e) {
-            Gdx.app.error("ProfileManager", "Error creating profile from JSON: " + e.getMessage());
-            e.printStackTrace();
-            return null;
+    private static int typeOrdinal(String type) {
+        try {
+            return LutemonType.valueOf(type).ordinal();
+        } catch (IllegalArgumentException e) {
+            Gdx.app.error("ProfileManager", "Unknown Lutemon type: " + type + ", defaulting to White");
+            return LutemonType.WHITE.ordinal();
         }
+    }
 
-        return null;
+    private static String typeName(int typeOrdinal) {
+        LutemonType[] types = LutemonType.values();
+        return typeOrdinal >= 0 && typeOrdinal < types.length ? types[typeOrdinal].name() : String.valueOf(typeOrdinal);
     }
 }
-
@@ -0,0 +1,174 @@
+package com.main.lutemon.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.badlogic.gdx.files.FileHandle;
+import com.main.lutemon.model.profile.ProfileSummary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * A small index of every saved profile, so profiles can be listed without reading their files.
+ * It is kept in memory once read and rewritten whenever a profile is saved or deleted.
+ *
+ * <p>The file holds a magic number, a format version, the number of entries and for each entry the
+ * name, dates, roster size and totals, followed by a CRC32 of everything before it. A missing or
+ * damaged manifest is rebuilt from the profile files.
+ */
+final class ProfileManifest {
+    static final String FILE_NAME = "profiles.manifest";
+    private static final int MAGIC = 0x4c55544d; // "LUTM"
+    private static final int FORMAT_VERSION = 1;
+
+    private final FileHandle file;
+    private Map<String, ProfileSummary> entries;
+
+    ProfileManifest(FileHandle file) {
+        this.file = file;
+    }
+
+    /**
+     * Gets the summaries the manifest has of the saved profiles. Entries without a profile file are
+     * dropped; profiles missing from the manifest, such as ones saved by an older version of the game,
+     * have to be summarized by the caller and added with {@link #putAll}.
+     *
+     * @param savedNames The names of the profiles that have a file, in the order to list them
+     * @return The summaries by profile name, in the order of the names, for the profiles the manifest has
+     */
+    synchronized Map<String, ProfileSummary> known(Collection<String> savedNames) {
+        load();
+        boolean changed = entries.keySet().retainAll(savedNames);
+
+        Map<String, ProfileSummary> summaries = new LinkedHashMap<>();
+        for (String name : savedNames) {
+            ProfileSummary summary = entries.get(name);
+            if (summary != null) {
+                summaries.put(name, summary);
+            }
+        }
+
+        if (changed) {
+            write();
+        }
+        return summaries;
+    }
+
+    /**
+     * Adds or replaces the summary of a profile.
+     *
+     * @param summary The summary
+     */
+    synchronized void put(ProfileSummary summary) {
+        load();
+        entries.put(summary.getName(), summary);
+        write();
+    }
+
+    /**
+     * Adds the summaries of several profiles, rewriting the manifest once.
+     *
+     * @param summaries The summaries
+     */
+    synchronized void putAll(Collection<ProfileSummary> summaries) {
+        if (summaries.isEmpty()) {
+            return;
+        }
+        load();
+        for (ProfileSummary summary : summaries) {
+            Gdx.app.log("ProfileManifest", "Profile added to manifest: " + summary.getName());
+            entries.put(summary.getName(), summary);
+        }
+        write();
+    }
+
+    /**
+     * Removes the summary of a deleted profile.
+     *
+     * @param name The name of the profile
+     */
+    synchronized void remove(String name) {
+        load();
+        if (entries.remove(name) != null) {
+            write();
+        }
+    }
+
+    private void load() {
+        if (entries != null) {
+            return;
+        }
+        entries = new LinkedHashMap<>();
+        if (!file.exists()) {
+            return;
+        }
+        try {
+            decode(file.readBytes());
+        } catch (Exception e) {
+            Gdx.app.error("ProfileManifest", "Rebuilding damaged profile manifest: " + e.getMessage());
+            entries.clear();
+        }
+    }
+
+    private void decode(byte[] data) throws IOException {
+        if (data.length < 4) {
+            throw new IOException("Manifest is truncated");
+        }
+        int end = data.length - 4;
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, end);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+        in.skipBytes(end);
+        if (in.readInt() != (int) crc.getValue()) {
+            throw new IOException("Manifest checksum mismatch");
+        }
+
+        in = new DataInputStream(new ByteArrayInputStream(data, 0, end));
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a profile manifest");
+        }
+        int version = in.readUnsignedByte();
+        if (version > FORMAT_VERSION) {
+            throw new IOException("Unsupported manifest format version " + version);
+        }
+        int count = in.readInt();
+        for (int i = 0; i < count; i++) {
+            ProfileSummary summary = new ProfileSummary(in.readUTF(), in.readLong(), in.readLong(),
+                in.readInt(), in.readInt(), in.readInt(), in.readInt());
+            entries.put(summary.getName(), summary);
+        }
+    }
+
+    private void write() {
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 + entries.size() * 48);
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(MAGIC);
+            out.writeByte(FORMAT_VERSION);
+            out.writeInt(entries.size());
+            for (ProfileSummary summary : entries.values()) {
+                out.writeUTF(summary.getName());
+                out.writeLong(summary.getCreationDate().getTime());
+                out.writeLong(summary.getLastPlayedDate().getTime());
+                out.writeInt(summary.getLutemonCount());
+                out.writeInt(summary.getTotalLutemonsCreated());
+                out.writeInt(summary.getTotalBattles());
+                out.writeInt(summary.getTotalTrainingSessions());
+            }
+            CRC32 crc = new CRC32();
+            crc.update(bytes.toByteArray());
+            out.writeInt((int) crc.getValue());
+            out.flush();
+            AtomicFileWriter.write(file, bytes.toByteArray());
+        } catch (Exception e) {
+            // The profiles themselves are saved, a stale manifest is corrected the next time it is written
+            Gdx.app.error("ProfileManifest", "Error writing profile manifest: " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.main.lutemon.utils;
+
+import com.badlogic.gdx.Gdx;
+import com.main.lutemon.model.lutemon.BlackLutemon;
+import com.main.lutemon.model.lutemon.GreenLutemon;
+import com.main.lutemon.model.lutemon.Lutemon;
+import com.main.lutemon.model.lutemon.OrangeLutemon;
+import com.main.lutemon.model.lutemon.PinkLutemon;
+import com.main.lutemon.model.lutemon.WhiteLutemon;
+import com.main.lutemon.model.profile.Profile;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Upgrades profiles saved with an older schema to {@link Profile#SCHEMA_VERSION}, one version at a time.
+ * Only the readers of old saves go through the migrations; everything else handles the current schema only.
+ *
+ * <p>Schema versions:
+ * <ol>
+ * <li>JSON saves without a schema version. Lutemon types may be display names such as "White", and a
+ *     profile may have been saved with its totals but without its Lutemons.</li>
+ * <li>Binary saves of format versions 1 and 2, whose schema follows from the format.</li>
+ * <li>Every save records its schema version.</li>
+ * </ol>
+ *
+ * <p>Each step has two parts: a Lutemon record is upgraded while it is read, before the Lutemon is
+ * created, and the profile once all of it has been read.
+ */
+final class ProfileMigrations {
+    // Indexed by the version a step upgrades from, minus one
+    private static final Migration[] MIGRATIONS = {
+        new Migration() {
+            @Override
+            String lutemonType(String type) {
+                return type.toUpperCase(Locale.ROOT);
+            }
+
+            @Override
+            void profile(Profile profile) {
+                List<Lutemon> lutemons = profile.getLutemons();
+                if (lutemons.isEmpty() && profile.getTotalLutemonsCreated() > 0) {
+                    lutemons.add(new WhiteLutemon(1, "White Warrior"));
+                    lutemons.add(new GreenLutemon(2, "Green Fighter"));
+                    lutemons.add(new PinkLutemon(3, "Pink Striker"));
+                    lutemons.add(new OrangeLutemon(4, "Orange Blade"));
+                    lutemons.add(new BlackLutemon(5, "Black Shadow"));
+                }
+            }
+        },
+        // The schema version is written from version 3 on; nothing else changed
+        new Migration()
+    };
+
+    private ProfileMigrations() {
+    }
+
+    /**
+     * Wraps a factory so that the Lutemon records of an older schema are upgraded before the Lutemons
+     * are created.
+     *
+     * @param schemaVersion The schema the records were saved with
+     * @param factory The factory creating current Lutemons
+     * @return A factory accepting records of the given schema
+     */
+    static ProfileJournal.LutemonFactory reading(int schemaVersion, ProfileJournal.LutemonFactory factory) {
+        if (schemaVersion >= Profile.SCHEMA_VERSION) {
+            return factory;
+        }
+        int first = Math.max(schemaVersion, 1) - 1;
+        return (type, id, name, experience, currentHealth, trainingDays, battles, wins) -> {
+            for (int i = first; i < MIGRATIONS.length; i++) {
+                type = MIGRATIONS[i].lutemonType(type);
+            }
+            return factory.create(type, id, name, experience, currentHealth, trainingDays, battles, wins);
+        };
+    }
+
+    /**
+     * Brings a profile that has been read in full up to the current schema.
+     *
+     * @param profile The profile, whose schema version is the one it was saved with
+     * @return True if the profile was upgraded and should be saved again
+     * @throws IOException If the profile was saved by a newer version of the game
+     */
+    static boolean upgrade(Profile profile) throws IOException {
+        int version = profile.getSchemaVersion();
+        if (version > Profile.SCHEMA_VERSION) {
+            throw new IOException("Profile " + profile.getName() + " has unsupported schema version " + version);
+        }
+        if (version == Profile.SCHEMA_VERSION) {
+            return false;
+        }
+        for (int i = Math.max(version, 1) - 1; i < MIGRATIONS.length; i++) {
+            MIGRATIONS[i].profile(profile);
+        }
+        profile.setSchemaVersion(Profile.SCHEMA_VERSION);
+        Gdx.app.log("ProfileMigrations", "Upgraded profile " + profile.getName() + " from schema version " +
+            version + " to " + Profile.SCHEMA_VERSION);
+        return true;
+    }
+
+    /**
+     * One step from a schema version to the next.
+     */
+    private static class Migration {
+        /**
+         * Upgrades the type of a Lutemon record.
+         *
+         * @param type The saved type name
+         * @return The type name in the next schema
+         */
+        String lutemonType(String type) {
+            return type;
+        }
+
+        /**
+         * Upgrades a profile whose Lutemons have all been read.
+         *
+         * @param profile The profile
+         */
+        void profile(Profile profile) {
+        }
+    }
+}
@@ -1,48 +1,48 @@
 package com.main.lutemon.utils;
 
 import com.badlogic.gdx.Gdx;
-import com.badlogic.gdx.files.FileHandle;
-import com.badlogic.gdx.utils.Json;
 import com.main.lutemon.model.lutemon.Lutemon;
+import com.main.lutemon.model.profile.Profile;
 import com.main.lutemon.model.storage.Storage;
+import com.main.lutemon.model.storage.StorageSnapshot;
 
-import java.util.ArrayList;
-import java.util.List;
-
+/**
+ * Saves the Lutemons in storage while no profile is loaded. The save is kept as a profile of its own,
+ * apart from the player profiles, with the same persistence backend as {@link ProfileManager}.
+ */
 public class SaveManager {
-    private static final String SAVE_FILE = "lutemon_save.json";
-    private final Json json;
+    private static final String SAVE_DIRECTORY = "saves";
+    private static final String SAVE_NAME = "lutemon_save";
+    private final PersistenceBackend backend;
 
     public SaveManager() {
-        json = new Json();
+        backend = ProfileManager.createBackend(ProfileManager.getInstance().getBackendName(),
+            Gdx.files.local(SAVE_DIRECTORY));
     }
 
     public boolean saveGame() {
-        try {
-            List<Lutemon> lutemons = Storage.getInstance().getAllLutemons();
-            String saveData = json.toJson(lutemons);
-            FileHandle file = Gdx.files.local(SAVE_FILE);
-            file.writeString(saveData, false);
+        try (StorageSnapshot snapshot = Storage.getInstance().snapshot()) {
+            backend.save(new Profile(SAVE_NAME), snapshot, ProfileCompression.NONE);
             Gdx.app.log("SaveManager", "Game saved successfully");
+            return true;
         } catch (Exception e) {
             Gdx.app.error("SaveManager", "Error saving game: " + e.getMessage());
+            return false;
         }
-        return false;
     }
 
     public boolean loadGame() {
         try {
-            FileHandle file = Gdx.files.local(SAVE_FILE);
-            if (!file.exists()) {
+            if (!backend.exists(SAVE_NAME)) {
                 Gdx.app.log("SaveManager", "No save file found");
                 return false;
             }
 
-            String saveData = file.readString();
-            List<Lutemon> lutemons = json.fromJson(ArrayList.class, Lutemon.class, saveData);
+            Profile saved = backend.load(SAVE_NAME, ProfileManager.getInstance()::restoreLutemon);
+            ProfileMigrations.upgrade(saved);
             Storage.getInstance().clear();
-            for (Lutemon lutemon : lutemons) {
-                Storage.getInstance().addLutemon(lutemon);
+            for (Lutemon lutemon : saved.getLutemons()) {
+                Storage.getInstance().addLutemonWithoutStats(lutemon);
             }
             Gdx.app.log("SaveManager", "Game loaded successfully");
             return true;
@@ -53,6 +53,6 @@ public class SaveManager {
     }
 
     public boolean hasSaveFile() {
-        return Gdx.files.local(SAVE_FILE).exists();
+        return backend.exists(SAVE_NAME);
     }
 }
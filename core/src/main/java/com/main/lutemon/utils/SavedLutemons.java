@@ -0,0 +1,80 @@
+package com.main.lutemon.utils;
+
+import com.main.lutemon.model.lutemon.Lutemon;
+import com.main.lutemon.model.storage.LutemonVersion;
+import com.main.lutemon.model.storage.StorageSnapshot;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The Lutemons of a profile being saved, read by index without copying them. ID, type and name come
+ * from the Lutemon, the saved stats from wherever the Lutemons are read from: their own stats, or the
+ * immutable versions of a storage snapshot.
+ */
+abstract class SavedLutemons {
+    abstract int size();
+    abstract Lutemon lutemon(int index);
+    abstract int experience(int index);
+    abstract int currentHealth(int index);
+    abstract int trainingDays(int index);
+    abstract int battles(int index);
+    abstract int wins(int index);
+
+    /**
+     * Reads Lutemons from a list, skipping null entries.
+     *
+     * @param lutemons The Lutemons, may be null
+     * @return The saved Lutemons
+     */
+    static SavedLutemons of(List<Lutemon> lutemons) {
+        return new ListLutemons(lutemons);
+    }
+
+    /**
+     * Reads the Lutemons of a storage snapshot as of that snapshot.
+     *
+     * @param snapshot The snapshot
+     * @return The saved Lutemons
+     */
+    static SavedLutemons of(StorageSnapshot snapshot) {
+        return new SnapshotLutemons(snapshot.getAll());
+    }
+
+    private static final class ListLutemons extends SavedLutemons {
+        private final List<Lutemon> lutemons;
+
+        ListLutemons(List<Lutemon> lutemons) {
+            List<Lutemon> present = lutemons != null ? lutemons : new ArrayList<>();
+            if (present.contains(null)) {
+                present = new ArrayList<>(present);
+                present.removeIf(lutemon -> lutemon == null);
+            }
+            this.lutemons = present;
+        }
+
+        @Override int size() { return lutemons.size(); }
+        @Override Lutemon lutemon(int index) { return lutemons.get(index); }
+        @Override int experience(int index) { return lutemons.get(index).getStats().getExperience(); }
+        @Override int currentHealth(int index) { return lutemons.get(index).getStats().getCurrentHealth(); }
+        @Override int trainingDays(int index) { return lutemons.get(index).getStats().getTrainingDays(); }
+        @Override int battles(int index) { return lutemons.get(index).getStats().getBattles(); }
+        @Override int wins(int index) { return lutemons.get(index).getStats().getWins(); }
+    }
+
+    private static final class SnapshotLutemons extends SavedLutemons {
+        private final List<LutemonVersion> versions;
+
+        SnapshotLutemons(List<LutemonVersion> versions) {
+            this.versions = versions;
+        }
+
+        @Override int size() { return versions.size(); }
+        @Override Lutemon lutemon(int index) { return versions.get(index).getLutemon(); }
+        @Override int experience(int index) { return versions.get(index).getExperience(); }
+        @Override int currentHealth(int index) { return versions.get(index).getCurrentHealth(); }
+        @Override int trainingDays(int index) { return versions.get(index).getTrainingDays(); }
+        @Override int battles(int index) { return versions.get(index).getBattles(); }
+        @Override int wins(int index) { return versions.get(index).getWins(); }
+    }
+}
@@ -0,0 +1,738 @@
+package com.main.lutemon.utils;
+
+import com.badlogic.gdx.files.FileHandle;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+
+/**
+ * History of the battles and training sessions of one profile, kept in a directory of its own.
+ *
+ * <p>Events are recorded in memory first, in a ring buffer that also serves the most recent events,
+ * and written out by {@link #flush()}. On disk they go to append-only segment files, one per UTC day,
+ * named after the day and holding fixed-size records of {@value #EVENT_SIZE} bytes:
+ * {@code <timestamp> <Lutemon ID> <kind> <outcome> <damage> <duration>}, big endian. A record cut short
+ * by a crash is dropped when the history is opened.
+ *
+ * <p>Every event is also added to hourly and daily {@link Rollup}s as it is recorded, so charts over
+ * months of history read a few hundred rollups instead of every event. Rollups are kept in memory and
+ * saved to an append-only log per resolution, one checksummed record per changed rollup, where the
+ * latest record of a bucket wins. A log is rewritten once most of it has been superseded, and both
+ * are rebuilt from the segments if they are missing.
+ */
+public class StatisticsHistory implements Closeable {
+    static final String DIRECTORY_SUFFIX = ".history";
+    static final int EVENT_SIZE = 28;
+    static final int RING_CAPACITY = 256;
+    private static final String SEGMENT_EXTENSION = ".events";
+    private static final String ROLLUP_EXTENSION = ".rollup";
+    private static final int ROLLUP_SIZE = 48;
+    // Rollup logs are rewritten when they hold this many more records than live rollups
+    private static final int ROLLUP_SLACK = 1024;
+
+    /**
+     * What an event records.
+     */
+    public enum Kind {
+        BATTLE,
+        TRAINING
+    }
+
+    /**
+     * The length of the rollup buckets.
+     */
+    public enum Resolution {
+        HOUR(3_600_000L),
+        DAY(86_400_000L);
+
+        private final long millis;
+
+        Resolution(long millis) {
+            this.millis = millis;
+        }
+
+        public long getMillis() {
+            return millis;
+        }
+
+        /**
+         * Gets the start of the bucket a time falls in.
+         *
+         * @param timestamp The time in milliseconds since the epoch
+         * @return The start of its bucket
+         */
+        public long bucketOf(long timestamp) {
+            return Math.floorDiv(timestamp, millis) * millis;
+        }
+    }
+
+    /**
+     * Receives events read from the history.
+     */
+    public interface EventVisitor {
+        void visit(Event event);
+    }
+
+    /**
+     * A battle or training session.
+     */
+    public static final class Event {
+        private final Kind kind;
+        private final long timestamp;
+        private final int lutemonId;
+        private final int outcome;
+        private final int damage;
+        private final int durationMillis;
+
+        Event(Kind kind, long timestamp, int lutemonId, int outcome, int damage, int durationMillis) {
+            this.kind = kind;
+            this.timestamp = timestamp;
+            this.lutemonId = lutemonId;
+            this.outcome = outcome;
+            this.damage = damage;
+            this.durationMillis = durationMillis;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        public long getTimestamp() {
+            return timestamp;
+        }
+
+        /**
+         * Gets the Lutemon the event is about.
+         *
+         * @return The ID, or -1 for training of several Lutemons at once
+         */
+        public int getLutemonId() {
+            return lutemonId;
+        }
+
+        /**
+         * Gets the outcome: for a battle 1 if it was won and 0 otherwise, for training the number of sessions.
+         *
+         * @return The outcome
+         */
+        public int getOutcome() {
+            return outcome;
+        }
+
+        public int getDamage() {
+            return damage;
+        }
+
+        public int getDurationMillis() {
+            return durationMillis;
+        }
+    }
+
+    /**
+     * The totals of the events in one bucket of time.
+     */
+    public static final class Rollup {
+        private final long start;
+        private int battles;
+        private int wins;
+        private long damage;
+        private long battleMillis;
+        private int trainingSessions;
+        private long trainingMillis;
+
+        Rollup(long start) {
+            this.start = start;
+        }
+
+        Rollup(Rollup other) {
+            this(other.start);
+            battles = other.battles;
+            wins = other.wins;
+            damage = other.damage;
+            battleMillis = other.battleMillis;
+            trainingSessions = other.trainingSessions;
+            trainingMillis = other.trainingMillis;
+        }
+
+        void add(Kind kind, int outcome, int damage, int durationMillis) {
+            if (kind == Kind.BATTLE) {
+                battles++;
+                wins += outcome;
+                this.damage += damage;
+                battleMillis += durationMillis;
+            } else {
+                trainingSessions += outcome;
+                trainingMillis += durationMillis;
+            }
+        }
+
+        public long getStart() {
+            return start;
+        }
+
+        public int getBattles() {
+            return battles;
+        }
+
+        public int getWins() {
+            return wins;
+        }
+
+        public long getDamage() {
+            return damage;
+        }
+
+        public long getBattleMillis() {
+            return battleMillis;
+        }
+
+        public int getTrainingSessions() {
+            return trainingSessions;
+        }
+
+        public long getTrainingMillis() {
+            return trainingMillis;
+        }
+    }
+
+    private final File directory;
+    private final Object flushLock = new Object();
+
+    // Most recent events, oldest first from ringStart; the last pendingCount of them are not on disk yet
+    private final long[] ringTimestamps = new long[RING_CAPACITY];
+    private final int[] ringLutemons = new int[RING_CAPACITY];
+    private final byte[] ringKinds = new byte[RING_CAPACITY];
+    private final int[] ringOutcomes = new int[RING_CAPACITY];
+    private final int[] ringDamage = new int[RING_CAPACITY];
+    private final int[] ringDurations = new int[RING_CAPACITY];
+    private int ringStart;
+    private int ringSize;
+    private int pendingCount;
+
+    private final TreeMap<Long, Rollup> hourly = new TreeMap<>();
+    private final TreeMap<Long, Rollup> daily = new TreeMap<>();
+    private final Set<Long> dirtyHours = new LinkedHashSet<>();
+    private final Set<Long> dirtyDays = new LinkedHashSet<>();
+    private final int[] rollupRecords = new int[2];
+    private boolean closed;
+
+    private StatisticsHistory(File directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Opens the history kept in a directory, creating the directory if needed.
+     *
+     * @param directory The directory
+     * @return The history
+     * @throws IOException If the history could not be read
+     */
+    public static StatisticsHistory open(File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create " + directory.getPath());
+        }
+        StatisticsHistory history = new StatisticsHistory(directory);
+        history.load();
+        return history;
+    }
+
+    /**
+     * Gets the directory the history of a profile is kept in.
+     *
+     * @param profilesDirectory The profiles directory
+     * @param profileName The name of the profile
+     * @return The directory, which may not exist
+     */
+    public static File directoryOf(File profilesDirectory, String profileName) {
+        return new File(profilesDirectory, profileName + DIRECTORY_SUFFIX);
+    }
+
+    /**
+     * Deletes a history.
+     *
+     * @param directory The directory of the history
+     */
+    public static void delete(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    /**
+     * Records an event at the current time. It is written to disk by the next {@link #flush()}, which
+     * happens by itself once {@value #RING_CAPACITY} events are waiting.
+     *
+     * @param kind What happened
+     * @param lutemonId The Lutemon it happened to, or -1 for several
+     * @param outcome For a battle 1 if it was won and 0 otherwise, for training the number of sessions
+     * @param damage The damage dealt
+     * @param durationMillis How long it took
+     */
+    public void record(Kind kind, int lutemonId, int outcome, int damage, int durationMillis) {
+        record(kind, System.currentTimeMillis(), lutemonId, outcome, damage, durationMillis);
+    }
+
+    /**
+     * Records the same event for several Lutemons at the current time, one event each, taking the
+     * lock once per {@value #RING_CAPACITY} events instead of once per event.
+     *
+     * @param kind What happened
+     * @param lutemonIds The Lutemons it happened to
+     * @param count The number of IDs to read from the array
+     * @param outcome For a battle 1 if it was won and 0 otherwise, for training the number of sessions
+     * @param damage The damage dealt
+     * @param durationMillis How long it took
+     */
+    public void recordEach(Kind kind, int[] lutemonIds, int count, int outcome, int damage, int durationMillis) {
+        if (kind == null) {
+            throw new IllegalArgumentException("Kind cannot be null");
+        }
+        long timestamp = System.currentTimeMillis();
+        boolean flushing = true;
+        int next = 0;
+        while (next < count) {
+            boolean full = false;
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                while (next < count && !full) {
+                    add(kind, timestamp, lutemonIds[next++], outcome, damage, durationMillis);
+                    full = flushing && pendingCount == RING_CAPACITY;
+                }
+            }
+            if (full) {
+                try {
+                    flush();
+                } catch (IOException e) {
+                    // As in record, the oldest events are overwritten until the next flush succeeds
+                    flushing = false;
+                }
+            }
+        }
+    }
+
+    void record(Kind kind, long timestamp, int lutemonId, int outcome, int damage, int durationMillis) {
+        if (kind == null) {
+            throw new IllegalArgumentException("Kind cannot be null");
+        }
+        boolean full;
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            add(kind, timestamp, lutemonId, outcome, damage, durationMillis);
+            full = pendingCount == RING_CAPACITY;
+        }
+        if (full) {
+            try {
+                flush();
+            } catch (IOException e) {
+                // Events stay in memory, pendingCount caps at the ring size, and the next flush retries
+            }
+        }
+    }
+
+    private void add(Kind kind, long timestamp, int lutemonId, int outcome, int damage, int durationMillis) {
+        int index = (ringStart + ringSize) % RING_CAPACITY;
+        if (ringSize == RING_CAPACITY) {
+            ringStart = (ringStart + 1) % RING_CAPACITY;
+        } else {
+            ringSize++;
+        }
+        ringTimestamps[index] = timestamp;
+        ringLutemons[index] = lutemonId;
+        ringKinds[index] = (byte) kind.ordinal();
+        ringOutcomes[index] = outcome;
+        ringDamage[index] = damage;
+        ringDurations[index] = durationMillis;
+        pendingCount = Math.min(pendingCount + 1, RING_CAPACITY);
+
+        rollUp(hourly, dirtyHours, Resolution.HOUR, kind, timestamp, outcome, damage, durationMillis);
+        rollUp(daily, dirtyDays, Resolution.DAY, kind, timestamp, outcome, damage, durationMillis);
+    }
+
+    private static void rollUp(TreeMap<Long, Rollup> rollups, Set<Long> dirty, Resolution resolution, Kind kind,
+                               long timestamp, int outcome, int damage, int durationMillis) {
+        long bucket = resolution.bucketOf(timestamp);
+        Rollup rollup = rollups.get(bucket);
+        if (rollup == null) {
+            rollup = new Rollup(bucket);
+            rollups.put(bucket, rollup);
+        }
+        rollup.add(kind, outcome, damage, durationMillis);
+        if (dirty != null) {
+            dirty.add(bucket);
+        }
+    }
+
+    /**
+     * Gets the number of recorded events not written to disk yet.
+     *
+     * @return The number of events
+     */
+    public synchronized int getPendingEventCount() {
+        return pendingCount;
+    }
+
+    /**
+     * Gets the most recent events, up to {@value #RING_CAPACITY}, without reading the disk.
+     *
+     * @return The events, oldest first
+     */
+    public synchronized List<Event> getRecentEvents() {
+        List<Event> events = new ArrayList<>(ringSize);
+        for (int i = 0; i < ringSize; i++) {
+            events.add(ringEvent((ringStart + i) % RING_CAPACITY));
+        }
+        return events;
+    }
+
+    /**
+     * Gets the rollups of a period, including events not written to disk yet. Buckets without events
+     * are left out.
+     *
+     * @param resolution The length of the buckets
+     * @param from The start of the period, in milliseconds since the epoch
+     * @param to The end of the period, exclusive
+     * @return Copies of the rollups, oldest first
+     */
+    public synchronized List<Rollup> getRollups(Resolution resolution, long from, long to) {
+        if (from >= to) {
+            return Collections.emptyList();
+        }
+        TreeMap<Long, Rollup> rollups = resolution == Resolution.HOUR ? hourly : daily;
+        Map<Long, Rollup> period = rollups.subMap(resolution.bucketOf(from), true, to, false);
+        List<Rollup> result = new ArrayList<>(period.size());
+        for (Rollup rollup : period.values()) {
+            result.add(new Rollup(rollup));
+        }
+        return result;
+    }
+
+    /**
+     * Reads the events of a period from the segment files, after writing any that are still in memory.
+     * Only the segments of the days in the period are read.
+     *
+     * @param from The start of the period, in milliseconds since the epoch
+     * @param to The end of the period, exclusive
+     * @param visitor Receives the events, in the order they were recorded
+     * @return The number of events visited
+     * @throws IOException If a segment could not be read
+     */
+    public int forEachEvent(long from, long to, EventVisitor visitor) throws IOException {
+        flush();
+        int visited = 0;
+        for (long day : segmentDays()) {
+            long dayStart = day * Resolution.DAY.getMillis();
+            if (dayStart >= to || dayStart + Resolution.DAY.getMillis() <= from) {
+                continue;
+            }
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(segmentFile(day)), 64 * 1024))) {
+                while (true) {
+                    Event event;
+                    try {
+                        event = readEvent(in);
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    if (event.timestamp >= from && event.timestamp < to) {
+                        visitor.visit(event);
+                        visited++;
+                    }
+                }
+            }
+        }
+        return visited;
+    }
+
+    /**
+     * Writes the events recorded since the last flush to their segments, then the rollups they changed.
+     * Recording can go on while this runs.
+     *
+     * @throws IOException If the history could not be written; the events are kept for the next flush
+     */
+    public void flush() throws IOException {
+        synchronized (flushLock) {
+            List<Event> events;
+            List<Rollup> hours;
+            List<Rollup> days;
+            synchronized (this) {
+                if (closed || (pendingCount == 0 && dirtyHours.isEmpty() && dirtyDays.isEmpty())) {
+                    return;
+                }
+                events = new ArrayList<>(pendingCount);
+                for (int i = ringSize - pendingCount; i < ringSize; i++) {
+                    events.add(ringEvent((ringStart + i) % RING_CAPACITY));
+                }
+                hours = takeDirty(hourly, dirtyHours);
+                days = takeDirty(daily, dirtyDays);
+                pendingCount = 0;
+            }
+
+            try {
+                writeEvents(events);
+                appendRollups(Resolution.HOUR, hours);
+                appendRollups(Resolution.DAY, days);
+            } catch (IOException e) {
+                synchronized (this) {
+                    // Put everything back, so the next flush writes it; rewritten rollups are harmless
+                    pendingCount = Math.min(pendingCount + events.size(), ringSize);
+                    for (Rollup rollup : hours) {
+                        dirtyHours.add(rollup.start);
+                    }
+                    for (Rollup rollup : days) {
+                        dirtyDays.add(rollup.start);
+                    }
+                }
+                throw e;
+            }
+            compactIfSparse(Resolution.HOUR);
+            compactIfSparse(Resolution.DAY);
+        }
+    }
+
+    /**
+     * Writes what is left and closes the history. Events recorded afterwards are ignored.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            synchronized (this) {
+                closed = true;
+            }
+        }
+    }
+
+    private List<Rollup> takeDirty(TreeMap<Long, Rollup> rollups, Set<Long> dirty) {
+        List<Rollup> copies = new ArrayList<>(dirty.size());
+        for (long bucket : dirty) {
+            copies.add(new Rollup(rollups.get(bucket)));
+        }
+        dirty.clear();
+        return copies;
+    }
+
+    private Event ringEvent(int index) {
+        return new Event(Kind.values()[ringKinds[index]], ringTimestamps[index], ringLutemons[index],
+            ringOutcomes[index], ringDamage[index], ringDurations[index]);
+    }
+
+    private void writeEvents(List<Event> events) throws IOException {
+        int i = 0;
+        while (i < events.size()) {
+            // Events of the same day go to the same segment in one write
+            long day = Math.floorDiv(events.get(i).timestamp, Resolution.DAY.getMillis());
+            ByteBuffer buffer = ByteBuffer.allocate((events.size() - i) * EVENT_SIZE);
+            while (i < events.size() && Math.floorDiv(events.get(i).timestamp, Resolution.DAY.getMillis()) == day) {
+                Event event = events.get(i++);
+                buffer.putLong(event.timestamp).putInt(event.lutemonId).putInt(event.kind.ordinal())
+                    .putInt(event.outcome).putInt(event.damage).putInt(event.durationMillis);
+            }
+            try (FileOutputStream out = new FileOutputStream(segmentFile(day), true)) {
+                out.write(buffer.array(), 0, buffer.position());
+                out.getFD().sync();
+            }
+        }
+    }
+
+    private void appendRollups(Resolution resolution, List<Rollup> rollups) throws IOException {
+        if (rollups.isEmpty()) {
+            return;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(rollups.size() * ROLLUP_SIZE);
+        for (Rollup rollup : rollups) {
+            putRollup(buffer, rollup);
+        }
+        try (FileOutputStream out = new FileOutputStream(rollupFile(resolution), true)) {
+            out.write(buffer.array());
+            out.getFD().sync();
+        }
+        synchronized (this) {
+            rollupRecords[resolution.ordinal()] += rollups.size();
+        }
+    }
+
+    private void compactIfSparse(Resolution resolution) throws IOException {
+        byte[] data;
+        synchronized (this) {
+            TreeMap<Long, Rollup> rollups = resolution == Resolution.HOUR ? hourly : daily;
+            if (rollupRecords[resolution.ordinal()] <= rollups.size() * 2 + ROLLUP_SLACK) {
+                return;
+            }
+            ByteBuffer buffer = ByteBuffer.allocate(rollups.size() * ROLLUP_SIZE);
+            for (Rollup rollup : rollups.values()) {
+                putRollup(buffer, rollup);
+            }
+            data = buffer.array();
+            // Rollups changed from here on are dirty and appended after the rewritten log
+            rollupRecords[resolution.ordinal()] = rollups.size();
+        }
+        AtomicFileWriter.write(new FileHandle(rollupFile(resolution)), data);
+    }
+
+    private static void putRollup(ByteBuffer buffer, Rollup rollup) {
+        int start = buffer.position();
+        buffer.putLong(rollup.start).putInt(rollup.battles).putInt(rollup.wins).putLong(rollup.damage)
+            .putLong(rollup.battleMillis).putInt(rollup.trainingSessions).putLong(rollup.trainingMillis);
+        CRC32 crc = new CRC32();
+        crc.update(buffer.array(), start, buffer.position() - start);
+        buffer.putInt((int) crc.getValue());
+    }
+
+    /**
+     * Reads the rollups, rebuilding them from the segments if they are missing, and drops any record
+     * cut short by a crash.
+     */
+    private void load() throws IOException {
+        List<Long> days = segmentDays();
+        for (long day : days) {
+            File segment = segmentFile(day);
+            long whole = segment.length() / EVENT_SIZE * EVENT_SIZE;
+            if (whole != segment.length()) {
+                truncate(segment, whole);
+            }
+        }
+
+        boolean rebuild = false;
+        for (Resolution resolution : Resolution.values()) {
+            File file = rollupFile(resolution);
+            if (file.exists()) {
+                loadRollups(resolution, file);
+            } else if (!days.isEmpty()) {
+                rebuild = true;
+            }
+        }
+        if (rebuild) {
+            rebuildRollups(days);
+        }
+    }
+
+    private void loadRollups(Resolution resolution, File file) throws IOException {
+        TreeMap<Long, Rollup> rollups = resolution == Resolution.HOUR ? hourly : daily;
+        byte[] data = new byte[(int) file.length()];
+        try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+            in.readFully(data);
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        int records = 0;
+        CRC32 crc = new CRC32();
+        while (buffer.remaining() >= ROLLUP_SIZE) {
+            int start = buffer.position();
+            crc.reset();
+            crc.update(data, start, ROLLUP_SIZE - 4);
+            if (buffer.getInt(start + ROLLUP_SIZE - 4) != (int) crc.getValue()) {
+                break;
+            }
+            Rollup rollup = new Rollup(buffer.getLong());
+            rollup.battles = buffer.getInt();
+            rollup.wins = buffer.getInt();
+            rollup.damage = buffer.getLong();
+            rollup.battleMillis = buffer.getLong();
+            rollup.trainingSessions = buffer.getInt();
+            rollup.trainingMillis = buffer.getLong();
+            buffer.getInt();
+            rollups.put(rollup.start, rollup);
+            records++;
+        }
+        if (buffer.position() < data.length) {
+            truncate(file, buffer.position());
+        }
+        rollupRecords[resolution.ordinal()] = records;
+    }
+
+    private void rebuildRollups(List<Long> days) throws IOException {
+        hourly.clear();
+        daily.clear();
+        for (long day : days) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    new FileInputStream(segmentFile(day)), 64 * 1024))) {
+                while (true) {
+                    Event event;
+                    try {
+                        event = readEvent(in);
+                    } catch (EOFException e) {
+                        break;
+                    }
+                    rollUp(hourly, null, Resolution.HOUR, event.kind, event.timestamp, event.outcome,
+                        event.damage, event.durationMillis);
+                    rollUp(daily, null, Resolution.DAY, event.kind, event.timestamp, event.outcome,
+                        event.damage, event.durationMillis);
+                }
+            }
+        }
+        for (Resolution resolution : Resolution.values()) {
+            rollupRecords[resolution.ordinal()] = Integer.MAX_VALUE;
+            rollupFile(resolution).delete();
+            compactIfSparse(resolution);
+        }
+    }
+
+    private static Event readEvent(DataInputStream in) throws IOException {
+        long timestamp = in.readLong();
+        int lutemonId = in.readInt();
+        int kind = in.readInt();
+        int outcome = in.readInt();
+        int damage = in.readInt();
+        int duration = in.readInt();
+        Kind[] kinds = Kind.values();
+        return new Event(kind >= 0 && kind < kinds.length ? kinds[kind] : Kind.BATTLE, timestamp, lutemonId,
+            outcome, damage, duration);
+    }
+
+    private List<Long> segmentDays() {
+        List<Long> days = new ArrayList<>();
+        String[] names = directory.list();
+        if (names != null) {
+            for (String name : names) {
+                if (name.endsWith(SEGMENT_EXTENSION)) {
+                    try {
+                        days.add(Long.parseLong(name.substring(0, name.length() - SEGMENT_EXTENSION.length())));
+                    } catch (NumberFormatException e) {
+                        // Not a segment
+                    }
+                }
+            }
+        }
+        Collections.sort(days);
+        return days;
+    }
+
+    private File segmentFile(long day) {
+        return new File(directory, day + SEGMENT_EXTENSION);
+    }
+
+    private File rollupFile(Resolution resolution) {
+        return new File(directory, resolution.name().toLowerCase(Locale.ROOT) + ROLLUP_EXTENSION);
+    }
+
+    private static void truncate(File file, long length) throws IOException {
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "rw")) {
+            randomAccessFile.setLength(length);
+        }
+    }
+}
@@ -1,12 +1,14 @@
 package com.main.lutemon.utils;
 
 import com.badlogic.gdx.Gdx;
-import com.main.lutemon.model.lutemon.Lutemon;
-import com.main.lutemon.model.profile.Profile;
+import com.main.lutemon.model.storage.PerformanceAggregates;
 import com.main.lutemon.model.storage.Storage;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
-import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -18,18 +20,35 @@ public class StatisticsManager implements Serializable {
     private static final long serialVersionUID = 1L;
     private static volatile StatisticsManager instance;
 
-    // General statistics
-    private int totalLutemonsCreated;
-    private int totalBattles;
-    private int totalTrainingSessions;
+    // Saved as the three totals, the form this class has always been serialized in
+    private static final ObjectStreamField[] serialPersistentFields = {
+        new ObjectStreamField("totalLutemonsCreated", int.class),
+        new ObjectStreamField("totalBattles", int.class),
+        new ObjectStreamField("totalTrainingSessions", int.class)
+    };
+
+    // General statistics, the only copy of the totals; profiles take theirs from here when saved.
+    // Striped, so that any number of threads can count without taking a lock.
+    private transient StripedCounter totalLutemonsCreated;
+    private transient StripedCounter totalBattles;
+    private transient StripedCounter totalTrainingSessions;
+
+    // Counts every change, so savers can tell whether the totals changed since they last looked
+    private transient StripedCounter changeCount;
+
+    // Event history of the current profile, opened and closed by ProfileManager
+    private transient volatile StatisticsHistory history;
 
     private StatisticsManager() {
-        totalLutemonsCreated = 0;
-        totalBattles = 0;
-        totalTrainingSessions = 0;
+        initCounters();
     }
 
-    // Constructor initializes statistics to zero
+    private void initCounters() {
+        totalLutemonsCreated = new StripedCounter();
+        totalBattles = new StripedCounter();
+        totalTrainingSessions = new StripedCounter();
+        changeCount = new StripedCounter();
+    }
 
     public static StatisticsManager getInstance() {
         if (instance == null) {
@@ -45,43 +64,39 @@ public class StatisticsManager implements Serializable {
     /**
      * Increments the total number of Lutemons created.
      */
-    public synchronized void incrementLutemonsCreated() {
-        totalLutemonsCreated++;
-        Gdx.app.log("StatisticsManager", "Total Lutemons created: " + totalLutemonsCreated);
-
-        // Update profile if available
-        Profile currentProfile = ProfileManager.getInstance().getCurrentProfile();
-        if (currentProfile != null) {
-            currentProfile.incrementTotalLutemonsCreated();
-        }
+    public void incrementLutemonsCreated() {
+        totalLutemonsCreated.increment();
+        changeCount.increment();
     }
 
     /**
      * Increments the total number of battles.
      */
-    public synchronized void incrementTotalBattles() {
-        totalBattles++;
-        Gdx.app.log("StatisticsManager", "Total battles: " + totalBattles);
-
-        // Update profile if available
-        Profile currentProfile = ProfileManager.getInstance().getCurrentProfile();
-        if (currentProfile != null) {
-            currentProfile.incrementTotalBattles();
-        }
+    public void incrementTotalBattles() {
+        totalBattles.increment();
+        changeCount.increment();
     }
 
     /**
      * Increments the total number of training sessions.
      */
-    public synchronized void incrementTotalTrainingSessions() {
-        totalTrainingSessions++;
-        Gdx.app.log("StatisticsManager", "Total training sessions: " + totalTrainingSessions);
+    public void incrementTotalTrainingSessions() {
+        totalTrainingSessions.increment();
+        changeCount.increment();
+    }
 
-        // Update profile if available
-        Profile currentProfile = ProfileManager.getInstance().getCurrentProfile();
-        if (currentProfile != null) {
-            currentProfile.incrementTotalTrainingSessions();
+    /**
+     * Adds several training sessions at once.
+     * Used by bulk training so the counter is updated once per batch.
+     *
+     * @param count The number of training sessions to add
+     */
+    public void addTotalTrainingSessions(int count) {
+        if (count <= 0) {
+            return;
         }
+        totalTrainingSessions.add(count);
+        changeCount.increment();
     }
 
     /**
@@ -89,7 +104,7 @@ public class StatisticsManager implements Serializable {
      * @return The total number of Lutemons created
      */
     public int getTotalLutemonsCreated() {
-        return totalLutemonsCreated;
+        return (int) totalLutemonsCreated.sum();
     }
 
     // Getter for totalLutemonsCreated
@@ -99,7 +114,7 @@ public class StatisticsManager implements Serializable {
      * @return The total number of battles
      */
     public int getTotalBattles() {
-        return totalBattles;
+        return (int) totalBattles.sum();
     }
 
     // Getter for totalBattles
@@ -109,44 +124,131 @@ public class StatisticsManager implements Serializable {
      * @return The total number of training sessions
      */
     public int getTotalTrainingSessions() {
-        return totalTrainingSessions;
+        return (int) totalTrainingSessions.sum();
     }
 
     // Getter for totalTrainingSessions
 
     /**
      * Gets a map of Lutemon IDs to their performance statistics.
+     * The map is a copy of the incrementally kept aggregates; to read single values use
+     * {@link #getLutemonPerformance(int)} and {@link #getRosterPerformance()}, which do not copy anything.
      * @return A map of Lutemon IDs to their performance statistics
      */
     public Map<Integer, LutemonPerformance> getLutemonPerformanceStats() {
-        Map<Integer, LutemonPerformance> performanceMap = new HashMap<>();
+        return Storage.getInstance().getPerformance().copy();
+    }
 
-        for (Lutemon lutemon : Storage.getInstance().getAllLutemons()) {
-            int id = lutemon.getId();
-            int battles = lutemon.getStats().getBattles();
-            int wins = lutemon.getStats().getWins();
-            int trainingDays = lutemon.getStats().getTrainingDays();
+    /**
+     * Gets the performance statistics of a stored Lutemon.
+     *
+     * @param lutemonId The ID of the Lutemon
+     * @return The performance statistics, or null if the Lutemon is not stored
+     */
+    public LutemonPerformance getLutemonPerformance(int lutemonId) {
+        return Storage.getInstance().getPerformance().get(lutemonId);
+    }
+
+    /**
+     * Gets the sums and averages of the performance statistics over every stored Lutemon.
+     *
+     * @return The live aggregates, updated on every stat change
+     */
+    public PerformanceAggregates getRosterPerformance() {
+        return Storage.getInstance().getPerformance();
+    }
 
-            performanceMap.put(id, new LutemonPerformance(battles, wins, trainingDays));
+    /**
+     * Sets the event history of the current profile.
+     *
+     * @param history The history, or null when no profile is loaded
+     */
+    public void setHistory(StatisticsHistory history) {
+        this.history = history;
+    }
+
+    /**
+     * Gets the event history of the current profile.
+     *
+     * @return The history, or null when no profile is loaded
+     */
+    public StatisticsHistory getHistory() {
+        return history;
+    }
+
+    /**
+     * Records a finished battle in the history of the current profile. The totals are counted when the
+     * result is committed, by {@link #incrementTotalBattles()}.
+     *
+     * @param lutemonId The player's Lutemon
+     * @param won Whether the player won
+     * @param damage The damage the player's Lutemon dealt
+     * @param durationMillis How long the battle lasted
+     */
+    public void recordBattle(int lutemonId, boolean won, int damage, long durationMillis) {
+        StatisticsHistory current = history;
+        if (current != null) {
+            current.record(StatisticsHistory.Kind.BATTLE, lutemonId, won ? 1 : 0, damage, clampMillis(durationMillis));
+        }
+    }
+
+    /**
+     * Records training in the history of the current profile. The totals are counted separately.
+     *
+     * @param lutemonId The trained Lutemon
+     * @param sessions The number of training sessions
+     * @param durationMillis How long the training took
+     */
+    public void recordTraining(int lutemonId, int sessions, long durationMillis) {
+        StatisticsHistory current = history;
+        if (current != null && sessions > 0) {
+            current.record(StatisticsHistory.Kind.TRAINING, lutemonId, sessions, 0, clampMillis(durationMillis));
+        }
+    }
+
+    /**
+     * Records one training session for each of several Lutemons trained at once in the history of
+     * the current profile. The totals are counted separately.
+     *
+     * @param lutemonIds The trained Lutemons
+     * @param count The number of IDs to read from the array
+     */
+    public void recordTraining(int[] lutemonIds, int count) {
+        StatisticsHistory current = history;
+        if (current != null && count > 0) {
+            current.recordEach(StatisticsHistory.Kind.TRAINING, lutemonIds, count, 1, 0, 0);
         }
+    }
+
+    private static int clampMillis(long millis) {
+        return (int) Math.max(0, Math.min(Integer.MAX_VALUE, millis));
+    }
 
-        return performanceMap;
+    /**
+     * Gets a count that changes whenever any of the totals is changed.
+     *
+     * @return The number of changes made so far
+     */
+    public long getChangeCount() {
+        return changeCount.sum();
     }
 
     /**
      * Resets all statistics.
      * This is called when loading a profile to ensure statistics are properly isolated between profiles.
+     * Counting must not go on at the same time.
      */
     public synchronized void reset() {
         Gdx.app.log("StatisticsManager", "Resetting statistics - Old values: " +
-                  "Lutemons created: " + totalLutemonsCreated +
-                  ", Battles: " + totalBattles +
-                  ", Training sessions: " + totalTrainingSessions);
+                  "Lutemons created: " + getTotalLutemonsCreated() +
+                  ", Battles: " + getTotalBattles() +
+                  ", Training sessions: " + getTotalTrainingSessions());
 
         // Reset all statistics to zero
-        totalLutemonsCreated = 0;
-        totalBattles = 0;
-        totalTrainingSessions = 0;
+        totalLutemonsCreated.set(0);
+        totalBattles.set(0);
+        totalTrainingSessions.set(0);
+        changeCount.increment();
 
         Gdx.app.log("StatisticsManager", "Statistics reset complete");
     }
@@ -159,7 +261,8 @@ public class StatisticsManager implements Serializable {
      */
     public synchronized void setTotalLutemonsCreated(int totalLutemonsCreated) {
         Gdx.app.log("StatisticsManager", "Setting total Lutemons created: " + totalLutemonsCreated);
-        this.totalLutemonsCreated = totalLutemonsCreated;
+        this.totalLutemonsCreated.set(totalLutemonsCreated);
+        changeCount.increment();
     }
 
     /**
@@ -170,7 +273,8 @@ public class StatisticsManager implements Serializable {
      */
     public synchronized void setTotalBattles(int totalBattles) {
         Gdx.app.log("StatisticsManager", "Setting total battles: " + totalBattles);
-        this.totalBattles = totalBattles;
+        this.totalBattles.set(totalBattles);
+        changeCount.increment();
     }
 
     /**
@@ -181,7 +285,24 @@ public class StatisticsManager implements Serializable {
      */
     public synchronized void setTotalTrainingSessions(int totalTrainingSessions) {
         Gdx.app.log("StatisticsManager", "Setting total training sessions: " + totalTrainingSessions);
-        this.totalTrainingSessions = totalTrainingSessions;
+        this.totalTrainingSessions.set(totalTrainingSessions);
+        changeCount.increment();
+    }
+
+    private void writeObject(ObjectOutputStream out) throws IOException {
+        ObjectOutputStream.PutField fields = out.putFields();
+        fields.put("totalLutemonsCreated", getTotalLutemonsCreated());
+        fields.put("totalBattles", getTotalBattles());
+        fields.put("totalTrainingSessions", getTotalTrainingSessions());
+        out.writeFields();
+    }
+
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        initCounters();
+        totalLutemonsCreated.set(fields.get("totalLutemonsCreated", 0));
+        totalBattles.set(fields.get("totalBattles", 0));
+        totalTrainingSessions.set(fields.get("totalTrainingSessions", 0));
     }
 
     // For serialization purposes
@@ -0,0 +1,87 @@
+package com.main.lutemon.utils;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter that many threads can add to at once without contending, in the manner of
+ * {@code java.util.concurrent.atomic.LongAdder}, which needs Android API level 24.
+ *
+ * <p>The count is spread over a fixed number of cells, each on its own cache line. A thread adds to
+ * the cell it was assigned and moves on to another one when a compare-and-set on it fails, so threads
+ * that keep colliding spread out. Reading the count sums the cells; a sum taken while other threads
+ * add is not a snapshot, but it includes every addition that finished before the sum started.
+ */
+final class StripedCounter {
+    // Longs per cell, so that two cells never share a 64 byte cache line
+    private static final int PADDING = 8;
+    private static final int MAX_CELLS = 64;
+    private static final AtomicInteger nextProbe = new AtomicInteger();
+    private static final ThreadLocal<int[]> probe = new ThreadLocal<int[]>() {
+        @Override
+        protected int[] initialValue() {
+            return new int[] { nextProbe.getAndIncrement() };
+        }
+    };
+
+    private final AtomicLongArray cells;
+    private final int mask;
+
+    StripedCounter() {
+        int count = 1;
+        int wanted = Math.min(MAX_CELLS, Runtime.getRuntime().availableProcessors() * 2);
+        while (count < wanted) {
+            count <<= 1;
+        }
+        cells = new AtomicLongArray(count * PADDING);
+        mask = count - 1;
+    }
+
+    /**
+     * Adds to the count.
+     *
+     * @param delta The amount to add, which may be negative
+     */
+    void add(long delta) {
+        int[] threadProbe = probe.get();
+        while (true) {
+            int index = (threadProbe[0] & mask) * PADDING;
+            long current = cells.get(index);
+            if (cells.compareAndSet(index, current, current + delta)) {
+                return;
+            }
+            // Another thread uses the same cell; try the next one from now on
+            threadProbe[0]++;
+        }
+    }
+
+    void increment() {
+        add(1);
+    }
+
+    /**
+     * Gets the count.
+     *
+     * @return The sum of every cell
+     */
+    long sum() {
+        long sum = 0;
+        for (int i = 0; i < cells.length(); i += PADDING) {
+            sum += cells.get(i);
+        }
+        return sum;
+    }
+
+    /**
+     * Sets the count. Additions made at the same time may be lost, so this is meant for loading and
+     * resetting, while nothing else is counting.
+     *
+     * @param value The new count
+     */
+    void set(long value) {
+        for (int i = PADDING; i < cells.length(); i += PADDING) {
+            cells.set(i, 0);
+        }
+        cells.set(0, value);
+    }
+}
@@ -0,0 +1,373 @@
+package com.main.lutemon.utils;
+
+import com.badlogic.gdx.files.FileHandle;
+import com.main.lutemon.model.lutemon.Lutemon;
+import com.main.lutemon.model.lutemon.stats.LutemonStats;
+import com.main.lutemon.model.profile.Profile;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Checks that every {@link PersistenceBackend} behaves the same, then compares them: what a crash during
+ * a save or a damaged file leaves behind, and save and load latency and size on disk for several roster
+ * sizes. Run it as a plain Java program from the test classpath; it needs no libGDX backend. Roster
+ * sizes can be given as arguments.
+ *
+ * <p>Each backend runs in a temporary directory that is deleted afterwards. The checks are the contract
+ * a new backend must meet before {@link ProfileManager#useBackend} offers it.
+ */
+public final class PersistenceBackendBenchmark {
+    private static final String[] BACKENDS = {BinaryFileBackend.NAME, JsonFileBackend.NAME, KeyValueBackend.NAME};
+    private static final int[] ROSTER_SIZES = {5, 500, 5_000, 50_000};
+    private static final int ROUNDS = 5;
+    // Bytes cut off the end of the newest file to simulate a file damaged after it was written
+    private static final int DAMAGED_BYTES = 16;
+
+    private PersistenceBackendBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int[] rosterSizes = ROSTER_SIZES;
+        if (args.length > 0) {
+            rosterSizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                rosterSizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        boolean passed = true;
+        System.out.println("Conformance");
+        for (String name : BACKENDS) {
+            passed &= runChecks(name);
+        }
+
+        System.out.println();
+        System.out.println("Durability: which version a fresh start reads");
+        System.out.printf("%-10s %-18s %-18s%n", "backend", "interrupted save", "damaged file");
+        for (String name : BACKENDS) {
+            System.out.printf("%-10s %-18s %-18s%n", name, interruptedSave(name), damagedFile(name));
+        }
+
+        System.out.println();
+        System.out.println("Latency, average of " + ROUNDS + " rounds");
+        System.out.printf("%9s %-10s %10s %10s %12s%n", "Lutemons", "backend", "save ms", "load ms", "disk bytes");
+        // Results are summed into this so the JIT cannot drop the work being timed
+        long sink = 0;
+        for (int rosterSize : rosterSizes) {
+            Profile profile = ProfileCodecBenchmark.createProfile(rosterSize);
+            for (String name : BACKENDS) {
+                sink += measure(name, profile);
+            }
+        }
+        System.out.println("(checksum " + sink + ")");
+
+        if (!passed) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Runs the conformance checks against one backend.
+     *
+     * @return True if every check passed
+     */
+    private static boolean runChecks(String name) throws IOException {
+        File directory = createDirectory(name);
+        List<String> failures = new ArrayList<>();
+        try {
+            PersistenceBackend backend = createBackend(name, directory);
+            check(failures, backend.getName().equals(name), "reports its own name");
+            check(failures, backend.list().isEmpty(), "lists nothing when empty");
+            check(failures, !backend.exists("missing"), "has no profile before one is saved");
+            check(failures, loadFails(backend, "missing"), "fails to load a missing profile");
+            check(failures, !backend.delete("missing"), "does not delete a missing profile");
+
+            Profile profile = createProfile("Ash", 3, 1);
+            backend.save(profile, null, ProfileCompression.NONE);
+            check(failures, backend.exists("Ash"), "has a saved profile");
+            check(failures, !backend.needsRewrite("Ash"), "does not rewrite its own profiles");
+            check(failures, describe(load(backend, "Ash")).equals(describe(profile)), "loads what it saved");
+
+            Profile changed = createProfile("Ash", 4, 2);
+            backend.save(changed, null, ProfileCompression.NONE);
+            check(failures, describe(load(backend, "Ash")).equals(describe(changed)), "loads the newest version");
+            check(failures, backend.list().size() == 1, "lists an overwritten profile once");
+
+            Profile compressed = createProfile("Misty", 20, 3);
+            backend.save(compressed, null, ProfileCompression.deflate(6));
+            check(failures, describe(load(backend, "Misty")).equals(describe(compressed)),
+                "loads a profile saved with compression");
+
+            // Spaces and letters outside ASCII are allowed in profile names
+            Profile unusual = createProfile("Brock \u00c4\u00f6 \u30b5\u30c8\u30b7", 2, 4);
+            backend.save(unusual, null, ProfileCompression.NONE);
+            check(failures, describe(load(backend, unusual.getName())).equals(describe(unusual)),
+                "loads a profile with spaces and non-ASCII letters in its name");
+            check(failures, backend.list().containsAll(Arrays.asList("Ash", "Misty", unusual.getName()))
+                && backend.list().size() == 3, "lists every saved profile");
+
+            backend.close();
+            PersistenceBackend reopened = createBackend(name, directory);
+            check(failures, describe(load(reopened, "Ash")).equals(describe(changed)),
+                "loads what an earlier instance saved");
+
+            check(failures, reopened.delete("Misty"), "deletes a profile");
+            check(failures, !reopened.exists("Misty") && loadFails(reopened, "Misty"),
+                "has no profile once it is deleted");
+            check(failures, !reopened.delete("Misty"), "does not delete a profile twice");
+            check(failures, reopened.list().size() == 2, "lists the profiles that are left");
+            reopened.close();
+
+            PersistenceBackend afterDelete = createBackend(name, directory);
+            check(failures, !afterDelete.exists("Misty") && afterDelete.exists("Ash"),
+                "keeps a deletion after a restart");
+            afterDelete.close();
+        } catch (IOException | RuntimeException e) {
+            failures.add("threw " + e);
+        } finally {
+            deleteRecursively(directory);
+        }
+
+        System.out.printf("%-10s %s%n", name, failures.isEmpty() ? "passed" : "FAILED: " + failures);
+        return failures.isEmpty();
+    }
+
+    /**
+     * Saves two versions of a profile and then puts the files back the way a crash halfway through
+     * writing the second would have left them. A replaced file is still whole, with half of the new one
+     * in a temporary file beside it; an appended file ends with half of what was appended.
+     */
+    private static String interruptedSave(String name) throws IOException {
+        File directory = createDirectory(name);
+        try {
+            PersistenceBackend backend = createBackend(name, directory);
+            backend.save(createProfile("Ash", 50, 1), null, ProfileCompression.NONE);
+            Map<String, byte[]> before = readFiles(directory);
+            backend.save(createProfile("Ash", 50, 2), null, ProfileCompression.NONE);
+            Map<String, byte[]> after = readFiles(directory);
+            backend.close();
+
+            for (Map.Entry<String, byte[]> entry : after.entrySet()) {
+                byte[] previous = before.get(entry.getKey());
+                byte[] current = entry.getValue();
+                if (previous != null && Arrays.equals(previous, current)) {
+                    continue;
+                }
+                File file = new File(directory, entry.getKey());
+                if (previous != null && startsWith(current, previous)) {
+                    writeFile(file, Arrays.copyOf(current, previous.length + (current.length - previous.length) / 2));
+                } else {
+                    if (previous != null) {
+                        writeFile(file, previous);
+                    } else {
+                        file.delete();
+                    }
+                    writeFile(new File(directory, entry.getKey() + AtomicFileWriter.TEMP_SUFFIX),
+                        Arrays.copyOf(current, current.length / 2));
+                }
+            }
+            // Files the second save deleted are still there when it is cut short
+            for (Map.Entry<String, byte[]> entry : before.entrySet()) {
+                if (!after.containsKey(entry.getKey())) {
+                    writeFile(new File(directory, entry.getKey()), entry.getValue());
+                }
+            }
+            return survivingVersion(name, directory);
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    /**
+     * Saves two versions of a profile and then cuts the end off the file written last, as a full disk
+     * or a failing storage device can do to a file after it was written.
+     */
+    private static String damagedFile(String name) throws IOException {
+        File directory = createDirectory(name);
+        try {
+            PersistenceBackend backend = createBackend(name, directory);
+            backend.save(createProfile("Ash", 50, 1), null, ProfileCompression.NONE);
+            backend.save(createProfile("Ash", 50, 2), null, ProfileCompression.NONE);
+            backend.close();
+
+            File newest = null;
+            for (File file : listFiles(directory)) {
+                if (newest == null || file.lastModified() >= newest.lastModified()) {
+                    newest = file;
+                }
+            }
+            try (RandomAccessFile file = new RandomAccessFile(newest, "rw")) {
+                file.setLength(Math.max(0, file.length() - DAMAGED_BYTES));
+            }
+            return survivingVersion(name, directory);
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    private static String survivingVersion(String name, File directory) {
+        PersistenceBackend backend = createBackend(name, directory);
+        try {
+            int version = backend.load("Ash", ProfileCodecBenchmark::createLutemon).getTotalBattles();
+            return version == 2 ? "new version" : version == 1 ? "previous version" : "wrong version";
+        } catch (IOException | RuntimeException e) {
+            return "lost";
+        } finally {
+            try {
+                backend.close();
+            } catch (IOException ignored) {
+                // The result is already known
+            }
+        }
+    }
+
+    /**
+     * Times saving and loading a profile with one backend and prints a row of results.
+     *
+     * @return A value depending on the results, to keep the work from being optimized away
+     */
+    private static long measure(String name, Profile profile) throws IOException {
+        File directory = createDirectory(name);
+        try {
+            PersistenceBackend backend = createBackend(name, directory);
+            long sink = 0;
+            double saveMillis = 0;
+            double loadMillis = 0;
+
+            // The first round warms up and is not counted
+            for (int round = 0; round <= ROUNDS; round++) {
+                long start = System.nanoTime();
+                backend.save(profile, null, ProfileCompression.NONE);
+                long saved = System.nanoTime();
+                sink += backend.load(profile.getName(), ProfileCodecBenchmark::createLutemon).getLutemons().size();
+                long loaded = System.nanoTime();
+                if (round > 0) {
+                    saveMillis += (saved - start) / 1e6 / ROUNDS;
+                    loadMillis += (loaded - saved) / 1e6 / ROUNDS;
+                }
+            }
+            backend.close();
+
+            long diskBytes = 0;
+            for (File file : listFiles(directory)) {
+                diskBytes += file.length();
+            }
+            System.out.printf("%9d %-10s %10.2f %10.2f %12d%n", profile.getLutemons().size(), name,
+                saveMillis, loadMillis, diskBytes);
+            return sink;
+        } finally {
+            deleteRecursively(directory);
+        }
+    }
+
+    private static PersistenceBackend createBackend(String name, File directory) {
+        return ProfileManager.createBackend(name, new FileHandle(directory));
+    }
+
+    private static Profile createProfile(String name, int lutemonCount, int version) {
+        Profile profile = ProfileCodecBenchmark.createProfile(lutemonCount);
+        profile.setName(name);
+        profile.setCreationDate(new Date(1_600_000_000_000L));
+        profile.setLastPlayedDate(new Date(1_600_000_000_000L + version));
+        profile.setTotalBattles(version);
+        profile.setTotalTrainingSessions(version * 3);
+        profile.setJournalSequence(version * 10L);
+        return profile;
+    }
+
+    private static Profile load(PersistenceBackend backend, String name) throws IOException {
+        return backend.load(name, ProfileCodecBenchmark::createLutemon);
+    }
+
+    private static boolean loadFails(PersistenceBackend backend, String name) {
+        try {
+            backend.load(name, ProfileCodecBenchmark::createLutemon);
+            return false;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Describes everything a backend must keep of a profile, so two profiles can be compared.
+     */
+    private static String describe(Profile profile) {
+        StringBuilder description = new StringBuilder()
+            .append(profile.getName()).append('|')
+            .append(profile.getCreationDate().getTime()).append('|')
+            .append(profile.getLastPlayedDate().getTime()).append('|')
+            .append(profile.getTotalLutemonsCreated()).append('|')
+            .append(profile.getTotalBattles()).append('|')
+            .append(profile.getTotalTrainingSessions()).append('|')
+            .append(profile.getJournalSequence());
+        for (Lutemon lutemon : profile.getLutemons()) {
+            LutemonStats stats = lutemon.getStats();
+            description.append('\n')
+                .append(lutemon.getId()).append(' ')
+                .append(lutemon.getType()).append(' ')
+                .append(lutemon.getName()).append(' ')
+                .append(stats.getExperience()).append(' ')
+                .append(stats.getCurrentHealth()).append(' ')
+                .append(stats.getTrainingDays()).append(' ')
+                .append(stats.getBattles()).append(' ')
+                .append(stats.getWins());
+        }
+        return description.toString();
+    }
+
+    private static void check(List<String> failures, boolean condition, String description) {
+        if (!condition) {
+            failures.add(description);
+        }
+    }
+
+    private static boolean startsWith(byte[] data, byte[] prefix) {
+        return data.length >= prefix.length && Arrays.equals(Arrays.copyOf(data, prefix.length), prefix);
+    }
+
+    private static Map<String, byte[]> readFiles(File directory) throws IOException {
+        Map<String, byte[]> files = new HashMap<>();
+        for (File file : listFiles(directory)) {
+            files.put(file.getName(), new FileHandle(file).readBytes());
+        }
+        return files;
+    }
+
+    private static File[] listFiles(File directory) {
+        File[] files = directory.listFiles(File::isFile);
+        return files != null ? files : new File[0];
+    }
+
+    private static void writeFile(File file, byte[] data) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(data);
+        }
+    }
+
+    private static File createDirectory(String name) throws IOException {
+        File directory = File.createTempFile("lutemon-" + name, "");
+        if (!directory.delete() || !directory.mkdir()) {
+            throw new IOException("Could not create " + directory);
+        }
+        return directory;
+    }
+
+    private static void deleteRecursively(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                deleteRecursively(child);
+            }
+        }
+        file.delete();
+    }
+}
@@ -0,0 +1,127 @@
+package com.main.lutemon.utils;
+
+import com.badlogic.gdx.utils.Json;
+import com.main.lutemon.model.lutemon.BlackLutemon;
+import com.main.lutemon.model.lutemon.GreenLutemon;
+import com.main.lutemon.model.lutemon.Lutemon;
+import com.main.lutemon.model.lutemon.OrangeLutemon;
+import com.main.lutemon.model.lutemon.PinkLutemon;
+import com.main.lutemon.model.lutemon.WhiteLutemon;
+import com.main.lutemon.model.lutemon.stats.LutemonStatsCodec;
+import com.main.lutemon.model.profile.Profile;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Compares saving and loading a large profile as JSON against {@link ProfileBinaryCodec}.
+ * Run it as a plain Java program from the test classpath; it needs no libGDX backend. JSON is read with
+ * {@link ProfileJsonReader} and both loads create the Lutemons with their stats restored, the same work
+ * {@link ProfileManager} does.
+ */
+public final class ProfileCodecBenchmark {
+    private static final int LUTEMONS = 50_000;
+    private static final int ROUNDS = 5;
+
+    private ProfileCodecBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int lutemonCount = args.length > 0 ? Integer.parseInt(args[0]) : LUTEMONS;
+        Profile profile = createProfile(lutemonCount);
+
+        Json json = new Json();
+        json.setIgnoreUnknownFields(true);
+        json.setTypeName("class");
+        json.addClassTag("profile", Profile.class);
+        ProfileJsonReader jsonReader = new ProfileJsonReader();
+
+        // Results are summed into this so the JIT cannot drop the work being timed
+        long sink = 0;
+        String jsonData = null;
+        byte[] binaryData = null;
+        double jsonSaveMillis = 0;
+        double jsonLoadMillis = 0;
+        double binarySaveMillis = 0;
+        double binaryLoadMillis = 0;
+
+        // The first round warms up and is not counted
+        for (int round = 0; round <= ROUNDS; round++) {
+            long start = System.nanoTime();
+            jsonData = json.toJson(profile);
+            long jsonSaved = System.nanoTime();
+            sink += jsonReader.read(new StringReader(jsonData), "benchmark", ProfileCodecBenchmark::createLutemon)
+                .getLutemons().size();
+            long jsonLoaded = System.nanoTime();
+            binaryData = ProfileBinaryCodec.encode(profile);
+            long binarySaved = System.nanoTime();
+            sink += ProfileBinaryCodec.decode(binaryData, ProfileCodecBenchmark::createLutemon).getLutemons().size();
+            long binaryLoaded = System.nanoTime();
+
+            if (round > 0) {
+                jsonSaveMillis += (jsonSaved - start) / 1e6 / ROUNDS;
+                jsonLoadMillis += (jsonLoaded - jsonSaved) / 1e6 / ROUNDS;
+                binarySaveMillis += (binarySaved - jsonLoaded) / 1e6 / ROUNDS;
+                binaryLoadMillis += (binaryLoaded - binarySaved) / 1e6 / ROUNDS;
+            }
+        }
+
+        int jsonBytes = jsonData.getBytes(StandardCharsets.UTF_8).length;
+        System.out.println("Profile with " + lutemonCount + " Lutemons, average of " + ROUNDS + " rounds");
+        System.out.printf("           %12s %12s %8s%n", "JSON", "binary", "ratio");
+        System.out.printf("size bytes %12d %12d %7.1fx%n", jsonBytes, binaryData.length,
+            (double) jsonBytes / binaryData.length);
+        System.out.printf("save ms    %12.2f %12.2f %7.1fx%n", jsonSaveMillis, binarySaveMillis,
+            jsonSaveMillis / binarySaveMillis);
+        System.out.printf("load ms    %12.2f %12.2f %7.1fx%n", jsonLoadMillis, binaryLoadMillis,
+            jsonLoadMillis / binaryLoadMillis);
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    static Profile createProfile(int lutemonCount) {
+        Profile profile = new Profile("benchmark");
+        String[] names = {"Sparky", "Blaze", "Leafy", "Bubbles", "Shadow", "Frost", "Pebble", "Ember"};
+        List<Lutemon> lutemons = new ArrayList<>(lutemonCount);
+        for (int i = 0; i < lutemonCount; i++) {
+            String type = String.valueOf(i % 5);
+            Lutemon lutemon = createLutemon(type, i + 1, names[i % names.length], i % 200, 0,
+                i % 30, i % 40, i % 17);
+            lutemon.getStats().setCurrentHealth(Math.max(1, lutemon.getStats().getMaxHealth() - i % 7));
+            lutemons.add(lutemon);
+        }
+        profile.setLutemons(lutemons);
+        profile.setTotalLutemonsCreated(lutemonCount);
+        return profile;
+    }
+
+    static Lutemon createLutemon(String type, int id, String name, int experience, int currentHealth,
+                                         int trainingDays, int battles, int wins) {
+        Lutemon lutemon;
+        switch (type) {
+            case "0":
+            case "WHITE":
+                lutemon = new WhiteLutemon(id, name);
+                break;
+            case "1":
+            case "GREEN":
+                lutemon = new GreenLutemon(id, name);
+                break;
+            case "2":
+            case "PINK":
+                lutemon = new PinkLutemon(id, name);
+                break;
+            case "3":
+            case "ORANGE":
+                lutemon = new OrangeLutemon(id, name);
+                break;
+            default:
+                lutemon = new BlackLutemon(id, name);
+                break;
+        }
+        LutemonStatsCodec.restore(lutemon.getStats(), experience, currentHealth, trainingDays, battles, wins);
+        return lutemon;
+    }
+}
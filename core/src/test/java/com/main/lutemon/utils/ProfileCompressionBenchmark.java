@@ -0,0 +1,81 @@
+package com.main.lutemon.utils;
+
+import com.main.lutemon.model.profile.Profile;
+
+import java.io.IOException;
+
+/**
+ * Compares the {@link ProfileCompression} options on binary profiles of several roster sizes,
+ * reporting the saved size and how fast each option compresses and decompresses.
+ * Run it as a plain Java program from the test classpath; it needs no libGDX backend. Roster sizes can be
+ * given as arguments.
+ *
+ * <p>Throughput is measured on the uncompressed profile, so options can be compared directly:
+ * a save costs roughly size / compress throughput on top of writing the compressed bytes.
+ */
+public final class ProfileCompressionBenchmark {
+    private static final int[] ROSTER_SIZES = {5, 50, 500, 5_000, 50_000};
+    // Each size is compressed until roughly this many bytes have been processed, so small rosters are timed too
+    private static final long BYTES_PER_ROUND = 16L << 20;
+    private static final int ROUNDS = 3;
+
+    private static final ProfileCompression[] OPTIONS = {
+        ProfileCompression.deflate(1),
+        ProfileCompression.deflate(6),
+        ProfileCompression.deflate(9),
+    };
+
+    private ProfileCompressionBenchmark() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        int[] rosterSizes = ROSTER_SIZES;
+        if (args.length > 0) {
+            rosterSizes = new int[args.length];
+            for (int i = 0; i < args.length; i++) {
+                rosterSizes[i] = Integer.parseInt(args[i]);
+            }
+        }
+
+        // Results are summed into this so the JIT cannot drop the work being timed
+        long sink = 0;
+        System.out.printf("%9s %-22s %10s %7s %14s %14s%n",
+            "Lutemons", "compression", "bytes", "ratio", "compress MB/s", "inflate MB/s");
+        for (int rosterSize : rosterSizes) {
+            Profile profile = ProfileCodecBenchmark.createProfile(rosterSize);
+            byte[] plain = ProfileBinaryCodec.encode(profile);
+            System.out.printf("%9d %-22s %10d %7s %14s %14s%n", rosterSize, ProfileCompression.NONE, plain.length,
+                "1.00x", "-", "-");
+
+            int iterations = (int) Math.max(1, BYTES_PER_ROUND / plain.length);
+            for (ProfileCompression option : OPTIONS) {
+                byte[] packed = option.compress(plain, 0, plain.length);
+                double compressSeconds = 0;
+                double decompressSeconds = 0;
+
+                // The first round warms up and is not counted
+                for (int round = 0; round <= ROUNDS; round++) {
+                    long start = System.nanoTime();
+                    for (int i = 0; i < iterations; i++) {
+                        sink += option.compress(plain, 0, plain.length).length;
+                    }
+                    long compressed = System.nanoTime();
+                    for (int i = 0; i < iterations; i++) {
+                        sink += ProfileCompression.decompress(option.getMethod(), packed, 0, packed.length,
+                            plain.length)[0];
+                    }
+                    long decompressed = System.nanoTime();
+                    if (round > 0) {
+                        compressSeconds += (compressed - start) / 1e9;
+                        decompressSeconds += (decompressed - compressed) / 1e9;
+                    }
+                }
+
+                double megabytes = (double) plain.length * iterations * ROUNDS / (1 << 20);
+                System.out.printf("%9d %-22s %10d %6.2fx %14.1f %14.1f%n", rosterSize, option, packed.length,
+                    (double) plain.length / packed.length, megabytes / compressSeconds, megabytes / decompressSeconds);
+            }
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+}
@@ -0,0 +1,94 @@
+package com.main.lutemon.utils;
+
+import com.main.lutemon.model.lutemon.stats.LutemonStats;
+import com.main.lutemon.model.lutemon.stats.LutemonStatsCodec;
+
+/**
+ * Compares restoring saved stats with {@link LutemonStatsCodec} against replaying them point by point,
+ * the way profiles used to be loaded. Run it as a plain Java program from the test classpath; it needs no
+ * libGDX backend.
+ * Codec timings should stay flat as the stat magnitudes grow, while the replay grows linearly.
+ */
+public final class StatsCodecBenchmark {
+    private static final int[] MAGNITUDES = {10, 1_000, 100_000, 1_000_000, 10_000_000};
+    private static final int CODEC_RESTORES = 100_000;
+    private static final long REPLAY_BUDGET_NANOS = 2_000_000_000L;
+
+    private StatsCodecBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        // Results are summed into this so the JIT cannot drop the work being timed
+        long sink = 0;
+        System.out.println("magnitude   codec ns/restore   replay ns/restore   equal");
+        for (int magnitude : MAGNITUDES) {
+            int experience = magnitude;
+            int battles = magnitude / 2;
+            int wins = magnitude / 4;
+            int trainingDays = magnitude / 3;
+
+            // Warm up and time the codec
+            double codecNanos = 0;
+            for (int round = 0; round < 2; round++) {
+                long start = System.nanoTime();
+                for (int i = 0; i < CODEC_RESTORES; i++) {
+                    LutemonStats stats = freshStats();
+                    LutemonStatsCodec.restore(stats, experience + (i & 1), 0, trainingDays, battles, wins);
+                    sink += stats.getCurrentHealth() + stats.getExperience();
+                }
+                codecNanos = (double) (System.nanoTime() - start) / CODEC_RESTORES;
+            }
+
+            // Replay as many times as fit in the budget, at least once to check the result
+            int replays = 0;
+            long replayStart = System.nanoTime();
+            LutemonStats replayed;
+            do {
+                replayed = replay(experience, battles, wins, trainingDays);
+                sink += replayed.getCurrentHealth();
+                replays++;
+            } while (System.nanoTime() - replayStart < REPLAY_BUDGET_NANOS / MAGNITUDES.length && replays < CODEC_RESTORES);
+            double replayNanos = (double) (System.nanoTime() - replayStart) / replays;
+
+            LutemonStats restored = freshStats();
+            LutemonStatsCodec.restore(restored, experience, 0, trainingDays, battles, wins);
+
+            System.out.printf("%9d   %16.1f   %17.1f   %s%n", magnitude, codecNanos, replayNanos, sameStats(restored, replayed));
+        }
+        System.out.println("(checksum " + sink + ")");
+    }
+
+    private static LutemonStats freshStats() {
+        LutemonStats stats = new LutemonStats();
+        stats.setBaseStats(7, 4, 19);
+        return stats;
+    }
+
+    private static LutemonStats replay(int experience, int battles, int wins, int trainingDays) {
+        LutemonStats stats = freshStats();
+        for (int i = 0; i < experience; i++) {
+            stats.incrementExperience();
+        }
+        for (int i = 0; i < battles; i++) {
+            stats.incrementBattles();
+        }
+        for (int i = 0; i < wins; i++) {
+            stats.incrementWins();
+        }
+        for (int i = 0; i < trainingDays; i++) {
+            stats.incrementTrainingDays();
+        }
+        return stats;
+    }
+
+    private static boolean sameStats(LutemonStats a, LutemonStats b) {
+        return a.getExperience() == b.getExperience()
+            && a.getCurrentHealth() == b.getCurrentHealth()
+            && a.getMaxHealth() == b.getMaxHealth()
+            && a.getAttack() == b.getAttack()
+            && a.getDefense() == b.getDefense()
+            && a.getTrainingDays() == b.getTrainingDays()
+            && a.getBattles() == b.getBattles()
+            && a.getWins() == b.getWins();
+    }
+}